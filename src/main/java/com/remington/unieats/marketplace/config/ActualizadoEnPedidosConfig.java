@@ -0,0 +1,71 @@
+package com.remington.unieats.marketplace.config;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * ddl-auto=update agrega pedidos.actualizado_en vacía en las bases existentes. Los
+ * pedidos anteriores toman su fecha de creación, para que la sincronización incremental
+ * del panel (?desde=) los vea igual que a los nuevos.
+ *
+ * Se hace una sola vez: al terminar, la columna queda NOT NULL, y en los arranques
+ * siguientes basta mirar los metadatos para saltarse el UPDATE sobre toda la tabla.
+ */
+@Component
+public class ActualizadoEnPedidosConfig implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActualizadoEnPedidosConfig.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Se inyecta para que la columna ya exista al completar los datos
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void afterPropertiesSet() {
+        try (Connection conexion = dataSource.getConnection();
+             Statement sentencia = conexion.createStatement()) {
+            if (yaCompletada(conexion.getMetaData(), conexion.getCatalog(), conexion.getSchema())) {
+                return;
+            }
+            int completados = sentencia.executeUpdate(
+                    "UPDATE pedidos SET actualizado_en = fecha_creacion WHERE actualizado_en IS NULL");
+            sentencia.executeUpdate("ALTER TABLE pedidos ALTER COLUMN actualizado_en SET NOT NULL");
+            if (!conexion.getAutoCommit()) {
+                conexion.commit();
+            }
+            if (completados > 0) {
+                logger.info("actualizado_en completado en {} pedidos existentes", completados);
+            }
+        } catch (SQLException e) {
+            logger.warn("No se pudo completar actualizado_en en los pedidos existentes: {}", e.getMessage());
+        }
+    }
+
+    // Cada motor guarda los nombres en su propia capitalización (pedidos en Postgres, PEDIDOS en H2)
+    private static boolean yaCompletada(DatabaseMetaData metadatos, String catalogo, String esquema) throws SQLException {
+        for (String[] nombres : new String[][] {{"pedidos", "actualizado_en"}, {"PEDIDOS", "ACTUALIZADO_EN"}}) {
+            try (ResultSet columnas = metadatos.getColumns(catalogo, esquema, nombres[0], nombres[1])) {
+                if (columnas.next()) {
+                    return columnas.getInt("NULLABLE") == DatabaseMetaData.columnNoNulls;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,181 @@
+package com.remington.unieats.marketplace.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.remington.unieats.marketplace.dto.ProductoPublicoDTO;
+import com.remington.unieats.marketplace.dto.TiendaPublicaDTO;
+import com.remington.unieats.marketplace.model.enums.EstadoTienda;
+import com.remington.unieats.marketplace.model.repository.TiendaRepository;
+import com.remington.unieats.marketplace.model.repository.UsuarioRepository;
+import com.remington.unieats.marketplace.service.MarketplaceService;
+import com.remington.unieats.marketplace.service.PedidoService;
+import com.remington.unieats.marketplace.service.RespuestasCatalogo;
+import com.remington.unieats.marketplace.service.VendedorService;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Calentamiento al arrancar: abre y valida las conexiones del pool, llena las cachés
+ * del catálogo y recorre las rutas más usadas de MarketplaceServiceImpl y PedidoServiceImpl
+ * para que Hibernate y el JIT no los vea por primera vez con un estudiante esperando.
+ *
+ * Corre con ApplicationReadyEvent, es decir, después de los ApplicationRunner de
+ * RenderConfig / DatabaseHealthCheck y del DataLoader, y antes de que Spring marque
+ * la aplicación como ACCEPTING_TRAFFIC. Además es el indicador "calentamiento" del grupo
+ * readiness: /actuator/health/readiness responde OUT_OF_SERVICE hasta que termina.
+ * Un fallo en un paso se registra pero no impide arrancar (igual que DatabaseHealthCheck).
+ */
+@Component("calentamiento")
+public class CalentamientoInicial implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalentamientoInicial.class);
+
+    @Value("${app.calentamiento.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.calentamiento.iteraciones:3}")
+    private int iteraciones;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MarketplaceService marketplaceService;
+
+    @Autowired
+    private RespuestasCatalogo respuestasCatalogo;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private VendedorService vendedorService;
+
+    @Autowired
+    private TiendaRepository tiendaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private volatile boolean completado = false;
+    private volatile long duracionMs;
+    private final List<String> fallos = new ArrayList<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void calentar() {
+        if (!habilitado) {
+            completado = true;
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        logger.info("🔥 Calentando la aplicación antes de recibir tráfico...");
+
+        ejecutarPaso("conexiones", this::validarConexiones);
+        ejecutarPaso("catálogo", this::calentarCatalogo);
+        ejecutarPaso("pedidos", this::calentarPedidos);
+
+        duracionMs = System.currentTimeMillis() - inicio;
+        completado = true;
+        logger.info("✅ Calentamiento terminado en {} ms{}", duracionMs,
+                fallos.isEmpty() ? "" : " (con fallos: " + fallos + ")");
+    }
+
+    @Override
+    public Health health() {
+        if (!completado) {
+            return Health.outOfService().withDetail("estado", "calentando").build();
+        }
+        Health.Builder estado = Health.up().withDetail("duracionMs", duracionMs);
+        synchronized (fallos) {
+            if (!fallos.isEmpty()) {
+                estado.withDetail("fallos", List.copyOf(fallos));
+            }
+        }
+        return estado.build();
+    }
+
+    private void ejecutarPaso(String nombre, Runnable paso) {
+        long inicio = System.currentTimeMillis();
+        try {
+            paso.run();
+            logger.info("   • {}: {} ms", nombre, System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            logger.warn("⚠️  Falló el calentamiento de {}: {}", nombre, e.getMessage());
+            synchronized (fallos) {
+                fallos.add(nombre + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Pide todas las conexiones del pool a la vez para que queden abiertas y validadas
+    private void validarConexiones() {
+        int tamano = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 1;
+        List<Connection> abiertas = new ArrayList<>(tamano);
+        try {
+            for (int i = 0; i < tamano; i++) {
+                Connection conexion = dataSource.getConnection();
+                abiertas.add(conexion);
+                if (!conexion.isValid(5)) {
+                    throw new IllegalStateException("Conexión inválida en el pool");
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo abrir una conexión: " + e.getMessage(), e);
+        } finally {
+            for (Connection conexion : abiertas) {
+                try {
+                    conexion.close();
+                } catch (SQLException e) {
+                    logger.debug("Error cerrando conexión de calentamiento: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void calentarCatalogo() {
+        for (int i = 0; i < iteraciones; i++) {
+            List<TiendaPublicaDTO> tiendas = marketplaceService.getTiendasActivas();
+            List<ProductoPublicoDTO> productos = marketplaceService.getProductosPopulares();
+            respuestasCatalogo.getTiendasActivas();
+            respuestasCatalogo.getProductosPopulares();
+
+            marketplaceService.getProductosPopulares(null, null);
+            marketplaceService.getProductosFacetados(null, null, null, null);
+            marketplaceService.buscarProductos("a");
+            marketplaceService.buscarProductosDifuso("hamburgesa");
+            marketplaceService.autocompletar("a", null);
+
+            productos.stream().limit(5).forEach(p -> marketplaceService.getDetalleProducto(p.getId()));
+            tiendas.stream().limit(3).forEach(t -> {
+                marketplaceService.getDetallesTienda(t.getId());
+                marketplaceService.getProductosDeTienda(t.getId());
+            });
+        }
+    }
+
+    // Solo lecturas: el historial de un estudiante y el panel de pedidos de una tienda
+    private void calentarPedidos() {
+        for (int i = 0; i < iteraciones; i++) {
+            usuarioRepository.findAll(PageRequest.of(0, 1))
+                    .forEach(usuario -> pedidoService.getMisPedidos(usuario));
+            tiendaRepository.findByEstado(EstadoTienda.ACTIVA).stream()
+                    .findFirst()
+                    .ifPresent(tienda -> vendedorService.getPedidosDeLaTienda(tienda));
+        }
+    }
+}
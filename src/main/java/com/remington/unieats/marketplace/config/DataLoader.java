@@ -3,8 +3,10 @@ package com.remington.unieats.marketplace.config;
 import com.remington.unieats.marketplace.model.entity.*;
 import com.remington.unieats.marketplace.model.repository.*;
 import com.remington.unieats.marketplace.model.enums.EstadoTienda;
+import com.remington.unieats.marketplace.service.CatalogoModificadoEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -23,6 +25,7 @@ public class DataLoader implements CommandLineRunner {
     @Autowired private TiendaRepository tiendaRepository;
     @Autowired private ProductoRepository productoRepository;
     @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private ApplicationEventPublisher eventPublisher;
 
     @Override
     public void run(String... args) throws Exception {
@@ -47,6 +50,9 @@ public class DataLoader implements CommandLineRunner {
             // 4. Crear productos para cada tienda
             crearProductos();
             
+            // Los datos se insertan directo por repositorio: avisar al catálogo
+            eventPublisher.publishEvent(CatalogoModificadoEvent.completo());
+            
             logger.info("✅ DataLoader completado exitosamente");
             logger.info("🎯 Sistema listo para usar con datos de prueba completos");
             logger.info("🔑 Credenciales de prueba:");
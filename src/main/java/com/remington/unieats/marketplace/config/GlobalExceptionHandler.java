@@ -7,6 +7,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
@@ -18,6 +21,12 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    // Streams SSE que se cierran o vencen: no es un error y la respuesta ya está enviada
+    @ExceptionHandler({AsyncRequestNotUsableException.class, AsyncRequestTimeoutException.class})
+    public void handleStreamCerrado(Exception ex, HttpServletRequest httpRequest) {
+        logger.debug("Stream cerrado uri={}: {}", httpRequest.getRequestURI(), ex.getClass().getSimpleName());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleApiException(Exception ex, WebRequest request, HttpServletRequest httpRequest) {
         String uri = httpRequest.getRequestURI();
@@ -61,6 +70,27 @@ public class GlobalExceptionHandler {
         return null; // Permite que otros manejadores lo procesen
     }
 
+    // Parámetros de consulta con un valor que no se puede convertir (estado, fecha, id)
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Map<String, Object>> handleApiParametroInvalido(MethodArgumentTypeMismatchException ex, HttpServletRequest httpRequest) {
+        String uri = httpRequest.getRequestURI();
+        
+        if (uri.startsWith("/api/")) {
+            logger.warn("Parámetro inválido en API uri={}: {}={}", uri, ex.getName(), ex.getValue());
+            
+            Map<String, Object> errorDetails = new HashMap<>();
+            errorDetails.put("timestamp", LocalDateTime.now());
+            errorDetails.put("status", HttpStatus.BAD_REQUEST.value());
+            errorDetails.put("error", "Bad Request");
+            errorDetails.put("message", "Valor inválido para el parámetro " + ex.getName() + ": " + ex.getValue());
+            errorDetails.put("path", uri);
+            
+            return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        }
+        
+        return null; // Permite que otros manejadores lo procesen
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleApiRuntimeException(RuntimeException ex, WebRequest request, HttpServletRequest httpRequest) {
         String uri = httpRequest.getRequestURI();
@@ -0,0 +1,65 @@
+package com.remington.unieats.marketplace.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Pedido y DetallePedido pasaron de IDENTITY a secuencias con asignación por bloques.
+ * En una base PostgreSQL existente, ddl-auto=update crea las secuencias empezando en 1,
+ * por debajo de los ids que ya existen; aquí se adelantan por encima del máximo actual
+ * antes de que el servidor web empiece a recibir pedidos. Nunca se retroceden.
+ */
+@Component
+public class SecuenciasPedidosConfig implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecuenciasPedidosConfig.class);
+
+    // Debe coincidir con allocationSize de los @SequenceGenerator
+    private static final int TAMANO_BLOQUE = 50;
+
+    private static final Map<String, String> SECUENCIAS = Map.of(
+            "pedidos_seq", "pedidos",
+            "detalles_pedido_seq", "detalles_pedido");
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Se inyecta para que el esquema (y las secuencias) ya existan al alinear
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void afterPropertiesSet() {
+        try (Connection conexion = dataSource.getConnection()) {
+            if (!"PostgreSQL".equals(conexion.getMetaData().getDatabaseProductName())) {
+                return; // H2 en memoria arranca vacía
+            }
+            try (Statement sentencia = conexion.createStatement()) {
+                for (Map.Entry<String, String> entrada : SECUENCIAS.entrySet()) {
+                    String secuencia = entrada.getKey();
+                    sentencia.execute("SELECT setval('" + secuencia + "', GREATEST("
+                            + "(SELECT last_value FROM " + secuencia + "), "
+                            + "(SELECT COALESCE(MAX(id), 0) FROM " + entrada.getValue() + ") + " + TAMANO_BLOQUE + "))");
+                }
+            }
+            if (!conexion.getAutoCommit()) {
+                conexion.commit();
+            }
+            logger.info("Secuencias de pedidos alineadas con los ids existentes");
+        } catch (SQLException e) {
+            logger.warn("No se pudieron alinear las secuencias de pedidos: {}", e.getMessage());
+        }
+    }
+}
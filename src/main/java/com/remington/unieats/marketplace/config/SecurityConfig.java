@@ -31,7 +31,8 @@ public class SecurityConfig {
                     "/uploads/**",
                     "/api/marketplace/**", // Permitimos ver tiendas sin iniciar sesión
                     "/error/**", // Permitir páginas de error
-                    "/custom-logout" // Permitir logout personalizado
+                    "/custom-logout", // Permitir logout personalizado
+                    "/actuator/health/**" // Probes de liveness/readiness de la plataforma
                 ).permitAll()
                 .requestMatchers("/admin/**").hasRole("ADMIN_PLATAFORMA")
                 .requestMatchers("/vendedor/**", "/api/vendedor/**").hasRole("VENDEDOR")
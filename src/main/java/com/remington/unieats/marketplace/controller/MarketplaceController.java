@@ -1,20 +1,29 @@
 package com.remington.unieats.marketplace.controller;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import com.remington.unieats.marketplace.dto.ProductoDetalleDTO;
+import com.remington.unieats.marketplace.dto.PaginaDTO;
 import com.remington.unieats.marketplace.dto.ProductoPublicoDTO;
-import com.remington.unieats.marketplace.dto.TiendaDetallePublicoDTO;
-import com.remington.unieats.marketplace.dto.TiendaPublicaDTO; // <-- Nuevo DTO
+import com.remington.unieats.marketplace.dto.SugerenciaDTO;
+import com.remington.unieats.marketplace.service.CatalogoCache;
+import com.remington.unieats.marketplace.service.CuerpoPrecomprimido;
 import com.remington.unieats.marketplace.service.MarketplaceService;
+import com.remington.unieats.marketplace.service.RespuestasCatalogo;
 
 @RestController
 @RequestMapping("/api/marketplace")
@@ -23,41 +32,180 @@ public class MarketplaceController {
     @Autowired
     private MarketplaceService marketplaceService;
 
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Autowired
+    private RespuestasCatalogo respuestasCatalogo;
+
+    // Las respuestas del catálogo llevan un ETag con la versión del catálogo: si el cliente
+    // envía If-None-Match con la versión vigente se responde 304 sin consultar ni serializar.
+
+    // Las listas completas de /tiendas y /productos se sirven desde bytes ya serializados y comprimidos
     @GetMapping("/tiendas")
-    public ResponseEntity<List<TiendaPublicaDTO>> listarTiendasActivas() {
-        List<TiendaPublicaDTO> tiendas = marketplaceService.getTiendasActivas();
-        return ResponseEntity.ok(tiendas);
+    public ResponseEntity<?> listarTiendasActivas(WebRequest request) {
+        boolean gzip = aceptaGzip(request);
+        return condicional(request, etagCatalogo(gzip), () -> precomprimido(respuestasCatalogo.getTiendasActivas(), gzip));
     }
 
     @GetMapping("/tiendas/{id}")
-    public ResponseEntity<TiendaDetallePublicoDTO> obtenerDetallesTienda(@PathVariable Integer id) {
-        return marketplaceService.getDetallesTienda(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> obtenerDetallesTienda(@PathVariable Integer id, WebRequest request) {
+        return condicional(request, () -> marketplaceService.getDetallesTienda(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build()));
     }
 
+    // Sin cursor ni limite se devuelve la lista completa (compatibilidad con clientes existentes);
+    // con cualquiera de los dos se responde una página con nextCursor.
+    // Con facetas=true o algún filtro (clasificacion, tiendaId) se responde una página con conteos por faceta.
     @GetMapping("/productos")
-    public ResponseEntity<List<ProductoPublicoDTO>> listarProductosPopulares() {
-        List<ProductoPublicoDTO> productos = marketplaceService.getProductosPopulares();
-        return ResponseEntity.ok(productos);
+    public ResponseEntity<?> listarProductosPopulares(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limite,
+                                                      @RequestParam(defaultValue = "false") boolean facetas,
+                                                      @RequestParam(required = false) Set<String> clasificacion,
+                                                      @RequestParam(required = false) Set<Integer> tiendaId,
+                                                      WebRequest request) {
+        if (esFacetado(facetas, clasificacion, tiendaId)) {
+            return condicional(request, () ->
+                    paginar(() -> marketplaceService.getProductosFacetados(clasificacion, tiendaId, cursor, limite)));
+        }
+        if (esPaginado(cursor, limite)) {
+            return condicional(request, () -> paginar(() -> marketplaceService.getProductosPopulares(cursor, limite)));
+        }
+        boolean gzip = aceptaGzip(request);
+        return condicional(request, etagCatalogo(gzip), () -> precomprimido(respuestasCatalogo.getProductosPopulares(), gzip));
     }
 
     @GetMapping("/productos/tienda/{tiendaId}")
-    public ResponseEntity<List<ProductoPublicoDTO>> listarProductosDeTienda(@PathVariable Integer tiendaId) {
-        List<ProductoPublicoDTO> productos = marketplaceService.getProductosDeTienda(tiendaId);
-        return ResponseEntity.ok(productos);
+    public ResponseEntity<?> listarProductosDeTienda(@PathVariable Integer tiendaId,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer limite,
+                                                     WebRequest request) {
+        return condicional(request, () -> {
+            if (esPaginado(cursor, limite)) {
+                return paginar(() -> marketplaceService.getProductosDeTienda(tiendaId, cursor, limite));
+            }
+            List<ProductoPublicoDTO> productos = marketplaceService.getProductosDeTienda(tiendaId);
+            return ResponseEntity.ok(productos);
+        });
     }
 
       @GetMapping("/productos/{id}")
-    public ResponseEntity<ProductoDetalleDTO> obtenerDetalleProducto(@PathVariable Integer id) {
-        return marketplaceService.getDetalleProducto(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> obtenerDetalleProducto(@PathVariable Integer id, WebRequest request) {
+        return condicional(request, () -> marketplaceService.getDetalleProducto(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build()));
     }
     
     @GetMapping("/productos/buscar")
-    public ResponseEntity<List<ProductoPublicoDTO>> buscarProductos(@RequestParam String termino) {
-        List<ProductoPublicoDTO> productos = marketplaceService.buscarProductos(termino);
-        return ResponseEntity.ok(productos);
+    public ResponseEntity<?> buscarProductos(@RequestParam String termino,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limite,
+                                             @RequestParam(defaultValue = "false") boolean difuso,
+                                             @RequestParam(defaultValue = "false") boolean facetas,
+                                             @RequestParam(required = false) Set<String> clasificacion,
+                                             @RequestParam(required = false) Set<Integer> tiendaId,
+                                             WebRequest request) {
+        return condicional(request, () -> {
+            if (esFacetado(facetas, clasificacion, tiendaId)) {
+                return paginar(() -> marketplaceService.buscarProductosFacetados(termino, difuso, clasificacion, tiendaId, cursor, limite));
+            }
+            if (esPaginado(cursor, limite)) {
+                return paginar(() -> difuso
+                        ? marketplaceService.buscarProductosDifuso(termino, cursor, limite)
+                        : marketplaceService.buscarProductos(termino, cursor, limite));
+            }
+            List<ProductoPublicoDTO> productos = difuso
+                    ? marketplaceService.buscarProductosDifuso(termino)
+                    : marketplaceService.buscarProductos(termino);
+            return ResponseEntity.ok(productos);
+        });
+    }
+
+    @GetMapping("/autocompletar")
+    public ResponseEntity<List<SugerenciaDTO>> autocompletar(@RequestParam String prefijo,
+                                                            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(marketplaceService.autocompletar(prefijo, limite));
+    }
+
+    // La versión se toma antes de consultar: si el catálogo cambia mientras se arma la respuesta,
+    // esta queda marcada con la versión anterior y el cliente simplemente la vuelve a descargar.
+    private ResponseEntity<?> condicional(WebRequest request, Supplier<ResponseEntity<?>> respuesta) {
+        return condicional(request, catalogoCache.getEtag(), respuesta);
+    }
+
+    private ResponseEntity<?> condicional(WebRequest request, String etag, Supplier<ResponseEntity<?>> respuesta) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        ResponseEntity<?> resultado = respuesta.get();
+        if (!resultado.getStatusCode().is2xxSuccessful()) {
+            return resultado;
+        }
+        return ResponseEntity.status(resultado.getStatusCode())
+                .headers(resultado.getHeaders())
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(resultado.getBody());
+    }
+
+    // La representación gzip es otro cuerpo, así que lleva su propio ETag fuerte
+    private String etagCatalogo(boolean gzip) {
+        String etag = catalogoCache.getEtag();
+        return gzip ? etag.substring(0, etag.length() - 1) + "-gz\"" : etag;
+    }
+
+    private ResponseEntity<?> precomprimido(CuerpoPrecomprimido cuerpo, boolean gzip) {
+        byte[] bytes = gzip ? cuerpo.getGzip() : cuerpo.getPlano();
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(bytes.length)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(bytes);
+    }
+
+    // Acepta gzip salvo que venga explícitamente con q=0
+    private boolean aceptaGzip(WebRequest request) {
+        String aceptadas = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (aceptadas == null) {
+            return false;
+        }
+        for (String parte : aceptadas.split(",")) {
+            String[] campos = parte.trim().split(";");
+            String codificacion = campos[0].trim();
+            if (!codificacion.equalsIgnoreCase("gzip") && !codificacion.equals("*")) {
+                continue;
+            }
+            boolean rechazada = false;
+            for (int i = 1; i < campos.length; i++) {
+                String parametro = campos[i].trim().replace(" ", "");
+                if (parametro.matches("q=0(\\.0{0,3})?")) {
+                    rechazada = true;
+                }
+            }
+            if (!rechazada) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean esPaginado(String cursor, Integer limite) {
+        return cursor != null || limite != null;
+    }
+
+    private boolean esFacetado(boolean facetas, Set<String> clasificacion, Set<Integer> tiendaId) {
+        return facetas || clasificacion != null || tiendaId != null;
+    }
+
+    private ResponseEntity<?> paginar(Supplier<PaginaDTO<ProductoPublicoDTO>> consulta) {
+        try {
+            return ResponseEntity.ok(consulta.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 }
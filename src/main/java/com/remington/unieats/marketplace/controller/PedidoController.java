@@ -2,15 +2,23 @@ package com.remington.unieats.marketplace.controller;
 
 import com.remington.unieats.marketplace.dto.PedidoCompradorDTO;
 import com.remington.unieats.marketplace.dto.PedidoDTO;
+import com.remington.unieats.marketplace.dto.SolicitudPedidoDTO;
 import com.remington.unieats.marketplace.model.entity.Usuario;
 import com.remington.unieats.marketplace.model.repository.UsuarioRepository;
+import com.remington.unieats.marketplace.service.CanalPedidosEstudiantes;
+import com.remington.unieats.marketplace.service.ColaPedidos;
 import com.remington.unieats.marketplace.service.PedidoService;
+import com.remington.unieats.marketplace.service.RegistroIdempotencia;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -19,9 +27,29 @@ public class PedidoController {
 
     @Autowired private PedidoService pedidoService;
     @Autowired private UsuarioRepository usuarioRepository;
+    @Autowired private RegistroIdempotencia registroIdempotencia;
+    @Autowired private ColaPedidos colaPedidos;
+    @Autowired private CanalPedidosEstudiantes canalPedidos;
 
     @PostMapping("/crear")
-    public ResponseEntity<?> crearPedido(@RequestBody PedidoDTO pedidoDTO, Authentication authentication) {
+    public ResponseEntity<?> crearPedido(@RequestBody PedidoDTO pedidoDTO, Authentication authentication,
+            @RequestHeader(value = RegistroIdempotencia.CABECERA, required = false) String claveIdempotencia) {
+        if (claveIdempotencia == null) {
+            return crearPedido(pedidoDTO, authentication);
+        }
+        // Un doble toque o un reintento con la misma clave devuelve la respuesta del primero
+        try {
+            return registroIdempotencia.ejecutar(authentication.getName(), claveIdempotencia, pedidoDTO,
+                    () -> crearPedido(pedidoDTO, authentication));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> crearPedido(PedidoDTO pedidoDTO, Authentication authentication) {
+        if (colaPedidos.isHabilitada()) {
+            return encolarPedido(pedidoDTO, authentication);
+        }
         try {
             // Obtenemos el usuario autenticado que está haciendo la compra
             String correo = authentication.getName();
@@ -35,13 +63,58 @@ public class PedidoController {
         }
     }
 
+    // Modo asíncrono: 202 con el id provisional, o 429 si la cola está llena
+    private ResponseEntity<?> encolarPedido(PedidoDTO pedidoDTO, Authentication authentication) {
+        try {
+            return colaPedidos.encolar(pedidoDTO, authentication.getName())
+                    .<ResponseEntity<?>>map(solicitud -> ResponseEntity
+                            .accepted()
+                            .location(URI.create("/api/pedidos/solicitudes/" + solicitud.getIdProvisional()))
+                            .body(solicitud))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header(HttpHeaders.RETRY_AFTER, String.valueOf(colaPedidos.getReintentarEnSegundos()))
+                            .body("Estamos recibiendo muchos pedidos. Intenta de nuevo en unos segundos."));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/solicitudes/{idProvisional}")
+    public ResponseEntity<SolicitudPedidoDTO> getSolicitud(@PathVariable String idProvisional,
+            Authentication authentication) {
+        return colaPedidos.consultar(idProvisional, authentication.getName())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Sin cursor ni limite se devuelve la lista completa (compatibilidad con clientes existentes);
+    // con alguno de los dos, una página que empieza por los pedidos activos
     @GetMapping("/mis-pedidos")
-    public ResponseEntity<List<PedidoCompradorDTO>> getMisPedidos(Authentication authentication) {
+    public ResponseEntity<?> getMisPedidos(Authentication authentication,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer limite) {
         String correo = authentication.getName();
+        if (cursor != null || limite != null) {
+            try {
+                return ResponseEntity.ok(pedidoService.getMisPedidos(correo, cursor, limite));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
         Usuario comprador = usuarioRepository.findByCorreo(correo)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado."));
         
         List<PedidoCompradorDTO> pedidos = pedidoService.getMisPedidos(comprador);
         return ResponseEntity.ok(pedidos);
     }
-}
\ No newline at end of file
+
+    // Cambios de estado de mis pedidos en vivo; /mis-pedidos queda como respaldo
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(Authentication authentication) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(canalPedidos.suscribir(authentication.getName()));
+    }
+}
@@ -1,12 +1,18 @@
 package com.remington.unieats.marketplace.controller;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,12 +25,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.remington.unieats.marketplace.dto.CambioEstadoPedidosDTO;
+import com.remington.unieats.marketplace.dto.CambiosPedidosDTO;
 import com.remington.unieats.marketplace.dto.CategoriaOpcionCreacionDTO;
 import com.remington.unieats.marketplace.dto.DashboardVendedorDTO;
 import com.remington.unieats.marketplace.dto.HorarioUpdateDTO;
+import com.remington.unieats.marketplace.dto.PaginaPedidosDTO;
 import com.remington.unieats.marketplace.dto.PedidoVendedorDTO;
 import com.remington.unieats.marketplace.dto.ProductoDTO;
+import com.remington.unieats.marketplace.dto.ResultadoCambioEstadoDTO;
+import com.remington.unieats.marketplace.dto.ResumenPedidosDTO;
 import com.remington.unieats.marketplace.dto.TiendaCreacionDTO;
 import com.remington.unieats.marketplace.dto.TiendaUpdateDTO;
 import com.remington.unieats.marketplace.model.entity.CategoriaOpcion;
@@ -34,18 +46,26 @@ import com.remington.unieats.marketplace.model.entity.Tienda;
 import com.remington.unieats.marketplace.model.entity.Usuario;
 import com.remington.unieats.marketplace.model.enums.EstadoPedido;
 import com.remington.unieats.marketplace.model.repository.UsuarioRepository;
+import com.remington.unieats.marketplace.service.CanalPedidosVendedores;
 import com.remington.unieats.marketplace.service.PedidoService;
 import com.remington.unieats.marketplace.service.ProductoService;
+import com.remington.unieats.marketplace.service.TableroCocina;
+import com.remington.unieats.marketplace.service.TransicionEstadoInvalidaException;
 import com.remington.unieats.marketplace.service.VendedorService;
 
 @RestController
 @RequestMapping("/api/vendedor")
 public class VendedorController {
 
+    // Marca para pedir después solo los cambios (?desde=)
+    public static final String CABECERA_MARCA = "X-Pedidos-Marca";
+
     @Autowired private VendedorService vendedorService;
     @Autowired private UsuarioRepository usuarioRepository;
     @Autowired private ProductoService productoService;
     @Autowired private PedidoService pedidoService;
+    @Autowired private CanalPedidosVendedores canalPedidos;
+    @Autowired private TableroCocina tableroCocina;
 
     @GetMapping("/dashboard")
     public ResponseEntity<?> obtenerDatosDashboard(Authentication authentication) {
@@ -74,18 +94,104 @@ public class VendedorController {
         }
     }
 
+    // Con "desde": solo lo creado o modificado desde esa marca.
+    // Con "estado", "cursor" o "limite": una página de los pedidos en esos estados.
+    // Sin parámetros: historial completo
     @GetMapping("/pedidos")
-    public ResponseEntity<List<PedidoVendedorDTO>> obtenerPedidos(Authentication authentication) {
+    public ResponseEntity<?> obtenerPedidos(Authentication authentication,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) Set<EstadoPedido> estado,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
         String correo = authentication.getName();
         Usuario vendedor = usuarioRepository.findByCorreo(correo)
                 .orElseThrow(() -> new IllegalStateException("Vendedor no encontrado."));
-        
+        Optional<Tienda> tiendaOpt = vendedorService.findTiendaByVendedor(vendedor);
+        if (tiendaOpt.isEmpty()) {
+            // Vacío, pero con la misma forma que tendría la respuesta con tienda
+            if (desde != null) {
+                return ResponseEntity.ok(new CambiosPedidosDTO(Collections.emptyList(), LocalDateTime.now()));
+            }
+            if (estado != null || cursor != null || limite != null) {
+                return ResponseEntity.ok(new PaginaPedidosDTO(Collections.emptyList(), null));
+            }
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+        if (desde != null) {
+            return ResponseEntity.ok(vendedorService.getPedidosDeLaTiendaDesde(tiendaOpt.get(), desde));
+        }
+
+        LocalDateTime marca = LocalDateTime.now();
+        if (estado == null && cursor == null && limite == null) {
+            List<PedidoVendedorDTO> pedidos = vendedorService.getPedidosDeLaTienda(tiendaOpt.get());
+            return ResponseEntity.ok().header(CABECERA_MARCA, marca.toString()).body(pedidos);
+        }
+        try {
+            Set<EstadoPedido> estados = estado == null || estado.isEmpty() ? EnumSet.allOf(EstadoPedido.class) : estado;
+            PaginaPedidosDTO pagina = vendedorService.getPaginaPedidosDeLaTienda(tiendaOpt.get(), estados, cursor,
+                    limite == null ? PaginaPedidosDTO.LIMITE_POR_DEFECTO : limite);
+            return ResponseEntity.ok().header(CABECERA_MARCA, marca.toString()).body(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/pedidos/resumen")
+    public ResponseEntity<ResumenPedidosDTO> obtenerResumenPedidos(Authentication authentication) {
+        String correo = authentication.getName();
+        Usuario vendedor = usuarioRepository.findByCorreo(correo)
+                .orElseThrow(() -> new IllegalStateException("Vendedor no encontrado."));
+
+        return vendedorService.findTiendaByVendedor(vendedor)
+                .map(tienda -> ResponseEntity.ok(vendedorService.getResumenPedidos(tienda)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Pedidos activos de la tienda servidos desde el tablero de cocina en memoria, sin
+    // consultas; solo si el tablero no se pudo cargar al arrancar se leen de la base
+    @GetMapping("/pedidos/tablero")
+    public ResponseEntity<List<PedidoVendedorDTO>> obtenerTablero(Authentication authentication) {
+        String correo = authentication.getName();
+        Optional<Integer> tiendaId = tableroCocina.getTiendaDeVendedor(correo);
+        if (tiendaId.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        List<PedidoVendedorDTO> pedidos = tableroCocina.getPedidos(tiendaId.get()).orElseGet(() -> {
+            Usuario vendedor = usuarioRepository.findByCorreo(correo)
+                    .orElseThrow(() -> new IllegalStateException("Vendedor no encontrado."));
+            Tienda tienda = vendedorService.findTiendaByVendedor(vendedor)
+                    .orElseThrow(() -> new IllegalStateException("Tienda no encontrada."));
+            Set<EstadoPedido> activos = EnumSet.complementOf(EnumSet.copyOf(EstadoPedido.finales()));
+            return vendedorService.getPaginaPedidosDeLaTienda(tienda, activos, null, PaginaPedidosDTO.LIMITE_MAXIMO).getPedidos();
+        });
+        return ResponseEntity.ok(pedidos);
+    }
+
+    // Pedidos nuevos y cambios de estado de la tienda en vivo
+    @GetMapping(value = "/pedidos/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPedidos(Authentication authentication) {
+        String correo = authentication.getName();
+        Usuario vendedor = usuarioRepository.findByCorreo(correo)
+                .orElseThrow(() -> new IllegalStateException("Vendedor no encontrado."));
+
         return vendedorService.findTiendaByVendedor(vendedor)
-                .map(tienda -> {
-                    List<PedidoVendedorDTO> pedidos = vendedorService.getPedidosDeLaTienda(tienda);
-                    return ResponseEntity.ok(pedidos);
-                })
-                .orElse(ResponseEntity.ok(Collections.emptyList()));
+                .map(tienda -> ResponseEntity.ok()
+                        .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                        .header("X-Accel-Buffering", "no")
+                        .body(canalPedidos.suscribir(tienda.getId())))
+                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    @GetMapping("/pedidos/{pedidoId}")
+    public ResponseEntity<PedidoVendedorDTO> obtenerPedido(@PathVariable Integer pedidoId, Authentication authentication) {
+        String correo = authentication.getName();
+        Usuario vendedor = usuarioRepository.findByCorreo(correo)
+                .orElseThrow(() -> new IllegalStateException("Vendedor no encontrado."));
+
+        return vendedorService.findTiendaByVendedor(vendedor)
+                .flatMap(tienda -> vendedorService.getPedidoDeLaTienda(tienda, pedidoId))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/tienda/crear")
@@ -219,39 +325,51 @@ public class VendedorController {
 
     @PostMapping("/pedidos/{pedidoId}/aceptar")
     public ResponseEntity<?> aceptarPedido(@PathVariable Integer pedidoId) {
-        try {
-            pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.EN_PREPARACION);
-            return ResponseEntity.ok().body("Pedido aceptado y movido a 'En Preparación'");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        return cambiarEstadoPedido(pedidoId, EstadoPedido.EN_PREPARACION, "Pedido aceptado y movido a 'En Preparación'");
     }
 
     @PostMapping("/pedidos/{pedidoId}/listo")
     public ResponseEntity<?> pedidoListo(@PathVariable Integer pedidoId) {
-        try {
-            pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.LISTO_PARA_RECOGER);
-            return ResponseEntity.ok().body("Pedido marcado como 'Listo para Recoger'");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        return cambiarEstadoPedido(pedidoId, EstadoPedido.LISTO_PARA_RECOGER, "Pedido marcado como 'Listo para Recoger'");
     }
 
     @PostMapping("/pedidos/{pedidoId}/entregado")
     public ResponseEntity<?> pedidoEntregado(@PathVariable Integer pedidoId) {
-        try {
-            pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.COMPLETADO);
-            return ResponseEntity.ok().body("Pedido marcado como 'Entregado'");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        return cambiarEstadoPedido(pedidoId, EstadoPedido.COMPLETADO, "Pedido marcado como 'Entregado'");
     }
 
     @PostMapping("/pedidos/{pedidoId}/cancelar")
     public ResponseEntity<?> cancelarPedido(@PathVariable Integer pedidoId) {
+        return cambiarEstadoPedido(pedidoId, EstadoPedido.CANCELADO, "Pedido cancelado");
+    }
+
+    // Aceptar o marcar listos varios pedidos con un clic: una transacción y un UPDATE para todos
+    @PostMapping("/pedidos/estado")
+    public ResponseEntity<?> cambiarEstadoPedidos(@RequestBody CambioEstadoPedidosDTO cambio, Authentication authentication) {
+        if (cambio.getEstado() == null || cambio.getPedidoIds() == null || cambio.getPedidoIds().isEmpty()) {
+            return ResponseEntity.badRequest().body("Indica los pedidos y el estado al que deben pasar");
+        }
+        if (cambio.getPedidoIds().size() > CambioEstadoPedidosDTO.MAX_PEDIDOS) {
+            return ResponseEntity.badRequest().body("Máximo " + CambioEstadoPedidosDTO.MAX_PEDIDOS + " pedidos por solicitud");
+        }
+        String correo = authentication.getName();
+        Usuario vendedor = usuarioRepository.findByCorreo(correo).orElseThrow(() -> new IllegalStateException("Vendedor no encontrado."));
+        Optional<Tienda> tiendaOpt = vendedorService.findTiendaByVendedor(vendedor);
+        if (tiendaOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No tienes una tienda registrada");
+        }
+        List<ResultadoCambioEstadoDTO> resultados = pedidoService.actualizarEstadoPedidos(
+                tiendaOpt.get().getId(), cambio.getPedidoIds(), cambio.getEstado());
+        return ResponseEntity.ok(resultados);
+    }
+
+    // 409 si el pedido ya no está en un estado desde el que se pueda hacer el cambio
+    private ResponseEntity<?> cambiarEstadoPedido(Integer pedidoId, EstadoPedido nuevoEstado, String mensaje) {
         try {
-            pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.CANCELADO);
-            return ResponseEntity.ok().body("Pedido cancelado");
+            pedidoService.actualizarEstadoPedido(pedidoId, nuevoEstado);
+            return ResponseEntity.ok().body(mensaje);
+        } catch (TransicionEstadoInvalidaException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -0,0 +1,23 @@
+package com.remington.unieats.marketplace.dto;
+
+import java.util.List;
+
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+
+/**
+ * Cambio de estado de varios pedidos de la tienda en una sola solicitud.
+ */
+public class CambioEstadoPedidosDTO {
+
+    public static final int MAX_PEDIDOS = 100;
+
+    private List<Integer> pedidoIds;
+    private EstadoPedido estado;
+
+    // --- Getters y Setters ---
+
+    public List<Integer> getPedidoIds() { return pedidoIds; }
+    public void setPedidoIds(List<Integer> pedidoIds) { this.pedidoIds = pedidoIds; }
+    public EstadoPedido getEstado() { return estado; }
+    public void setEstado(EstadoPedido estado) { this.estado = estado; }
+}
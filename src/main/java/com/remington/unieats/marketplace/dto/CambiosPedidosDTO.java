@@ -0,0 +1,28 @@
+package com.remington.unieats.marketplace.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pedidos creados o modificados desde una marca, y la marca para la siguiente consulta.
+ */
+public class CambiosPedidosDTO {
+
+    private List<PedidoVendedorDTO> pedidos;
+    private LocalDateTime marca;
+
+    public CambiosPedidosDTO() {
+    }
+
+    public CambiosPedidosDTO(List<PedidoVendedorDTO> pedidos, LocalDateTime marca) {
+        this.pedidos = pedidos;
+        this.marca = marca;
+    }
+
+    // --- Getters y Setters ---
+
+    public List<PedidoVendedorDTO> getPedidos() { return pedidos; }
+    public void setPedidos(List<PedidoVendedorDTO> pedidos) { this.pedidos = pedidos; }
+    public LocalDateTime getMarca() { return marca; }
+    public void setMarca(LocalDateTime marca) { this.marca = marca; }
+}
@@ -0,0 +1,30 @@
+package com.remington.unieats.marketplace.dto;
+
+/**
+ * Conteo de resultados para un valor de faceta (una clasificación o una tienda).
+ * valor es lo que se envía de vuelta como filtro: el nombre del enum o el id de la tienda.
+ */
+public class FacetaDTO {
+
+    private String valor;
+    private String nombre;
+    private int cantidad;
+
+    public FacetaDTO() {
+    }
+
+    public FacetaDTO(String valor, String nombre, int cantidad) {
+        this.valor = valor;
+        this.nombre = nombre;
+        this.cantidad = cantidad;
+    }
+
+    // --- Getters y Setters ---
+
+    public String getValor() { return valor; }
+    public void setValor(String valor) { this.valor = valor; }
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+    public int getCantidad() { return cantidad; }
+    public void setCantidad(int cantidad) { this.cantidad = cantidad; }
+}
@@ -0,0 +1,28 @@
+package com.remington.unieats.marketplace.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados con paginación por cursor (keyset).
+ * nextCursor es null cuando no hay más resultados.
+ */
+public class PaginaDTO<T> {
+
+    private List<T> items;
+    private String nextCursor;
+
+    public PaginaDTO() {
+    }
+
+    public PaginaDTO(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // --- Getters y Setters ---
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,31 @@
+package com.remington.unieats.marketplace.dto;
+
+import java.util.List;
+
+/**
+ * Una página del listado de pedidos del vendedor. {@code siguiente} es el cursor para
+ * pedir la página que sigue, o null si no hay más.
+ */
+public class PaginaPedidosDTO {
+
+    public static final int LIMITE_POR_DEFECTO = 20;
+    public static final int LIMITE_MAXIMO = 100;
+
+    private List<PedidoVendedorDTO> pedidos;
+    private String siguiente;
+
+    public PaginaPedidosDTO() {
+    }
+
+    public PaginaPedidosDTO(List<PedidoVendedorDTO> pedidos, String siguiente) {
+        this.pedidos = pedidos;
+        this.siguiente = siguiente;
+    }
+
+    // --- Getters y Setters ---
+
+    public List<PedidoVendedorDTO> getPedidos() { return pedidos; }
+    public void setPedidos(List<PedidoVendedorDTO> pedidos) { this.pedidos = pedidos; }
+    public String getSiguiente() { return siguiente; }
+    public void setSiguiente(String siguiente) { this.siguiente = siguiente; }
+}
@@ -2,6 +2,8 @@ package com.remington.unieats.marketplace.dto;
 
 import java.math.BigDecimal;
 
+import com.remington.unieats.marketplace.model.enums.ClasificacionProducto;
+
 public class ProductoPublicoDTO {
     private Integer id;
     private String nombre;
@@ -22,6 +24,23 @@ public class ProductoPublicoDTO {
         public void setNombre(String nombre) { this.nombre = nombre; }
     }
 
+    public ProductoPublicoDTO() {
+    }
+
+    // Constructor usado por las proyecciones JPQL (SELECT new ...) de ProductoRepository
+    public ProductoPublicoDTO(Integer id, String nombre, String descripcion, BigDecimal precio, String imagenUrl,
+                              ClasificacionProducto clasificacion, Integer tiendaId, String tiendaNombre) {
+        this.id = id;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.precio = precio;
+        this.imagenUrl = imagenUrl;
+        this.clasificacion = clasificacion != null ? clasificacion.name() : "SIN_CATEGORIA";
+        this.tienda = new TiendaSimpleDTO();
+        this.tienda.setId(tiendaId);
+        this.tienda.setNombre(tiendaNombre);
+    }
+
     // --- Getters y Setters ---
     
     public Integer getId() { return id; }
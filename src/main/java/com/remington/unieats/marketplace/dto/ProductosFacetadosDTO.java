@@ -0,0 +1,35 @@
+package com.remington.unieats.marketplace.dto;
+
+import java.util.List;
+
+/**
+ * Página de productos con los conteos por clasificación y por tienda del resultado completo.
+ * Cada faceta se cuenta aplicando los filtros de la otra, para que el cliente pueda
+ * mostrar cuántos productos quedarían al cambiar la selección.
+ */
+public class ProductosFacetadosDTO extends PaginaDTO<ProductoPublicoDTO> {
+
+    private int total;
+    private List<FacetaDTO> clasificaciones;
+    private List<FacetaDTO> tiendas;
+
+    public ProductosFacetadosDTO() {
+    }
+
+    public ProductosFacetadosDTO(List<ProductoPublicoDTO> items, int total,
+                                 List<FacetaDTO> clasificaciones, List<FacetaDTO> tiendas) {
+        super(items, null);
+        this.total = total;
+        this.clasificaciones = clasificaciones;
+        this.tiendas = tiendas;
+    }
+
+    // --- Getters y Setters ---
+
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+    public List<FacetaDTO> getClasificaciones() { return clasificaciones; }
+    public void setClasificaciones(List<FacetaDTO> clasificaciones) { this.clasificaciones = clasificaciones; }
+    public List<FacetaDTO> getTiendas() { return tiendas; }
+    public void setTiendas(List<FacetaDTO> tiendas) { this.tiendas = tiendas; }
+}
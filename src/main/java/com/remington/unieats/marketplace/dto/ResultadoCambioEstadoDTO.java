@@ -0,0 +1,35 @@
+package com.remington.unieats.marketplace.dto;
+
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+
+/**
+ * Resultado de un cambio de estado masivo para un pedido.
+ */
+public class ResultadoCambioEstadoDTO {
+
+    public static final String ACTUALIZADO = "ACTUALIZADO";
+    public static final String CONFLICTO = "CONFLICTO";           // Su estado actual no permite el cambio
+    public static final String NO_ENCONTRADO = "NO_ENCONTRADO";   // No existe o es de otra tienda
+
+    private Integer pedidoId;
+    private String resultado;
+    private EstadoPedido estadoActual; // Después del cambio; null si no se encontró
+
+    public ResultadoCambioEstadoDTO() {
+    }
+
+    public ResultadoCambioEstadoDTO(Integer pedidoId, String resultado, EstadoPedido estadoActual) {
+        this.pedidoId = pedidoId;
+        this.resultado = resultado;
+        this.estadoActual = estadoActual;
+    }
+
+    // --- Getters y Setters ---
+
+    public Integer getPedidoId() { return pedidoId; }
+    public void setPedidoId(Integer pedidoId) { this.pedidoId = pedidoId; }
+    public String getResultado() { return resultado; }
+    public void setResultado(String resultado) { this.resultado = resultado; }
+    public EstadoPedido getEstadoActual() { return estadoActual; }
+    public void setEstadoActual(EstadoPedido estadoActual) { this.estadoActual = estadoActual; }
+}
@@ -0,0 +1,29 @@
+package com.remington.unieats.marketplace.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Cantidad de pedidos de la tienda por estado y total vendido en pedidos completados,
+ * para el historial sin traer todos los pedidos.
+ */
+public class ResumenPedidosDTO {
+
+    private Map<String, Long> cantidades;
+    private BigDecimal ventasCompletadas;
+
+    public ResumenPedidosDTO() {
+    }
+
+    public ResumenPedidosDTO(Map<String, Long> cantidades, BigDecimal ventasCompletadas) {
+        this.cantidades = cantidades;
+        this.ventasCompletadas = ventasCompletadas;
+    }
+
+    // --- Getters y Setters ---
+
+    public Map<String, Long> getCantidades() { return cantidades; }
+    public void setCantidades(Map<String, Long> cantidades) { this.cantidades = cantidades; }
+    public BigDecimal getVentasCompletadas() { return ventasCompletadas; }
+    public void setVentasCompletadas(BigDecimal ventasCompletadas) { this.ventasCompletadas = ventasCompletadas; }
+}
@@ -0,0 +1,43 @@
+package com.remington.unieats.marketplace.dto;
+
+import java.time.LocalDateTime;
+
+import com.remington.unieats.marketplace.model.enums.EstadoSolicitudPedido;
+
+/**
+ * Estado de un pedido recibido en modo asíncrono: se identifica con un id provisional
+ * hasta que el escritor lo guarda y le asigna su id definitivo.
+ */
+public class SolicitudPedidoDTO {
+
+    private String idProvisional;
+    private EstadoSolicitudPedido estado;
+    private Integer pedidoId;
+    private String mensaje;
+    private LocalDateTime recibidaEn;
+
+    public SolicitudPedidoDTO() {
+    }
+
+    public SolicitudPedidoDTO(String idProvisional, EstadoSolicitudPedido estado, Integer pedidoId,
+            String mensaje, LocalDateTime recibidaEn) {
+        this.idProvisional = idProvisional;
+        this.estado = estado;
+        this.pedidoId = pedidoId;
+        this.mensaje = mensaje;
+        this.recibidaEn = recibidaEn;
+    }
+
+    // --- Getters y Setters ---
+
+    public String getIdProvisional() { return idProvisional; }
+    public void setIdProvisional(String idProvisional) { this.idProvisional = idProvisional; }
+    public EstadoSolicitudPedido getEstado() { return estado; }
+    public void setEstado(EstadoSolicitudPedido estado) { this.estado = estado; }
+    public Integer getPedidoId() { return pedidoId; }
+    public void setPedidoId(Integer pedidoId) { this.pedidoId = pedidoId; }
+    public String getMensaje() { return mensaje; }
+    public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+    public LocalDateTime getRecibidaEn() { return recibidaEn; }
+    public void setRecibidaEn(LocalDateTime recibidaEn) { this.recibidaEn = recibidaEn; }
+}
@@ -0,0 +1,40 @@
+package com.remington.unieats.marketplace.dto;
+
+/**
+ * Sugerencia del autocompletado del buscador: un producto o una tienda.
+ */
+public class SugerenciaDTO {
+
+    public static final String TIPO_PRODUCTO = "PRODUCTO";
+    public static final String TIPO_TIENDA = "TIENDA";
+
+    private String texto;
+    private String tipo;
+    private Integer id;
+    private Integer tiendaId;
+    private long popularidad; // Unidades pedidas (en tiendas, la suma de sus productos)
+
+    public SugerenciaDTO() {
+    }
+
+    public SugerenciaDTO(String texto, String tipo, Integer id, Integer tiendaId, long popularidad) {
+        this.texto = texto;
+        this.tipo = tipo;
+        this.id = id;
+        this.tiendaId = tiendaId;
+        this.popularidad = popularidad;
+    }
+
+    // --- Getters y Setters ---
+
+    public String getTexto() { return texto; }
+    public void setTexto(String texto) { this.texto = texto; }
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+    public Integer getTiendaId() { return tiendaId; }
+    public void setTiendaId(Integer tiendaId) { this.tiendaId = tiendaId; }
+    public long getPopularidad() { return popularidad; }
+    public void setPopularidad(long popularidad) { this.popularidad = popularidad; }
+}
@@ -0,0 +1,98 @@
+package com.remington.unieats.marketplace.model.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Respuesta ya entregada para una cabecera Idempotency-Key. Solo se usa cuando
+ * app.pedidos.idempotencia.persistente=true; por defecto las claves viven en memoria.
+ */
+@Entity
+@Table(name = "claves_idempotencia", indexes = @Index(name = "idx_claves_idempotencia_creada", columnList = "creada_en"))
+public class ClaveIdempotencia {
+
+    // Correo del usuario + ":" + clave enviada por el cliente
+    @Id
+    @Column(length = 360)
+    private String id;
+
+    @Column(nullable = false, length = 64)
+    private String huella;
+
+    @Column(nullable = false)
+    private int codigo;
+
+    // Cabeceras de la respuesta (Location, Retry-After...) en JSON
+    @Column(columnDefinition = "TEXT")
+    private String cabeceras;
+
+    @Column(name = "tipo_contenido", length = 100)
+    private String tipoContenido;
+
+    @Column(columnDefinition = "TEXT")
+    private String cuerpo;
+
+    @Column(name = "creada_en", nullable = false)
+    private LocalDateTime creadaEn = LocalDateTime.now();
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getHuella() {
+        return huella;
+    }
+
+    public void setHuella(String huella) {
+        this.huella = huella;
+    }
+
+    public int getCodigo() {
+        return codigo;
+    }
+
+    public void setCodigo(int codigo) {
+        this.codigo = codigo;
+    }
+
+    public String getCabeceras() {
+        return cabeceras;
+    }
+
+    public void setCabeceras(String cabeceras) {
+        this.cabeceras = cabeceras;
+    }
+
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+
+    public void setTipoContenido(String tipoContenido) {
+        this.tipoContenido = tipoContenido;
+    }
+
+    public String getCuerpo() {
+        return cuerpo;
+    }
+
+    public void setCuerpo(String cuerpo) {
+        this.cuerpo = cuerpo;
+    }
+
+    public LocalDateTime getCreadaEn() {
+        return creadaEn;
+    }
+
+    public void setCreadaEn(LocalDateTime creadaEn) {
+        this.creadaEn = creadaEn;
+    }
+}
@@ -8,8 +8,10 @@ import java.util.Set; // <-- Importar Set
 @Table(name = "detalles_pedido")
 public class DetallePedido {
 
+    // Igual que Pedido: ids por bloques para que los detalles se inserten en lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalles_pedido_seq")
+    @SequenceGenerator(name = "detalles_pedido_seq", sequenceName = "detalles_pedido_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false)
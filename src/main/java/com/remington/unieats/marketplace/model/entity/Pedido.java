@@ -15,22 +15,37 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "pedidos")
+@Table(name = "pedidos", indexes = {
+        @Index(name = "idx_pedidos_tienda_actualizado", columnList = "tienda_id, actualizado_en"),
+        @Index(name = "idx_pedidos_tienda_estado_fecha", columnList = "tienda_id, estado, fecha_creacion"),
+        @Index(name = "idx_pedidos_comprador_estado_fecha", columnList = "comprador_id, estado, fecha_creacion")
+})
 public class Pedido {
 
+    // Secuencia con asignación en bloques (pooled) en lugar de IDENTITY: Hibernate conoce el id
+    // sin insertar, así que el pedido, sus detalles y sus opciones se envían en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedidos_seq")
+    @SequenceGenerator(name = "pedidos_seq", sequenceName = "pedidos_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false)
     private LocalDateTime fechaCreacion = LocalDateTime.now();
 
+    // Última creación o cambio de estado; los UPDATE de estado lo asignan explícitamente.
+    // Nullable solo para que ddl-auto pueda agregar la columna a una tabla con datos;
+    // ActualizadoEnPedidosConfig la pasa a NOT NULL después de completarla
+    @Column(name = "actualizado_en")
+    private LocalDateTime actualizadoEn = fechaCreacion;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private EstadoPedido estado = EstadoPedido.PENDIENTE;
@@ -62,6 +77,11 @@ public class Pedido {
     @Column(name = "notas_domicilio", length = 500)
     private String notasDomicilio;
 
+    // Líneas ya armadas (producto, cantidad, precio y opciones) en JSON, escritas al crear el
+    // pedido: los listados no vuelven a leer detalles ni opciones. Vacía en pedidos anteriores
+    @Column(name = "resumen_lineas", columnDefinition = "TEXT")
+    private String resumenLineas;
+
     // --- Getters y Setters ---
 
     public Integer getId() {
@@ -80,6 +100,14 @@ public class Pedido {
         this.fechaCreacion = fechaCreacion;
     }
 
+    public LocalDateTime getActualizadoEn() {
+        return actualizadoEn;
+    }
+
+    public void setActualizadoEn(LocalDateTime actualizadoEn) {
+        this.actualizadoEn = actualizadoEn;
+    }
+
     public EstadoPedido getEstado() {
         return estado;
     }
@@ -152,4 +180,12 @@ public class Pedido {
     public void setNotasDomicilio(String notasDomicilio) {
         this.notasDomicilio = notasDomicilio;
     }
-}
\ No newline at end of file
+
+    public String getResumenLineas() {
+        return resumenLineas;
+    }
+
+    public void setResumenLineas(String resumenLineas) {
+        this.resumenLineas = resumenLineas;
+    }
+}
@@ -1,9 +1,55 @@
 package com.remington.unieats.marketplace.model.enums;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum EstadoPedido {
     PENDIENTE,
     EN_PREPARACION,
     LISTO_PARA_RECOGER,
     COMPLETADO,
-    CANCELADO
-}
\ No newline at end of file
+    CANCELADO;
+
+    // Tabla de transiciones: para cada estado, desde cuáles se puede llegar a él.
+    // COMPLETADO y CANCELADO son finales, y un pedido listo ya no se cancela.
+    private static final Map<EstadoPedido, Set<EstadoPedido>> ORIGENES = new EnumMap<>(EstadoPedido.class);
+
+    static {
+        ORIGENES.put(PENDIENTE, Collections.unmodifiableSet(EnumSet.noneOf(EstadoPedido.class)));
+        ORIGENES.put(EN_PREPARACION, Collections.unmodifiableSet(EnumSet.of(PENDIENTE)));
+        ORIGENES.put(LISTO_PARA_RECOGER, Collections.unmodifiableSet(EnumSet.of(EN_PREPARACION)));
+        ORIGENES.put(COMPLETADO, Collections.unmodifiableSet(EnumSet.of(LISTO_PARA_RECOGER)));
+        ORIGENES.put(CANCELADO, Collections.unmodifiableSet(EnumSet.of(PENDIENTE, EN_PREPARACION)));
+    }
+
+    public Set<EstadoPedido> getOrigenesPermitidos() {
+        return ORIGENES.get(this);
+    }
+
+    public boolean puedePasarA(EstadoPedido destino) {
+        return destino.getOrigenesPermitidos().contains(this);
+    }
+
+    // Un estado final ya no cambia
+    public boolean esFinal() {
+        for (EstadoPedido destino : values()) {
+            if (puedePasarA(destino)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static Set<EstadoPedido> finales() {
+        EnumSet<EstadoPedido> finales = EnumSet.noneOf(EstadoPedido.class);
+        for (EstadoPedido estado : values()) {
+            if (estado.esFinal()) {
+                finales.add(estado);
+            }
+        }
+        return finales;
+    }
+}
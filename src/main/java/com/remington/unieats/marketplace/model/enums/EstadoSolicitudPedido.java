@@ -0,0 +1,7 @@
+package com.remington.unieats.marketplace.model.enums;
+
+public enum EstadoSolicitudPedido {
+    EN_COLA,    // Aceptada y esperando al escritor de pedidos
+    CONFIRMADA, // El pedido quedó guardado; pedidoId tiene su id definitivo
+    RECHAZADA   // No se pudo crear el pedido; mensaje explica por qué
+}
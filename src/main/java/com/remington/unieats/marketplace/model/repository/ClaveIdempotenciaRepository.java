@@ -0,0 +1,15 @@
+package com.remington.unieats.marketplace.model.repository;
+
+import com.remington.unieats.marketplace.model.entity.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, String> {
+
+    @Transactional
+    long deleteByCreadaEnBefore(LocalDateTime limite);
+}
@@ -1,9 +1,65 @@
 package com.remington.unieats.marketplace.model.repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
 import com.remington.unieats.marketplace.model.entity.DetallePedido;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface DetallePedidoRepository extends JpaRepository<DetallePedido, Integer> {
-}
\ No newline at end of file
+
+    // Unidades pedidas por producto (popularidad para el autocompletado)
+    @Query("SELECT d.producto.id AS productoId, SUM(d.cantidad) AS unidades FROM DetallePedido d "
+            + "WHERE d.pedido.estado <> :excluido GROUP BY d.producto.id")
+    List<UnidadesPorProducto> sumarUnidadesPorProducto(@Param("excluido") EstadoPedido excluido);
+
+    interface UnidadesPorProducto {
+        Integer getProductoId();
+        Long getUnidades();
+    }
+
+    // Detalles de varios pedidos con el nombre del producto, para el panel del vendedor
+    @Query("SELECT d.id AS id, d.pedido.id AS pedidoId, pr.nombre AS nombreProducto, "
+            + "d.cantidad AS cantidad, d.precioUnitario AS precioUnitario "
+            + "FROM DetallePedido d JOIN d.producto pr WHERE d.pedido.id IN :pedidoIds ORDER BY d.id")
+    List<FilaDetalleVendedor> findFilasVendedor(@Param("pedidoIds") Collection<Integer> pedidoIds);
+
+    @Query("SELECT d.id AS detalleId, o.nombre AS nombre FROM DetallePedido d JOIN d.opcionesSeleccionadas o "
+            + "WHERE d.pedido.id IN :pedidoIds ORDER BY d.id, o.id")
+    List<FilaOpcionDetalle> findOpcionesDePedidos(@Param("pedidoIds") Collection<Integer> pedidoIds);
+
+    interface FilaDetalleVendedor {
+        Integer getId();
+        Integer getPedidoId();
+        String getNombreProducto();
+        int getCantidad();
+        BigDecimal getPrecioUnitario();
+    }
+
+    interface FilaOpcionDetalle {
+        Integer getDetalleId();
+        String getNombre();
+    }
+
+    // Líneas del historial del estudiante: una fila por opción elegida (o una sola sin opciones)
+    @Query("SELECT d.id AS detalleId, d.pedido.id AS pedidoId, d.cantidad AS cantidad, "
+            + "pr.nombre AS nombreProducto, o.nombre AS opcion "
+            + "FROM DetallePedido d JOIN d.producto pr LEFT JOIN d.opcionesSeleccionadas o "
+            + "WHERE d.pedido.id IN :pedidoIds ORDER BY d.id, o.id")
+    List<FilaItemComprador> findItemsDePedidos(@Param("pedidoIds") Collection<Integer> pedidoIds);
+
+    interface FilaItemComprador {
+        Integer getDetalleId();
+        Integer getPedidoId();
+        int getCantidad();
+        String getNombreProducto();
+        String getOpcion();
+    }
+}
@@ -1,9 +1,18 @@
 package com.remington.unieats.marketplace.model.repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository; // Importar
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.remington.unieats.marketplace.model.entity.Pedido;
@@ -11,14 +20,158 @@ import com.remington.unieats.marketplace.model.entity.Tienda;
 import com.remington.unieats.marketplace.model.entity.Usuario;
 import com.remington.unieats.marketplace.model.enums.EstadoPedido;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Integer> {
     List<Pedido> findByTiendaOrderByFechaCreacionDesc(Tienda tienda);
+
+    // --- Lecturas del panel del vendedor: filas planas, sin cargar el Usuario ni sus roles ---
+
+    String FILA_VENDEDOR = "select p.id as id, p.fechaCreacion as fechaCreacion, p.estado as estado, p.total as total, "
+            + "c.nombre as nombreComprador, c.apellido as apellidoComprador, "
+            + "p.tipoEntrega as tipoEntrega, p.tipoPago as tipoPago, "
+            + "p.notasGenerales as notasGenerales, p.notasDomicilio as notasDomicilio, "
+            + "p.resumenLineas as resumenLineas, p.tienda.id as tiendaId "
+            + "from Pedido p join p.comprador c ";
+
+    interface FilaPedidoVendedor {
+        Integer getId();
+        LocalDateTime getFechaCreacion();
+        EstadoPedido getEstado();
+        BigDecimal getTotal();
+        String getNombreComprador();
+        String getApellidoComprador();
+        String getTipoEntrega();
+        String getTipoPago();
+        String getNotasGenerales();
+        String getNotasDomicilio();
+        String getResumenLineas();
+        Integer getTiendaId();
+    }
+
+    @Query(FILA_VENDEDOR + "where p.tienda = :tienda order by p.fechaCreacion desc")
+    List<FilaPedidoVendedor> findFilasVendedor(@Param("tienda") Tienda tienda);
+
+    @Query(FILA_VENDEDOR + "where p.id = :id and p.tienda = :tienda")
+    Optional<FilaPedidoVendedor> findFilaVendedor(@Param("id") Integer id, @Param("tienda") Tienda tienda);
+
+    // Tablero de cocina: todos los pedidos activos al arrancar y luego cada pedido nuevo
+    @Query(FILA_VENDEDOR + "where p.estado not in :finales order by p.fechaCreacion desc, p.id desc")
+    List<FilaPedidoVendedor> findFilasVendedorActivas(@Param("finales") Set<EstadoPedido> finales);
+
+    @Query(FILA_VENDEDOR + "where p.id = :id")
+    Optional<FilaPedidoVendedor> findFilaVendedorPorId(@Param("id") Integer id);
+
+    // Sincronización incremental del panel: usa el índice (tienda_id, actualizado_en)
+    @Query(FILA_VENDEDOR + "where p.tienda = :tienda and p.actualizadoEn >= :desde order by p.fechaCreacion desc")
+    List<FilaPedidoVendedor> findFilasVendedorActualizadasDesde(@Param("tienda") Tienda tienda,
+                                                                @Param("desde") LocalDateTime desde);
+
+    // --- Listado por estado, paginado por keyset (fecha_creacion, id) ---
+
+    @Query(FILA_VENDEDOR + "where p.tienda = :tienda and p.estado in :estados "
+            + "order by p.fechaCreacion desc, p.id desc")
+    List<FilaPedidoVendedor> findPrimeraPagina(@Param("tienda") Tienda tienda,
+                                               @Param("estados") Collection<EstadoPedido> estados, Limit limite);
+
+    @Query(FILA_VENDEDOR + "where p.tienda = :tienda and p.estado in :estados "
+            + "and (p.fechaCreacion < :fecha or (p.fechaCreacion = :fecha and p.id < :id)) "
+            + "order by p.fechaCreacion desc, p.id desc")
+    List<FilaPedidoVendedor> findPaginaAntesDe(@Param("tienda") Tienda tienda,
+                                               @Param("estados") Collection<EstadoPedido> estados,
+                                               @Param("fecha") LocalDateTime fecha, @Param("id") Integer id, Limit limite);
+
+    interface TotalesPorEstado {
+        EstadoPedido getEstado();
+        Long getCantidad();
+        BigDecimal getTotal();
+    }
+
+    @Query("select p.estado as estado, count(p) as cantidad, coalesce(sum(p.total), 0) as total "
+            + "from Pedido p where p.tienda = :tienda group by p.estado")
+    List<TotalesPorEstado> contarPorEstado(@Param("tienda") Tienda tienda);
     
     // --- MÉTODO AÑADIDO ---
     List<Pedido> findByCompradorOrderByFechaCreacionDesc(Usuario comprador);
+
+    // --- Historial del estudiante: filas planas con el nombre de la tienda ---
+
+    String FILA_COMPRADOR = "select p.id as id, p.fechaCreacion as fechaCreacion, p.estado as estado, "
+            + "p.total as total, t.nombre as nombreTienda, p.resumenLineas as resumenLineas "
+            + "from Pedido p join p.tienda t ";
+
+    interface FilaPedidoComprador {
+        Integer getId();
+        LocalDateTime getFechaCreacion();
+        EstadoPedido getEstado();
+        BigDecimal getTotal();
+        String getNombreTienda();
+        String getResumenLineas();
+    }
+
+    @Query(FILA_COMPRADOR + "where p.comprador = :comprador order by p.fechaCreacion desc")
+    List<FilaPedidoComprador> findFilasComprador(@Param("comprador") Usuario comprador);
+
+    // Activos: pocos por estudiante, van siempre completos en la primera página
+    @Query(FILA_COMPRADOR + "where p.comprador.correo = :correo and p.estado not in :finales "
+            + "order by p.fechaCreacion desc, p.id desc")
+    List<FilaPedidoComprador> findFilasCompradorActivas(@Param("correo") String correo,
+                                                        @Param("finales") Set<EstadoPedido> finales);
+
+    // Finalizados, paginados por keyset (fecha_creacion, id)
+    @Query(FILA_COMPRADOR + "where p.comprador.correo = :correo and p.estado in :finales "
+            + "order by p.fechaCreacion desc, p.id desc")
+    List<FilaPedidoComprador> findFilasCompradorFinales(@Param("correo") String correo,
+                                                        @Param("finales") Set<EstadoPedido> finales, Limit limite);
+
+    @Query(FILA_COMPRADOR + "where p.comprador.correo = :correo and p.estado in :finales "
+            + "and (p.fechaCreacion < :fecha or (p.fechaCreacion = :fecha and p.id < :id)) "
+            + "order by p.fechaCreacion desc, p.id desc")
+    List<FilaPedidoComprador> findFilasCompradorFinalesAntesDe(@Param("correo") String correo,
+                                                               @Param("finales") Set<EstadoPedido> finales,
+                                                               @Param("fecha") LocalDateTime fecha,
+                                                               @Param("id") Integer id, Limit limite);
     
     // Métodos para estadísticas del dashboard
     List<Pedido> findByTiendaAndFechaCreacionBetween(Tienda tienda, LocalDateTime inicio, LocalDateTime fin);
     List<Pedido> findByTiendaAndEstado(Tienda tienda, EstadoPedido estado);
+
+    // Cambio de estado condicional (compare-and-set): devuelve 0 si el pedido ya no estaba en un estado de origen
+    @Modifying
+    @Query("update Pedido p set p.estado = :nuevoEstado, p.actualizadoEn = :ahora "
+            + "where p.id = :id and p.estado in :origenes")
+    int cambiarEstadoSi(@Param("id") Integer id, @Param("nuevoEstado") EstadoPedido nuevoEstado,
+                        @Param("origenes") Set<EstadoPedido> origenes, @Param("ahora") LocalDateTime ahora);
+
+    // Pedidos de un estudiante que todavía pueden cambiar de estado
+    @Query("select p.id from Pedido p where p.comprador.correo = :correo and p.estado not in :finales")
+    List<Integer> findIdsNoFinalesByCorreoComprador(@Param("correo") String correo,
+                                                    @Param("finales") Set<EstadoPedido> finales);
+
+    @Query("select p.id from Pedido p where p.tienda.id = :tiendaId and p.estado not in :finales")
+    List<Integer> findIdsNoFinalesByTiendaId(@Param("tiendaId") Integer tiendaId,
+                                             @Param("finales") Set<EstadoPedido> finales);
+
+    @Query("select p.estado from Pedido p where p.id = :id")
+    Optional<EstadoPedido> findEstadoById(@Param("id") Integer id);
+
+    // --- Cambios de estado masivos ---
+
+    interface EstadoDePedido {
+        Integer getId();
+        EstadoPedido getEstado();
+    }
+
+    // SELECT ... FOR UPDATE: los estados leídos no cambian hasta que termine la transacción
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p.id as id, p.estado as estado from Pedido p where p.id in :ids and p.tienda.id = :tiendaId")
+    List<EstadoDePedido> bloquearEstados(@Param("ids") Collection<Integer> ids, @Param("tiendaId") Integer tiendaId);
+
+    @Modifying
+    @Query("update Pedido p set p.estado = :nuevoEstado, p.actualizadoEn = :ahora "
+            + "where p.id in :ids and p.tienda.id = :tiendaId and p.estado in :origenes")
+    int cambiarEstadoEnLote(@Param("ids") Collection<Integer> ids, @Param("tiendaId") Integer tiendaId,
+                            @Param("nuevoEstado") EstadoPedido nuevoEstado, @Param("origenes") Set<EstadoPedido> origenes,
+                            @Param("ahora") LocalDateTime ahora);
 }
\ No newline at end of file
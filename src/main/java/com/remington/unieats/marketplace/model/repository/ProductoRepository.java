@@ -1,10 +1,16 @@
 package com.remington.unieats.marketplace.model.repository;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.remington.unieats.marketplace.dto.ProductoPublicoDTO;
 import com.remington.unieats.marketplace.model.entity.Producto;
 import com.remington.unieats.marketplace.model.entity.Tienda;
 import com.remington.unieats.marketplace.model.enums.EstadoTienda;
@@ -28,4 +34,54 @@ public interface ProductoRepository extends JpaRepository<Producto, Integer> {
     
     List<Producto> findByNombreContainingIgnoreCaseAndTienda_EstadoAndTienda_EstaAbiertaAndDisponible(
         String nombre, EstadoTienda estado, Boolean estaAbierta, boolean disponible);
+
+    // --- PROYECCIONES PARA EL MARKETPLACE (una sola consulta, sin cargar la tienda por separado) ---
+
+    String PROYECCION_PUBLICA = "SELECT new com.remington.unieats.marketplace.dto.ProductoPublicoDTO("
+            + "p.id, p.nombre, p.descripcion, p.precio, p.imagenUrl, p.clasificacion, t.id, t.nombre) "
+            + "FROM Producto p JOIN p.tienda t ";
+
+    @Query(PROYECCION_PUBLICA
+            + "WHERE t.estado = :estado AND t.estaAbierta = true AND p.disponible = true ORDER BY p.id")
+    List<ProductoPublicoDTO> findPublicosByEstadoTienda(@Param("estado") EstadoTienda estado);
+
+    @Query(PROYECCION_PUBLICA
+            + "WHERE t.id = :tiendaId AND t.estaAbierta = true AND p.disponible = true ORDER BY p.id")
+    List<ProductoPublicoDTO> findPublicosByTiendaId(@Param("tiendaId") Integer tiendaId);
+
+    // --- VARIANTES PAGINADAS POR CURSOR (keyset sobre la PK): cada página cuesta lo mismo que la primera ---
+
+    @Query(PROYECCION_PUBLICA
+            + "WHERE t.estado = :estado AND t.estaAbierta = true AND p.disponible = true "
+            + "AND p.id > :despuesDe ORDER BY p.id")
+    List<ProductoPublicoDTO> findPublicosByEstadoTiendaDespuesDe(@Param("estado") EstadoTienda estado,
+            @Param("despuesDe") Integer despuesDe, Pageable pageable);
+
+    @Query(PROYECCION_PUBLICA
+            + "WHERE t.id = :tiendaId AND t.estaAbierta = true AND p.disponible = true "
+            + "AND p.id > :despuesDe ORDER BY p.id")
+    List<ProductoPublicoDTO> findPublicosByTiendaIdDespuesDe(@Param("tiendaId") Integer tiendaId,
+            @Param("despuesDe") Integer despuesDe, Pageable pageable);
+
+    @Query(PROYECCION_PUBLICA
+            + "WHERE p.id = :id AND t.estado = :estado AND t.estaAbierta = true AND p.disponible = true")
+    Optional<ProductoPublicoDTO> findPublicoVisibleById(@Param("id") Integer id, @Param("estado") EstadoTienda estado);
+
+    @Query(PROYECCION_PUBLICA + "WHERE p.id = :id")
+    Optional<ProductoPublicoDTO> findPublicoById(@Param("id") Integer id);
+
+    // Árbol de opciones del producto en filas planas (categoría x opción), ordenadas para agrupar en memoria
+    @Query("SELECT c.id AS categoriaId, c.nombre AS categoriaNombre, "
+            + "o.id AS opcionId, o.nombre AS opcionNombre, o.precioAdicional AS precioAdicional "
+            + "FROM Producto p JOIN p.categoriasDeOpciones c LEFT JOIN c.opciones o "
+            + "WHERE p.id = :productoId ORDER BY c.id, o.id")
+    List<FilaOpcionProducto> findOpcionesDeProducto(@Param("productoId") Integer productoId);
+
+    interface FilaOpcionProducto {
+        Integer getCategoriaId();
+        String getCategoriaNombre();
+        Integer getOpcionId();
+        String getOpcionNombre();
+        BigDecimal getPrecioAdicional();
+    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.remington.unieats.marketplace.model.entity.Tienda;
@@ -26,4 +27,16 @@ public interface TiendaRepository extends JpaRepository<Tienda, Integer> {
     // MÉTODO AÑADIDO (PARA EL NUEVO ERROR)
     @Query("SELECT t FROM Tienda t JOIN FETCH t.vendedor")
     List<Tienda> findAllWithVendedor();
+
+    // Tienda de cada vendedor por correo, sin cargar usuarios ni sus roles
+    @Query("SELECT t.id AS id, v.correo AS correo FROM Tienda t JOIN t.vendedor v")
+    List<TiendaDeVendedor> findTiendasDeVendedores();
+
+    @Query("SELECT t.id FROM Tienda t WHERE t.vendedor.correo = :correo")
+    Optional<Integer> findIdByCorreoVendedor(@Param("correo") String correo);
+
+    interface TiendaDeVendedor {
+        Integer getId();
+        String getCorreo();
+    }
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ import com.remington.unieats.marketplace.model.repository.RolRepository;
 import com.remington.unieats.marketplace.model.repository.TiendaRepository;
 import com.remington.unieats.marketplace.model.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
@@ -26,6 +27,7 @@ public class AdminServiceImpl implements AdminService {
     @Autowired private RolRepository rolRepository;
     @Autowired private PasswordEncoder passwordEncoder;
     @Autowired private TiendaRepository tiendaRepository;
+    @Autowired private ApplicationEventPublisher eventPublisher;
 
     @Override
     public DashboardStatsDTO getDashboardStats() {
@@ -96,6 +98,7 @@ public class AdminServiceImpl implements AdminService {
                 .orElseThrow(() -> new RuntimeException("Tienda no encontrada"));
         tienda.setEstado(EstadoTienda.ACTIVA);
         tiendaRepository.save(tienda);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deTienda(tiendaId));
     }
 
     @Override
@@ -104,6 +107,7 @@ public class AdminServiceImpl implements AdminService {
                 .orElseThrow(() -> new RuntimeException("Tienda no encontrada"));
         tienda.setEstado(EstadoTienda.INACTIVA);
         tiendaRepository.save(tienda);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deTienda(tiendaId));
     }
 
     @Override
@@ -112,6 +116,7 @@ public class AdminServiceImpl implements AdminService {
                 .orElseThrow(() -> new RuntimeException("Tienda no encontrada"));
         tienda.setEstado(EstadoTienda.ACTIVA);
         tiendaRepository.save(tienda);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deTienda(tiendaId));
     }
 
     @Override
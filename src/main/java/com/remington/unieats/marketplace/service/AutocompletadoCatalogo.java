@@ -0,0 +1,283 @@
+package com.remington.unieats.marketplace.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.remington.unieats.marketplace.dto.ProductoPublicoDTO;
+import com.remington.unieats.marketplace.dto.SugerenciaDTO;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+import com.remington.unieats.marketplace.model.enums.EstadoTienda;
+import com.remington.unieats.marketplace.model.repository.DetallePedidoRepository;
+import com.remington.unieats.marketplace.model.repository.ProductoRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Autocompletado del buscador sobre un trie compacto (radix) con los nombres de
+ * productos y tiendas del catálogo público.
+ *
+ * Cada nombre se inserta desde cada una de sus palabras ("bbq" completa "Hamburguesa BBQ")
+ * y cada nodo guarda precalculadas sus {@value #TOP_K} sugerencias más pedidas, así que
+ * una consulta recorre solo el prefijo y no toca la base de datos. El trie es inmutable:
+ * se construye uno nuevo en un hilo propio y se reemplaza la referencia, mientras tanto se
+ * responde con el anterior. Se reconstruye ante un {@link CatalogoModificadoEvent} (varios
+ * eventos seguidos se juntan en una sola reconstrucción) y, como la popularidad cambia con
+ * cada pedido, cuando tiene más de {@code app.catalogo.autocompletar.refresco-segundos}.
+ */
+@Component
+public class AutocompletadoCatalogo {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompletadoCatalogo.class);
+
+    public static final int TOP_K = 8;
+
+    private static final Comparator<SugerenciaDTO> POR_POPULARIDAD = Comparator
+            .comparingLong(SugerenciaDTO::getPopularidad).reversed()
+            .thenComparing(SugerenciaDTO::getTexto)
+            .thenComparing(SugerenciaDTO::getId);
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private DetallePedidoRepository detallePedidoRepository;
+
+    @Value("${app.catalogo.autocompletar.refresco-segundos:300}")
+    private long refrescoSegundos;
+
+    private final Object mutacion = new Object();
+    private final AtomicBoolean refrescando = new AtomicBoolean(false);
+    private final AtomicBoolean pendiente = new AtomicBoolean(false);
+    // Las reconstrucciones leen la base de datos: fuera del hilo de la petición y del pool común
+    private final ExecutorService reconstructor = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "autocompletado");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private volatile Nodo raiz; // null hasta la primera carga
+    private volatile long construidoEn;
+
+    public List<SugerenciaDTO> sugerir(String prefijo, int limite) {
+        String clave = normalizar(prefijo);
+        if (clave.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        Nodo nodo = asegurarCargado();
+        int i = 0;
+        while (i < clave.length()) {
+            Nodo hijo = nodo.hijo(clave.charAt(i));
+            if (hijo == null) {
+                return List.of();
+            }
+            int comunes = caracteresComunes(clave, i, hijo.etiqueta);
+            if (comunes == hijo.etiqueta.length()) {
+                i += comunes;
+            } else if (i + comunes < clave.length()) {
+                return List.of(); // El prefijo se separa de la etiqueta a mitad de la arista
+            } else {
+                i = clave.length(); // El prefijo termina dentro de la arista
+            }
+            nodo = hijo;
+        }
+
+        List<SugerenciaDTO> top = Arrays.asList(nodo.top);
+        return top.size() <= limite ? top : top.subList(0, limite);
+    }
+
+    public void reconstruir() {
+        synchronized (mutacion) {
+            raiz = construir();
+            construidoEn = System.currentTimeMillis();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogoModificado(CatalogoModificadoEvent event) {
+        if (raiz == null) {
+            return; // Se construirá en la primera consulta
+        }
+        programarReconstruccion();
+    }
+
+    @PreDestroy
+    public void detener() {
+        reconstructor.shutdownNow();
+    }
+
+    private Nodo asegurarCargado() {
+        Nodo actual = raiz;
+        if (actual == null) {
+            synchronized (mutacion) {
+                if (raiz == null) {
+                    reconstruir();
+                }
+                actual = raiz;
+            }
+        } else if (System.currentTimeMillis() - construidoEn > refrescoSegundos * 1000) {
+            programarReconstruccion();
+        }
+        return actual;
+    }
+
+    // Si ya hay una reconstrucción en curso, al terminar hace una más que incluya este cambio
+    private void programarReconstruccion() {
+        pendiente.set(true);
+        if (refrescando.compareAndSet(false, true)) {
+            reconstructor.execute(this::reconstruirPendientes);
+        }
+    }
+
+    private void reconstruirPendientes() {
+        try {
+            while (pendiente.getAndSet(false)) {
+                reconstruir();
+            }
+        } catch (RuntimeException e) {
+            // Se queda el trie anterior y la próxima consulta vuelve a programar la reconstrucción
+            construidoEn = 0;
+            logger.warn("No se pudo refrescar el autocompletado: {}", e.getMessage());
+        } finally {
+            refrescando.set(false);
+        }
+        // Un evento que llegó entre la última vuelta y la liberación de la marca
+        if (pendiente.get() && refrescando.compareAndSet(false, true)) {
+            reconstructor.execute(this::reconstruirPendientes);
+        }
+    }
+
+    // --- Construcción ---
+
+    private Nodo construir() {
+        Map<Integer, Long> unidades = new HashMap<>();
+        for (DetallePedidoRepository.UnidadesPorProducto fila
+                : detallePedidoRepository.sumarUnidadesPorProducto(EstadoPedido.CANCELADO)) {
+            unidades.put(fila.getProductoId(), fila.getUnidades());
+        }
+
+        // Las tiendas salen de los mismos productos públicos: solo se sugieren tiendas con algo que mostrar
+        List<ProductoPublicoDTO> productos = productoRepository.findPublicosByEstadoTienda(EstadoTienda.ACTIVA);
+        Map<Integer, String> nombresTienda = new LinkedHashMap<>();
+        Map<Integer, Long> unidadesTienda = new HashMap<>();
+
+        NodoConstruccion raizConstruccion = new NodoConstruccion();
+        for (ProductoPublicoDTO producto : productos) {
+            long pedidas = unidades.getOrDefault(producto.getId(), 0L);
+            Integer tiendaId = producto.getTienda().getId();
+            insertar(raizConstruccion, producto.getNombre(), new SugerenciaDTO(producto.getNombre(),
+                    SugerenciaDTO.TIPO_PRODUCTO, producto.getId(), tiendaId, pedidas));
+            nombresTienda.putIfAbsent(tiendaId, producto.getTienda().getNombre());
+            unidadesTienda.merge(tiendaId, pedidas, Long::sum);
+        }
+        nombresTienda.forEach((tiendaId, nombre) -> insertar(raizConstruccion, nombre, new SugerenciaDTO(nombre,
+                SugerenciaDTO.TIPO_TIENDA, tiendaId, tiendaId, unidadesTienda.getOrDefault(tiendaId, 0L))));
+
+        Nodo nueva = compactar("", raizConstruccion, false);
+        logger.info("Autocompletado construido con {} productos y {} tiendas", productos.size(), nombresTienda.size());
+        return nueva;
+    }
+
+    private static void insertar(NodoConstruccion raiz, String texto, SugerenciaDTO sugerencia) {
+        List<String> palabras = IndiceBusquedaProductos.tokenizar(texto);
+        for (int i = 0; i < palabras.size(); i++) {
+            String clave = String.join(" ", palabras.subList(i, palabras.size()));
+            NodoConstruccion nodo = raiz;
+            for (int j = 0; j < clave.length(); j++) {
+                nodo = nodo.hijos.computeIfAbsent(clave.charAt(j), c -> new NodoConstruccion());
+            }
+            nodo.terminales.add(sugerencia);
+        }
+    }
+
+    // Une las cadenas de nodos con un solo hijo en una arista y calcula el top de cada nodo
+    private static Nodo compactar(String etiqueta, NodoConstruccion nodo, boolean unirCadenas) {
+        StringBuilder arista = new StringBuilder(etiqueta);
+        while (unirCadenas && nodo.terminales.isEmpty() && nodo.hijos.size() == 1) {
+            Map.Entry<Character, NodoConstruccion> unico = nodo.hijos.firstEntry();
+            arista.append(unico.getKey());
+            nodo = unico.getValue();
+        }
+
+        Nodo[] hijos = new Nodo[nodo.hijos.size()];
+        char[] primeros = new char[hijos.length];
+        List<SugerenciaDTO> candidatos = new ArrayList<>(nodo.terminales);
+        int i = 0;
+        for (Map.Entry<Character, NodoConstruccion> entrada : nodo.hijos.entrySet()) {
+            primeros[i] = entrada.getKey();
+            hijos[i] = compactar(String.valueOf(entrada.getKey()), entrada.getValue(), true);
+            candidatos.addAll(Arrays.asList(hijos[i].top));
+            i++;
+        }
+        return new Nodo(arista.toString(), primeros, hijos, seleccionarTop(candidatos));
+    }
+
+    private static SugerenciaDTO[] seleccionarTop(List<SugerenciaDTO> candidatos) {
+        candidatos.sort(POR_POPULARIDAD);
+        List<SugerenciaDTO> top = new ArrayList<>(TOP_K);
+        Set<String> vistas = new HashSet<>();
+        for (SugerenciaDTO candidato : candidatos) {
+            // Un mismo nombre puede llegar por varias de sus palabras
+            if (vistas.add(candidato.getTipo() + ":" + candidato.getId())) {
+                top.add(candidato);
+                if (top.size() == TOP_K) {
+                    break;
+                }
+            }
+        }
+        return top.toArray(new SugerenciaDTO[0]);
+    }
+
+    private static String normalizar(String texto) {
+        return String.join(" ", IndiceBusquedaProductos.tokenizar(texto));
+    }
+
+    private static int caracteresComunes(String clave, int desde, String etiqueta) {
+        int n = 0;
+        while (n < etiqueta.length() && desde + n < clave.length() && clave.charAt(desde + n) == etiqueta.charAt(n)) {
+            n++;
+        }
+        return n;
+    }
+
+    private static final class Nodo {
+        private final String etiqueta;
+        private final char[] primeros; // Primer carácter de cada hijo, ordenado para búsqueda binaria
+        private final Nodo[] hijos;
+        private final SugerenciaDTO[] top;
+
+        private Nodo(String etiqueta, char[] primeros, Nodo[] hijos, SugerenciaDTO[] top) {
+            this.etiqueta = etiqueta;
+            this.primeros = primeros;
+            this.hijos = hijos;
+            this.top = top;
+        }
+
+        private Nodo hijo(char c) {
+            int posicion = Arrays.binarySearch(primeros, c);
+            return posicion >= 0 ? hijos[posicion] : null;
+        }
+    }
+
+    private static final class NodoConstruccion {
+        private final TreeMap<Character, NodoConstruccion> hijos = new TreeMap<>();
+        private final List<SugerenciaDTO> terminales = new ArrayList<>();
+    }
+}
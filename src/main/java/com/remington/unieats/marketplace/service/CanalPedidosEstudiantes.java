@@ -0,0 +1,44 @@
+package com.remington.unieats.marketplace.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+import com.remington.unieats.marketplace.model.repository.PedidoRepository;
+
+/**
+ * Canal con el que los estudiantes reciben los cambios de estado de sus pedidos sin
+ * consultar /mis-pedidos cada pocos segundos. Cada evento va solo al dueño del pedido.
+ */
+@Component
+public class CanalPedidosEstudiantes extends CanalPedidosSse<String> {
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    // Pestañas abiertas por estudiante
+    @Value("${app.pedidos.stream.max-por-usuario:5}")
+    private int maxPorUsuario;
+
+    public CanalPedidosEstudiantes() {
+        super("pedidos-estudiantes");
+    }
+
+    @Override
+    protected List<Integer> pedidosNoFinales(String correo) {
+        return pedidoRepository.findIdsNoFinalesByCorreoComprador(correo, EstadoPedido.finales());
+    }
+
+    @Override
+    protected String destinatario(PedidoCreadoEvent event) {
+        return event.getCorreoComprador();
+    }
+
+    @Override
+    protected int maxConexiones() {
+        return maxPorUsuario;
+    }
+}
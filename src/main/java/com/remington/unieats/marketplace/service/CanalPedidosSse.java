@@ -0,0 +1,248 @@
+package com.remington.unieats.marketplace.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Base de los canales Server-Sent Events de pedidos. Cada suscriptor se identifica con
+ * una clave (el correo del estudiante, el id de la tienda) y puede tener varias
+ * conexiones abiertas.
+ *
+ * Cada conexión es un {@link SseEmitter} asíncrono: no ocupa un hilo de Tomcat ni una
+ * conexión de la base de datos mientras está abierta. Los eventos de pedido llegan
+ * después del commit; para saber a quién va un cambio de estado sin consultar la base
+ * se mantiene un índice pedido → clave con los pedidos no finales de los suscriptores
+ * conectados, que se carga al suscribirse, y su inverso clave → pedidos para limpiarlo
+ * al desconectarse sin recorrerlo entero. El evento {@code conectado} sale recién con
+ * ese índice cargado: a partir de él el cliente deja de consultar y vuelve a leer sus
+ * pedidos una vez, y ningún cambio posterior se queda sin dueño. Un latido cada
+ * {@code app.pedidos.stream.latido-segundos} mantiene viva la conexión a través de
+ * proxies y detecta clientes que se fueron.
+ */
+abstract class CanalPedidosSse<K> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CanalPedidosSse.class);
+
+    static final String EVENTO_NUEVO = "pedido-nuevo";
+    static final String EVENTO_ESTADO = "pedido";
+    static final String EVENTO_CONECTADO = "conectado";
+
+    @Value("${app.pedidos.stream.timeout-minutos:30}")
+    private long timeoutMinutos;
+
+    @Value("${app.pedidos.stream.latido-segundos:25}")
+    private long latidoSegundos;
+
+    private final String nombre;
+    private final ConcurrentHashMap<K, CopyOnWriteArrayList<SseEmitter>> emisores = new ConcurrentHashMap<>();
+    // Solo pedidos no finales de suscriptores con alguna conexión abierta
+    private final ConcurrentHashMap<Integer, K> duenos = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, Set<Integer>> pedidosDe = new ConcurrentHashMap<>();
+
+    // Último envío encolado por conexión: los eventos de una conexión salen en orden
+    private final ConcurrentHashMap<SseEmitter, CompletableFuture<Void>> colas = new ConcurrentHashMap<>();
+
+    // Envíos y cargas del índice fuera del hilo de la petición y del que hace el commit
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+    private ScheduledExecutorService latidos;
+
+    protected CanalPedidosSse(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /** Ids de los pedidos no finales del suscriptor, para cargar el índice. */
+    protected abstract List<Integer> pedidosNoFinales(K clave);
+
+    /** Suscriptor que debe enterarse de un pedido nuevo. */
+    protected abstract K destinatario(PedidoCreadoEvent event);
+
+    /** Conexiones abiertas por suscriptor; al pasarse se cierran las más antiguas. */
+    protected abstract int maxConexiones();
+
+    @PostConstruct
+    public void iniciar() {
+        latidos = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "latido-" + nombre);
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        latidos.scheduleAtFixedRate(this::enviarLatidos, latidoSegundos, latidoSegundos, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (latidos != null) {
+            latidos.shutdownNow();
+        }
+        envios.shutdownNow();
+        emisores.values().forEach(lista -> lista.forEach(SseEmitter::complete));
+        emisores.clear();
+        duenos.clear();
+        pedidosDe.clear();
+        colas.clear();
+    }
+
+    public SseEmitter suscribir(K clave) {
+        SseEmitter emisor = crearEmisor(TimeUnit.MINUTES.toMillis(timeoutMinutos));
+        emisor.onCompletion(() -> quitar(clave, emisor));
+        emisor.onTimeout(() -> quitar(clave, emisor));
+        emisor.onError(error -> quitar(clave, emisor));
+
+        List<SseEmitter> sobrantes = new ArrayList<>();
+        emisores.compute(clave, (k, lista) -> {
+            if (lista == null) {
+                lista = new CopyOnWriteArrayList<>();
+            }
+            lista.add(emisor);
+            // Pestañas olvidadas: se cierran las conexiones más antiguas
+            while (lista.size() > maxConexiones()) {
+                sobrantes.add(lista.remove(0));
+            }
+            return lista;
+        });
+        sobrantes.forEach(SseEmitter::complete);
+
+        envios.execute(() -> {
+            if (cargarPedidos(clave)) {
+                encolar(emisor, SseEmitter.event().name(EVENTO_CONECTADO).data("ok")
+                        .reconnectTime(TimeUnit.SECONDS.toMillis(5)));
+            } else {
+                // Sin índice los cambios de estado no llegarían: el navegador reconecta y mientras tanto consulta
+                emisor.complete();
+            }
+        });
+        return emisor;
+    }
+
+    SseEmitter crearEmisor(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPedidoCreado(PedidoCreadoEvent event) {
+        K clave = destinatario(event);
+        if (clave == null || !emisores.containsKey(clave)) {
+            return;
+        }
+        if (!event.getEstado().esFinal()) {
+            seguir(clave, List.of(event.getPedidoId()));
+        }
+        notificar(clave, EVENTO_NUEVO, event.getPedidoId(), event.getEstado());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPedidoEstadoCambiado(PedidoEstadoCambiadoEvent event) {
+        K clave;
+        if (event.getEstado().esFinal()) {
+            clave = duenos.remove(event.getPedidoId());
+            if (clave != null) {
+                pedidosDe.computeIfPresent(clave, (k, ids) -> {
+                    ids.remove(event.getPedidoId());
+                    return ids;
+                });
+            }
+        } else {
+            clave = duenos.get(event.getPedidoId());
+        }
+        if (clave != null) {
+            notificar(clave, EVENTO_ESTADO, event.getPedidoId(), event.getEstado());
+        }
+    }
+
+    public int getConexiones() {
+        return emisores.values().stream().mapToInt(List::size).sum();
+    }
+
+    int getPedidosSeguidos() {
+        return duenos.size();
+    }
+
+    private void notificar(K clave, String tipo, Integer pedidoId, EstadoPedido estado) {
+        List<SseEmitter> lista = emisores.get(clave);
+        if (lista == null) {
+            return;
+        }
+        Map<String, Object> datos = Map.of("pedidoId", pedidoId, "estado", estado.name());
+        for (SseEmitter emisor : lista) {
+            encolar(emisor, SseEmitter.event().name(tipo).data(datos));
+        }
+    }
+
+    private boolean cargarPedidos(K clave) {
+        try {
+            seguir(clave, pedidosNoFinales(clave));
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron cargar los pedidos activos de {} ({}): {}", clave, nombre, e.getMessage());
+            return false;
+        }
+    }
+
+    // Dentro del compute del suscriptor: si se desconectó mientras tanto, no se deja basura en el índice
+    private void seguir(K clave, List<Integer> ids) {
+        emisores.computeIfPresent(clave, (k, lista) -> {
+            Set<Integer> propios = pedidosDe.computeIfAbsent(clave, c -> ConcurrentHashMap.newKeySet());
+            for (Integer id : ids) {
+                duenos.put(id, clave);
+                propios.add(id);
+            }
+            return lista;
+        });
+    }
+
+    private void enviarLatidos() {
+        emisores.values().forEach(lista -> lista.forEach(emisor ->
+                encolar(emisor, SseEmitter.event().comment("latido"))));
+    }
+
+    private void encolar(SseEmitter emisor, SseEmitter.SseEventBuilder evento) {
+        colas.compute(emisor, (e, anterior) -> (anterior == null ? CompletableFuture.<Void>completedFuture(null)
+                : anterior.exceptionally(error -> null)).thenRunAsync(() -> enviar(emisor, evento), envios));
+    }
+
+    private void enviar(SseEmitter emisor, SseEmitter.SseEventBuilder evento) {
+        try {
+            emisor.send(evento);
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado: al completarse el emisor se quita del canal
+            colas.remove(emisor);
+            emisor.completeWithError(e);
+        }
+    }
+
+    private void quitar(K clave, SseEmitter emisor) {
+        colas.remove(emisor);
+        emisores.computeIfPresent(clave, (k, lista) -> {
+            lista.remove(emisor);
+            if (!lista.isEmpty()) {
+                return lista;
+            }
+            Set<Integer> ids = pedidosDe.remove(clave);
+            if (ids != null) {
+                ids.forEach(id -> duenos.remove(id, clave));
+            }
+            return null;
+        });
+    }
+}
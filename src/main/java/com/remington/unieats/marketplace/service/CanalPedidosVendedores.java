@@ -0,0 +1,46 @@
+package com.remington.unieats.marketplace.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+import com.remington.unieats.marketplace.model.repository.PedidoRepository;
+
+/**
+ * Canal por tienda para el panel del vendedor: avisa de pedidos nuevos y de cambios
+ * de estado en cuanto se confirman, para que el panel deje de pedir la lista completa
+ * cada pocos segundos. Todos los dispositivos abiertos de una tienda reciben los mismos
+ * eventos.
+ */
+@Component
+public class CanalPedidosVendedores extends CanalPedidosSse<Integer> {
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    // Dispositivos de una misma tienda (caja, cocina, celulares)
+    @Value("${app.pedidos.stream.max-por-tienda:10}")
+    private int maxPorTienda;
+
+    public CanalPedidosVendedores() {
+        super("pedidos-vendedores");
+    }
+
+    @Override
+    protected List<Integer> pedidosNoFinales(Integer tiendaId) {
+        return pedidoRepository.findIdsNoFinalesByTiendaId(tiendaId, EstadoPedido.finales());
+    }
+
+    @Override
+    protected Integer destinatario(PedidoCreadoEvent event) {
+        return event.getTiendaId();
+    }
+
+    @Override
+    protected int maxConexiones() {
+        return maxPorTienda;
+    }
+}
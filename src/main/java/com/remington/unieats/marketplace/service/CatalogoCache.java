@@ -0,0 +1,113 @@
+package com.remington.unieats.marketplace.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Caché de lectura (read-through) para las consultas públicas del catálogo.
+ *
+ * Es acotada en tamaño (LRU) y se vacía completa cuando se confirma un
+ * {@link CatalogoModificadoEvent}. Para no guardar datos leídos antes de un
+ * commit concurrente, cada carga solo se almacena si la versión del catálogo
+ * no cambió mientras se consultaba la base de datos.
+ *
+ * La versión es también el ETag de las respuestas del catálogo, así que se invalida
+ * al final: los índices y cachés que arman esas respuestas ({@link #ANTES_DEL_ETAG})
+ * se actualizan primero. Al revés, una respuesta armada con datos viejos quedaría
+ * marcada con el ETag nuevo y el cliente recibiría 304 sobre ella hasta el siguiente cambio.
+ */
+@Component
+public class CatalogoCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoCache.class);
+
+    /** Orden de los listeners de {@link CatalogoModificadoEvent} que deben terminar antes de cambiar el ETag. */
+    public static final int ANTES_DEL_ETAG = Ordered.HIGHEST_PRECEDENCE;
+
+    private final Map<String, Object> entradas;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong invalidaciones = new AtomicLong();
+    // Distingue las versiones de distintos arranques (el contador vuelve a cero al reiniciar)
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+
+    public CatalogoCache(@Value("${app.catalogo.cache.max-entradas:256}") int maxEntradas) {
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > maxEntradas;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(String clave, Supplier<T> cargador) {
+        Object valor;
+        synchronized (entradas) {
+            valor = entradas.get(clave);
+        }
+        if (valor != null) {
+            aciertos.incrementAndGet();
+            return (T) valor;
+        }
+
+        fallos.incrementAndGet();
+        long versionInicial = version.get();
+        T cargado = cargador.get();
+        synchronized (entradas) {
+            if (cargado != null && version.get() == versionInicial) {
+                entradas.put(clave, cargado);
+            }
+        }
+        return cargado;
+    }
+
+    public void invalidar() {
+        synchronized (entradas) {
+            version.incrementAndGet();
+            entradas.clear();
+        }
+        invalidaciones.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogoModificado(CatalogoModificadoEvent event) {
+        logger.debug("Invalidando caché del catálogo (tienda={}, producto={})", event.getTiendaId(), event.getProductoId());
+        invalidar();
+    }
+
+    /** Versión actual del catálogo; aumenta con cada invalidación. */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /** ETag fuerte para las respuestas del catálogo: cambia con cada invalidación y con cada arranque. */
+    public String getEtag() {
+        return "\"" + instancia + "-" + version.get() + "\"";
+    }
+
+    public Map<String, Long> getEstadisticas() {
+        int tamano;
+        synchronized (entradas) {
+            tamano = entradas.size();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("aciertos", aciertos.get());
+        stats.put("fallos", fallos.get());
+        stats.put("invalidaciones", invalidaciones.get());
+        stats.put("entradas", (long) tamano);
+        return stats;
+    }
+}
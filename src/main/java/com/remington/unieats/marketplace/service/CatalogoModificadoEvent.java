@@ -0,0 +1,33 @@
+package com.remington.unieats.marketplace.service;
+
+/**
+ * Evento publicado cuando cambia algo visible en el catálogo público
+ * (productos o tiendas). Se escucha después del commit para invalidar
+ * las cachés de lectura del marketplace.
+ */
+public class CatalogoModificadoEvent {
+
+    private final Integer tiendaId;
+    private final Integer productoId; // null si el cambio afecta a toda la tienda
+
+    public CatalogoModificadoEvent(Integer tiendaId, Integer productoId) {
+        this.tiendaId = tiendaId;
+        this.productoId = productoId;
+    }
+
+    public static CatalogoModificadoEvent deProducto(Integer tiendaId, Integer productoId) {
+        return new CatalogoModificadoEvent(tiendaId, productoId);
+    }
+
+    public static CatalogoModificadoEvent deTienda(Integer tiendaId) {
+        return new CatalogoModificadoEvent(tiendaId, null);
+    }
+
+    // Sin tienda ni producto: el cambio afecta a todo el catálogo
+    public static CatalogoModificadoEvent completo() {
+        return new CatalogoModificadoEvent(null, null);
+    }
+
+    public Integer getTiendaId() { return tiendaId; }
+    public Integer getProductoId() { return productoId; }
+}
@@ -0,0 +1,261 @@
+package com.remington.unieats.marketplace.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.remington.unieats.marketplace.dto.PedidoDTO;
+import com.remington.unieats.marketplace.dto.SolicitudPedidoDTO;
+import com.remington.unieats.marketplace.model.entity.Pedido;
+import com.remington.unieats.marketplace.model.entity.Usuario;
+import com.remington.unieats.marketplace.model.enums.EstadoSolicitudPedido;
+import com.remington.unieats.marketplace.model.repository.UsuarioRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Recepción asíncrona de pedidos para las horas pico (app.pedidos.asincrono.habilitado).
+ *
+ * El controlador valida la forma del carrito, lo deja en una cola acotada y responde
+ * de inmediato con un id provisional, sin tomar una conexión de la base de datos.
+ * Un único hilo escritor vacía la cola en lotes de hasta
+ * {@code app.pedidos.asincrono.lote} pedidos, cada lote en una sola transacción; si
+ * el lote falla se reintenta pedido por pedido para que un carrito inválido no
+ * arrastre a los demás. Con la cola llena {@link #encolar} no acepta más y el
+ * controlador responde 429: es preferible que el cliente reintente a que los hilos de
+ * Tomcat se acumulen esperando conexiones.
+ */
+@Component
+public class ColaPedidos {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColaPedidos.class);
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.pedidos.asincrono.habilitado:false}")
+    private boolean habilitada;
+
+    @Value("${app.pedidos.asincrono.capacidad:200}")
+    private int capacidad;
+
+    @Value("${app.pedidos.asincrono.lote:10}")
+    private int tamanoLote;
+
+    @Value("${app.pedidos.asincrono.reintentar-en-segundos:2}")
+    private int reintentarEnSegundos;
+
+    @Value("${app.pedidos.asincrono.retencion-minutos:30}")
+    private long retencionMinutos;
+
+    private BlockingQueue<Solicitud> cola;
+    // Todas las solicitudes recientes, en cola o ya resueltas, para el endpoint de estado
+    private final LinkedHashMap<String, Solicitud> solicitudes = new LinkedHashMap<>();
+    private volatile boolean activa = false;
+    private Thread escritor;
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitada) {
+            return;
+        }
+        cola = new ArrayBlockingQueue<>(capacidad);
+        activa = true;
+        escritor = new Thread(this::escribirMientrasActiva, "escritor-pedidos");
+        escritor.setDaemon(true);
+        escritor.start();
+        logger.info("Recepción asíncrona de pedidos activa (capacidad {}, lotes de {})", capacidad, tamanoLote);
+    }
+
+    // Lo que quede en la cola al apagar se escribe antes de cerrar el contexto
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        if (escritor == null) {
+            return;
+        }
+        activa = false;
+        escritor.interrupt();
+        escritor.join(TimeUnit.SECONDS.toMillis(10));
+        List<Solicitud> pendientes = new ArrayList<>();
+        cola.drainTo(pendientes);
+        if (!pendientes.isEmpty()) {
+            logger.info("Escribiendo {} pedidos pendientes antes de apagar", pendientes.size());
+            escribirLote(pendientes);
+        }
+    }
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    public int getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+
+    /**
+     * Deja el pedido en la cola. Devuelve vacío si la cola está llena.
+     */
+    public Optional<SolicitudPedidoDTO> encolar(PedidoDTO pedidoDTO, String correoComprador) {
+        if (!activa) {
+            throw new IllegalStateException("La recepción asíncrona de pedidos no está activa");
+        }
+        validar(pedidoDTO);
+
+        Solicitud solicitud = new Solicitud(UUID.randomUUID().toString(), pedidoDTO, correoComprador);
+        synchronized (solicitudes) {
+            purgarResueltas();
+            if (!cola.offer(solicitud)) {
+                return Optional.empty();
+            }
+            solicitudes.put(solicitud.id, solicitud);
+        }
+        return Optional.of(solicitud.aDTO());
+    }
+
+    public Optional<SolicitudPedidoDTO> consultar(String idProvisional, String correoComprador) {
+        synchronized (solicitudes) {
+            return Optional.ofNullable(solicitudes.get(idProvisional))
+                    .filter(s -> s.correoComprador.equals(correoComprador))
+                    .map(Solicitud::aDTO);
+        }
+    }
+
+    public int getPendientes() {
+        return cola == null ? 0 : cola.size();
+    }
+
+    // Solo se revisa la forma del carrito: productos, opciones y tienda se validan al escribir
+    private static void validar(PedidoDTO pedidoDTO) {
+        if (pedidoDTO.getTiendaId() == null) {
+            throw new IllegalArgumentException("El pedido no indica la tienda");
+        }
+        if (pedidoDTO.getItems() == null || pedidoDTO.getItems().isEmpty()) {
+            throw new IllegalArgumentException("El pedido no tiene productos");
+        }
+        for (PedidoDTO.ItemPedidoDTO item : pedidoDTO.getItems()) {
+            if (item.getId() == null || item.getCantidad() <= 0) {
+                throw new IllegalArgumentException("Hay productos inválidos en el pedido");
+            }
+        }
+    }
+
+    private void purgarResueltas() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(retencionMinutos);
+        Iterator<Solicitud> it = solicitudes.values().iterator();
+        while (it.hasNext()) {
+            Solicitud solicitud = it.next();
+            if (!solicitud.recibidaEn.isBefore(limite)) {
+                break;
+            }
+            if (solicitud.estado != EstadoSolicitudPedido.EN_COLA) {
+                it.remove();
+            }
+        }
+    }
+
+    // --- Escritor ---
+
+    private void escribirMientrasActiva() {
+        while (activa) {
+            try {
+                Solicitud primera = cola.poll(1, TimeUnit.SECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                List<Solicitud> lote = new ArrayList<>(tamanoLote);
+                lote.add(primera);
+                cola.drainTo(lote, tamanoLote - 1);
+                escribirLote(lote);
+            } catch (InterruptedException e) {
+                // detener() se encarga de lo que quede en la cola
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Error inesperado en el escritor de pedidos: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    void escribirLote(List<Solicitud> lote) {
+        List<Pedido> creados;
+        try {
+            creados = transactionTemplate.execute(estado -> {
+                List<Pedido> pedidos = new ArrayList<>(lote.size());
+                for (Solicitud solicitud : lote) {
+                    pedidos.add(crear(solicitud));
+                }
+                return pedidos;
+            });
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                lote.get(0).rechazar(e.getMessage());
+                return;
+            }
+            logger.warn("Falló un lote de {} pedidos ({}); se reintenta uno por uno", lote.size(), e.getMessage());
+            for (Solicitud solicitud : lote) {
+                escribirLote(List.of(solicitud));
+            }
+            return;
+        }
+        for (int i = 0; i < lote.size(); i++) {
+            lote.get(i).confirmar(creados.get(i).getId());
+        }
+    }
+
+    private Pedido crear(Solicitud solicitud) {
+        Usuario comprador = usuarioRepository.findByCorreo(solicitud.correoComprador)
+                .orElseThrow(() -> new RuntimeException("Usuario comprador no encontrado."));
+        return pedidoService.crearPedido(solicitud.pedidoDTO, comprador);
+    }
+
+    static final class Solicitud {
+        private final String id;
+        private final PedidoDTO pedidoDTO;
+        private final String correoComprador;
+        private final LocalDateTime recibidaEn = LocalDateTime.now();
+        private volatile EstadoSolicitudPedido estado = EstadoSolicitudPedido.EN_COLA;
+        private volatile Integer pedidoId;
+        private volatile String mensaje;
+
+        Solicitud(String id, PedidoDTO pedidoDTO, String correoComprador) {
+            this.id = id;
+            this.pedidoDTO = pedidoDTO;
+            this.correoComprador = correoComprador;
+        }
+
+        private void confirmar(Integer pedidoId) {
+            this.pedidoId = pedidoId;
+            this.estado = EstadoSolicitudPedido.CONFIRMADA;
+        }
+
+        private void rechazar(String mensaje) {
+            this.mensaje = mensaje;
+            this.estado = EstadoSolicitudPedido.RECHAZADA;
+        }
+
+        SolicitudPedidoDTO aDTO() {
+            return new SolicitudPedidoDTO(id, estado, pedidoId, mensaje, recibidaEn);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.remington.unieats.marketplace.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cuerpo JSON ya serializado y comprimido, listo para escribirse tal cual en la respuesta.
+ * Se arma una sola vez al llenar la caché; los arreglos no se modifican después.
+ */
+public final class CuerpoPrecomprimido {
+
+    private final byte[] plano;
+    private final byte[] gzip;
+
+    private CuerpoPrecomprimido(byte[] plano, byte[] gzip) {
+        this.plano = plano;
+        this.gzip = gzip;
+    }
+
+    public static CuerpoPrecomprimido de(byte[] json) {
+        return new CuerpoPrecomprimido(json, comprimir(json));
+    }
+
+    public byte[] getPlano() { return plano; }
+    public byte[] getGzip() { return gzip; }
+
+    // Se comprime una sola vez por versión del catálogo, así que vale la pena el nivel máximo
+    private static byte[] comprimir(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(Math.max(64, datos.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo comprimir la respuesta del catálogo", e);
+        }
+        return salida.toByteArray();
+    }
+}
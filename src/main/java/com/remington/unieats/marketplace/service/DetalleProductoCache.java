@@ -0,0 +1,88 @@
+package com.remington.unieats.marketplace.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.remington.unieats.marketplace.dto.ProductoDetalleDTO;
+
+/**
+ * Caché por producto del {@link ProductoDetalleDTO} ya armado (con su árbol de opciones).
+ *
+ * A diferencia de {@link CatalogoCache}, aquí la invalidación es selectiva: un cambio
+ * de producto solo borra ese producto y un cambio de tienda solo los productos de esa tienda.
+ */
+@Component
+public class DetalleProductoCache {
+
+    private final Map<Integer, ProductoDetalleDTO> detalles;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    public DetalleProductoCache(@Value("${app.catalogo.detalle-cache.max-entradas:1000}") int maxEntradas) {
+        this.detalles = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ProductoDetalleDTO> eldest) {
+                return size() > maxEntradas;
+            }
+        };
+    }
+
+    public Optional<ProductoDetalleDTO> obtener(Integer productoId, Supplier<Optional<ProductoDetalleDTO>> cargador) {
+        ProductoDetalleDTO dto;
+        synchronized (detalles) {
+            dto = detalles.get(productoId);
+        }
+        if (dto != null) {
+            aciertos.incrementAndGet();
+            return Optional.of(dto);
+        }
+
+        fallos.incrementAndGet();
+        long versionInicial = version.get();
+        Optional<ProductoDetalleDTO> cargado = cargador.get();
+        cargado.ifPresent(d -> {
+            synchronized (detalles) {
+                if (version.get() == versionInicial) {
+                    detalles.put(productoId, d);
+                }
+            }
+        });
+        return cargado;
+    }
+
+    @Order(CatalogoCache.ANTES_DEL_ETAG)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogoModificado(CatalogoModificadoEvent event) {
+        synchronized (detalles) {
+            version.incrementAndGet();
+            if (event.getProductoId() != null) {
+                detalles.remove(event.getProductoId());
+            } else if (event.getTiendaId() != null) {
+                detalles.values().removeIf(d -> event.getTiendaId().equals(d.getTienda().getId()));
+            } else {
+                detalles.clear();
+            }
+        }
+    }
+
+    public Map<String, Long> getEstadisticas() {
+        int tamano;
+        synchronized (detalles) {
+            tamano = detalles.size();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("aciertos", aciertos.get());
+        stats.put("fallos", fallos.get());
+        stats.put("entradas", (long) tamano);
+        return stats;
+    }
+}
@@ -0,0 +1,672 @@
+package com.remington.unieats.marketplace.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.remington.unieats.marketplace.dto.FacetaDTO;
+import com.remington.unieats.marketplace.dto.ProductoPublicoDTO;
+import com.remington.unieats.marketplace.dto.ProductosFacetadosDTO;
+import com.remington.unieats.marketplace.model.enums.ClasificacionProducto;
+import com.remington.unieats.marketplace.model.enums.EstadoTienda;
+import com.remington.unieats.marketplace.model.repository.ProductoRepository;
+
+/**
+ * Índice invertido en memoria sobre los productos visibles del marketplace.
+ *
+ * Indexa nombre, descripción, nombre de la tienda y clasificación, con los textos
+ * normalizados (minúsculas y sin tildes: "café" y "cafe" son el mismo término).
+ * Las búsquedas no tocan la base de datos; el índice se actualiza producto a producto
+ * cuando llega un {@link CatalogoModificadoEvent} y se reconstruye completo ante
+ * cambios de tienda.
+ *
+ * El modo difuso tolera errores de escritura ("amburguesa", "capuchino"): un índice
+ * de trigramas sobre el vocabulario propone candidatos y una distancia de Levenshtein
+ * acotada los verifica. Los resultados se ordenan por distancia total.
+ *
+ * Para las facetas cada documento tiene además un ordinal denso (los huecos se reutilizan)
+ * y se mantienen bitsets por clasificación y por tienda; los conteos son intersecciones
+ * de bitsets en memoria, sin GROUP BY.
+ */
+@Component
+public class IndiceBusquedaProductos {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceBusquedaProductos.class);
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los", "para", "por", "sin", "un", "una", "y");
+
+    private static final float PESO_NOMBRE = 3.0f;
+    private static final float PESO_TIENDA = 2.0f;
+    private static final float PESO_CLASIFICACION = 2.0f;
+    private static final float PESO_DESCRIPCION = 1.0f;
+    private static final float FACTOR_PREFIJO = 0.7f;
+    private static final int MAX_CANDIDATOS_DIFUSOS = 200;
+    private static final String SIN_CATEGORIA = "SIN_CATEGORIA";
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializa las mutaciones (lecturas a BD + aplicación) para que se apliquen en orden
+    private final Object mutacion = new Object();
+
+    private final Map<Integer, Documento> documentos = new HashMap<>();
+    private final NavigableMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+    // Trigrama -> términos del vocabulario que lo contienen (candidatos para el modo difuso)
+    private final Map<String, Set<String>> trigramas = new HashMap<>();
+
+    // Facetas: ordinal denso -> producto y bitsets de ordinales por valor de faceta
+    private final List<ProductoPublicoDTO> porOrdinal = new ArrayList<>();
+    private final BitSet ordinalesLibres = new BitSet();
+    private final BitSet vivos = new BitSet();
+    private final EnumMap<ClasificacionProducto, BitSet> porClasificacion = new EnumMap<>(ClasificacionProducto.class);
+    private final BitSet sinClasificacion = new BitSet();
+    private final Map<Integer, BitSet> porTienda = new HashMap<>();
+    private final Map<Integer, String> nombresTienda = new HashMap<>();
+
+    private volatile boolean cargado = false;
+
+    // --- Consultas ---
+
+    public List<ProductoPublicoDTO> buscar(String consulta) {
+        asegurarCargado();
+        List<String> terminos = tokenizarConsulta(consulta);
+        if (terminos.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Float> puntajes = null;
+            for (int i = 0; i < terminos.size(); i++) {
+                boolean ultimo = i == terminos.size() - 1;
+                Map<Integer, Float> coincidencias = coincidenciasDe(terminos.get(i), ultimo);
+                puntajes = puntajes == null ? coincidencias : intersectar(puntajes, coincidencias);
+                if (puntajes.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return ordenarPorPuntaje(puntajes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ProductoPublicoDTO> buscarDifuso(String consulta) {
+        asegurarCargado();
+        List<String> terminos = tokenizarConsulta(consulta);
+        if (terminos.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Coincidencia> acumulado = null;
+            for (int i = 0; i < terminos.size(); i++) {
+                boolean ultimo = i == terminos.size() - 1;
+                Map<Integer, Coincidencia> coincidencias = coincidenciasDifusas(terminos.get(i), ultimo);
+                acumulado = acumulado == null ? coincidencias : intersectarDifuso(acumulado, coincidencias);
+                if (acumulado.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return ordenarPorDistancia(acumulado);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filtra y cuenta facetas sobre los candidatos dados (en su orden) o, si son null,
+     * sobre todo el catálogo ordenado por id. Un filtro vacío o null no restringe.
+     */
+    public ProductosFacetadosDTO facetar(List<ProductoPublicoDTO> candidatos,
+                                         Set<String> clasificaciones, Set<Integer> tiendaIds) {
+        asegurarCargado();
+        lock.readLock().lock();
+        try {
+            BitSet base;
+            if (candidatos == null) {
+                base = (BitSet) vivos.clone();
+            } else {
+                base = new BitSet(porOrdinal.size());
+                for (ProductoPublicoDTO candidato : candidatos) {
+                    Documento documento = documentos.get(candidato.getId());
+                    if (documento != null) {
+                        base.set(documento.ordinal);
+                    }
+                }
+            }
+
+            BitSet filtroClasificacion = unirClasificaciones(clasificaciones);
+            BitSet filtroTienda = unirTiendas(tiendaIds);
+
+            // Cada faceta se cuenta con el filtro de la otra, no con el suyo
+            BitSet baseClasificaciones = interseccion(base, filtroTienda);
+            List<FacetaDTO> facetasClasificacion = new ArrayList<>();
+            for (ClasificacionProducto clasificacion : ClasificacionProducto.values()) {
+                facetasClasificacion.add(new FacetaDTO(clasificacion.name(), clasificacion.getDisplayName(),
+                        contarInterseccion(baseClasificaciones, porClasificacion.get(clasificacion))));
+            }
+            int sinCategoria = contarInterseccion(baseClasificaciones, sinClasificacion);
+            if (sinCategoria > 0) {
+                facetasClasificacion.add(new FacetaDTO(SIN_CATEGORIA, "Sin categoría", sinCategoria));
+            }
+
+            BitSet baseTiendas = interseccion(base, filtroClasificacion);
+            List<FacetaDTO> facetasTienda = new ArrayList<>();
+            porTienda.forEach((tiendaId, bits) -> {
+                int cantidad = contarInterseccion(baseTiendas, bits);
+                if (cantidad > 0) {
+                    facetasTienda.add(new FacetaDTO(String.valueOf(tiendaId), nombresTienda.get(tiendaId), cantidad));
+                }
+            });
+            facetasTienda.sort(Comparator.comparingInt(FacetaDTO::getCantidad).reversed()
+                    .thenComparing(FacetaDTO::getNombre));
+
+            BitSet seleccion = interseccion(baseTiendas, filtroTienda);
+            List<ProductoPublicoDTO> items = new ArrayList<>(seleccion.cardinality());
+            if (candidatos == null) {
+                for (int i = seleccion.nextSetBit(0); i >= 0; i = seleccion.nextSetBit(i + 1)) {
+                    items.add(porOrdinal.get(i));
+                }
+                items.sort(Comparator.comparing(ProductoPublicoDTO::getId));
+            } else {
+                for (ProductoPublicoDTO candidato : candidatos) {
+                    Documento documento = documentos.get(candidato.getId());
+                    if (documento != null && seleccion.get(documento.ordinal)) {
+                        items.add(documento.producto);
+                    }
+                }
+            }
+            return new ProductosFacetadosDTO(items, items.size(), facetasClasificacion, facetasTienda);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tamano() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Mantenimiento del índice ---
+
+    public void reconstruir() {
+        synchronized (mutacion) {
+            List<ProductoPublicoDTO> productos = productoRepository.findPublicosByEstadoTienda(EstadoTienda.ACTIVA);
+            lock.writeLock().lock();
+            try {
+                documentos.clear();
+                postings.clear();
+                trigramas.clear();
+                porOrdinal.clear();
+                ordinalesLibres.clear();
+                vivos.clear();
+                porClasificacion.clear();
+                sinClasificacion.clear();
+                porTienda.clear();
+                nombresTienda.clear();
+                for (ProductoPublicoDTO producto : productos) {
+                    agregar(producto);
+                }
+                cargado = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Índice de búsqueda reconstruido con {} productos y {} términos", productos.size(), postings.size());
+        }
+    }
+
+    @Order(CatalogoCache.ANTES_DEL_ETAG)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogoModificado(CatalogoModificadoEvent event) {
+        // Se revisa bajo el mutex: un evento que llega durante la primera carga espera a que
+        // termine y se aplica encima, porque esa carga pudo leer el catálogo antes del commit
+        synchronized (mutacion) {
+            if (!cargado) {
+                return; // Se cargará completo en la primera búsqueda
+            }
+            if (event.getProductoId() == null) {
+                reconstruir();
+                return;
+            }
+            Optional<ProductoPublicoDTO> visible = productoRepository.findPublicoVisibleById(event.getProductoId(), EstadoTienda.ACTIVA);
+            lock.writeLock().lock();
+            try {
+                quitar(event.getProductoId());
+                visible.ifPresent(this::agregar);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void asegurarCargado() {
+        if (!cargado) {
+            synchronized (mutacion) {
+                if (!cargado) {
+                    reconstruir();
+                }
+            }
+        }
+    }
+
+    // Requiere el write lock
+    private void agregar(ProductoPublicoDTO producto) {
+        Map<String, Float> pesos = new HashMap<>();
+        acumular(pesos, producto.getNombre(), PESO_NOMBRE);
+        acumular(pesos, producto.getTienda().getNombre(), PESO_TIENDA);
+        acumular(pesos, textoClasificacion(producto.getClasificacion()), PESO_CLASIFICACION);
+        acumular(pesos, producto.getDescripcion(), PESO_DESCRIPCION);
+
+        int ordinal = ordinalesLibres.nextSetBit(0);
+        if (ordinal >= 0) {
+            ordinalesLibres.clear(ordinal);
+            porOrdinal.set(ordinal, producto);
+        } else {
+            ordinal = porOrdinal.size();
+            porOrdinal.add(producto);
+        }
+        vivos.set(ordinal);
+        bitsDeClasificacion(producto.getClasificacion(), true).set(ordinal);
+        Integer tiendaId = producto.getTienda().getId();
+        porTienda.computeIfAbsent(tiendaId, id -> new BitSet()).set(ordinal);
+        nombresTienda.put(tiendaId, producto.getTienda().getNombre());
+
+        documentos.put(producto.getId(), new Documento(producto, pesos.keySet(), ordinal));
+        pesos.forEach((termino, peso) -> postings.computeIfAbsent(termino, t -> {
+            for (String trigrama : trigramasDe(t)) {
+                trigramas.computeIfAbsent(trigrama, g -> new HashSet<>()).add(t);
+            }
+            return new HashMap<>();
+        }).put(producto.getId(), peso));
+    }
+
+    // Requiere el write lock
+    private void quitar(Integer productoId) {
+        Documento anterior = documentos.remove(productoId);
+        if (anterior == null) {
+            return;
+        }
+        int ordinal = anterior.ordinal;
+        porOrdinal.set(ordinal, null);
+        ordinalesLibres.set(ordinal);
+        vivos.clear(ordinal);
+        BitSet clasificacion = bitsDeClasificacion(anterior.producto.getClasificacion(), false);
+        if (clasificacion != null) {
+            clasificacion.clear(ordinal);
+        }
+        Integer tiendaId = anterior.producto.getTienda().getId();
+        BitSet tienda = porTienda.get(tiendaId);
+        if (tienda != null) {
+            tienda.clear(ordinal);
+            if (tienda.isEmpty()) {
+                porTienda.remove(tiendaId);
+                nombresTienda.remove(tiendaId);
+            }
+        }
+
+        for (String termino : anterior.terminos) {
+            Map<Integer, Float> lista = postings.get(termino);
+            if (lista != null) {
+                lista.remove(productoId);
+                if (lista.isEmpty()) {
+                    postings.remove(termino);
+                    olvidarTrigramas(termino);
+                }
+            }
+        }
+    }
+
+    private void olvidarTrigramas(String termino) {
+        for (String trigrama : trigramasDe(termino)) {
+            Set<String> terminos = trigramas.get(trigrama);
+            if (terminos != null) {
+                terminos.remove(termino);
+                if (terminos.isEmpty()) {
+                    trigramas.remove(trigrama);
+                }
+            }
+        }
+    }
+
+    private static void acumular(Map<String, Float> pesos, String texto, float peso) {
+        for (String termino : tokenizar(texto)) {
+            if (!PALABRAS_VACIAS.contains(termino)) {
+                pesos.merge(termino, peso, Float::sum);
+            }
+        }
+    }
+
+    private static String textoClasificacion(String clasificacion) {
+        ClasificacionProducto c = clasificacionDe(clasificacion);
+        return c != null ? c.getDisplayName() : null;
+    }
+
+    private static ClasificacionProducto clasificacionDe(String clasificacion) {
+        for (ClasificacionProducto c : ClasificacionProducto.values()) {
+            if (c.name().equals(clasificacion)) {
+                return c;
+            }
+        }
+        return null; // SIN_CATEGORIA
+    }
+
+    // --- Facetas (requieren el lock correspondiente) ---
+
+    private BitSet bitsDeClasificacion(String clasificacion, boolean crear) {
+        ClasificacionProducto c = clasificacionDe(clasificacion);
+        if (c == null) {
+            return sinClasificacion;
+        }
+        return crear ? porClasificacion.computeIfAbsent(c, k -> new BitSet()) : porClasificacion.get(c);
+    }
+
+    private BitSet unirClasificaciones(Set<String> clasificaciones) {
+        if (clasificaciones == null || clasificaciones.isEmpty()) {
+            return null;
+        }
+        BitSet union = new BitSet();
+        for (String valor : clasificaciones) {
+            if (!SIN_CATEGORIA.equals(valor) && clasificacionDe(valor) == null) {
+                throw new IllegalArgumentException("Clasificación inválida: " + valor);
+            }
+            BitSet bits = bitsDeClasificacion(valor, false);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    private BitSet unirTiendas(Set<Integer> tiendaIds) {
+        if (tiendaIds == null || tiendaIds.isEmpty()) {
+            return null;
+        }
+        BitSet union = new BitSet();
+        for (Integer tiendaId : tiendaIds) {
+            BitSet bits = porTienda.get(tiendaId);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    // Un filtro null no restringe
+    private static BitSet interseccion(BitSet base, BitSet filtro) {
+        BitSet resultado = (BitSet) base.clone();
+        if (filtro != null) {
+            resultado.and(filtro);
+        }
+        return resultado;
+    }
+
+    private static int contarInterseccion(BitSet a, BitSet b) {
+        if (b == null) {
+            return 0;
+        }
+        BitSet resultado = (BitSet) a.clone();
+        resultado.and(b);
+        return resultado.cardinality();
+    }
+
+    // --- Evaluación de consultas (requieren el read lock) ---
+
+    // El último término se trata como prefijo para soportar búsqueda mientras se escribe
+    private Map<Integer, Float> coincidenciasDe(String termino, boolean comoPrefijo) {
+        Map<Integer, Float> resultado = new HashMap<>();
+        Map<Integer, Float> exactas = postings.get(termino);
+        if (exactas != null) {
+            resultado.putAll(exactas);
+        }
+        if (comoPrefijo) {
+            for (Map.Entry<String, Map<Integer, Float>> entrada
+                    : postings.subMap(termino, false, termino + Character.MAX_VALUE, false).entrySet()) {
+                entrada.getValue().forEach((id, peso) -> resultado.merge(id, peso * FACTOR_PREFIJO, Math::max));
+            }
+        }
+        return resultado;
+    }
+
+    private static Map<Integer, Float> intersectar(Map<Integer, Float> acumulado, Map<Integer, Float> nuevas) {
+        Map<Integer, Float> resultado = new HashMap<>();
+        acumulado.forEach((id, puntaje) -> {
+            Float otro = nuevas.get(id);
+            if (otro != null) {
+                resultado.put(id, puntaje + otro);
+            }
+        });
+        return resultado;
+    }
+
+    private List<ProductoPublicoDTO> ordenarPorPuntaje(Map<Integer, Float> puntajes) {
+        List<Map.Entry<Integer, Float>> ordenados = new ArrayList<>(puntajes.entrySet());
+        ordenados.sort(Map.Entry.<Integer, Float>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<ProductoPublicoDTO> resultado = new ArrayList<>(ordenados.size());
+        for (Map.Entry<Integer, Float> entrada : ordenados) {
+            resultado.add(documentos.get(entrada.getKey()).producto);
+        }
+        return resultado;
+    }
+
+    // --- Modo difuso (requieren el read lock) ---
+
+    // Distancia 0 para coincidencias exactas (y de prefijo en el último término);
+    // el resto viene de candidatos por trigramas verificados con Levenshtein acotado
+    private Map<Integer, Coincidencia> coincidenciasDifusas(String termino, boolean comoPrefijo) {
+        Map<Integer, Coincidencia> resultado = new HashMap<>();
+        coincidenciasDe(termino, comoPrefijo).forEach((id, peso) -> resultado.put(id, new Coincidencia(0, peso)));
+
+        int maxDistancia = distanciaMaxima(termino);
+        if (maxDistancia == 0) {
+            return resultado;
+        }
+        for (String candidato : candidatosPorTrigramas(termino, maxDistancia)) {
+            int distancia = distanciaAcotada(termino, candidato, maxDistancia);
+            if (distancia == 0 || distancia > maxDistancia) {
+                continue;
+            }
+            float factor = 1.0f / (1 + distancia);
+            postings.get(candidato).forEach((id, peso) ->
+                    resultado.merge(id, new Coincidencia(distancia, peso * factor), Coincidencia::mejor));
+        }
+        return resultado;
+    }
+
+    // Palabras cortas no admiten errores; las largas hasta dos
+    private static int distanciaMaxima(String termino) {
+        if (termino.length() <= 3) {
+            return 0;
+        }
+        return termino.length() <= 5 ? 1 : 2;
+    }
+
+    // Un término a distancia d comparte al menos |trigramas| - 3d trigramas con la consulta
+    private List<String> candidatosPorTrigramas(String termino, int maxDistancia) {
+        Set<String> propios = trigramasDe(termino);
+        Map<String, Integer> compartidos = new HashMap<>();
+        for (String trigrama : propios) {
+            Set<String> terminos = trigramas.get(trigrama);
+            if (terminos != null) {
+                for (String candidato : terminos) {
+                    if (Math.abs(candidato.length() - termino.length()) <= maxDistancia) {
+                        compartidos.merge(candidato, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        int minimo = Math.max(1, propios.size() - 3 * maxDistancia);
+        List<Map.Entry<String, Integer>> candidatos = new ArrayList<>();
+        for (Map.Entry<String, Integer> entrada : compartidos.entrySet()) {
+            if (entrada.getValue() >= minimo) {
+                candidatos.add(entrada);
+            }
+        }
+        // Con vocabularios grandes se verifican primero los que más trigramas comparten
+        candidatos.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+        List<String> resultado = new ArrayList<>(Math.min(candidatos.size(), MAX_CANDIDATOS_DIFUSOS));
+        for (int i = 0; i < candidatos.size() && i < MAX_CANDIDATOS_DIFUSOS; i++) {
+            resultado.add(candidatos.get(i).getKey());
+        }
+        return resultado;
+    }
+
+    private static Map<Integer, Coincidencia> intersectarDifuso(Map<Integer, Coincidencia> acumulado,
+                                                                Map<Integer, Coincidencia> nuevas) {
+        Map<Integer, Coincidencia> resultado = new HashMap<>();
+        acumulado.forEach((id, coincidencia) -> {
+            Coincidencia otra = nuevas.get(id);
+            if (otra != null) {
+                resultado.put(id, new Coincidencia(coincidencia.distancia + otra.distancia,
+                        coincidencia.puntaje + otra.puntaje));
+            }
+        });
+        return resultado;
+    }
+
+    private List<ProductoPublicoDTO> ordenarPorDistancia(Map<Integer, Coincidencia> coincidencias) {
+        List<Map.Entry<Integer, Coincidencia>> ordenadas = new ArrayList<>(coincidencias.entrySet());
+        ordenadas.sort(Comparator.<Map.Entry<Integer, Coincidencia>>comparingInt(e -> e.getValue().distancia)
+                .thenComparing(e -> e.getValue().puntaje, Comparator.reverseOrder())
+                .thenComparing(Map.Entry::getKey));
+        List<ProductoPublicoDTO> resultado = new ArrayList<>(ordenadas.size());
+        for (Map.Entry<Integer, Coincidencia> entrada : ordenadas) {
+            resultado.add(documentos.get(entrada.getKey()).producto);
+        }
+        return resultado;
+    }
+
+    /** Trigramas con relleno al inicio y al final, como pg_trgm: "cafe" -> "  c", " ca", "caf", "afe", "fe ". */
+    static Set<String> trigramasDe(String termino) {
+        String relleno = "  " + termino + " ";
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + 3 <= relleno.length(); i++) {
+            resultado.add(relleno.substring(i, i + 3));
+        }
+        return resultado;
+    }
+
+    /**
+     * Distancia de Levenshtein que abandona en cuanto supera maxDistancia
+     * (devuelve maxDistancia + 1 en ese caso).
+     */
+    static int distanciaAcotada(String a, String b, int maxDistancia) {
+        if (Math.abs(a.length() - b.length()) > maxDistancia) {
+            return maxDistancia + 1;
+        }
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = actual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + costo);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (minimoFila > maxDistancia) {
+                return maxDistancia + 1;
+            }
+            int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+        return anterior[b.length()];
+    }
+
+    // --- Normalización de texto ---
+
+    /** Minúsculas, sin tildes ni diéresis, separado en palabras alfanuméricas. */
+    public static List<String> tokenizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> terminos = new ArrayList<>();
+        for (String termino : SEPARADORES.split(normalizado)) {
+            if (!termino.isEmpty()) {
+                terminos.add(termino);
+            }
+        }
+        return terminos;
+    }
+
+    // En la consulta se ignoran palabras vacías, salvo la última: puede ser el inicio
+    // de una palabra que el estudiante aún está escribiendo ("de" -> "desayuno")
+    private static List<String> tokenizarConsulta(String consulta) {
+        List<String> terminos = tokenizar(consulta);
+        List<String> utiles = new ArrayList<>();
+        for (int i = 0; i < terminos.size(); i++) {
+            String termino = terminos.get(i);
+            boolean ultimo = i == terminos.size() - 1;
+            if ((ultimo || !PALABRAS_VACIAS.contains(termino)) && !utiles.contains(termino)) {
+                utiles.add(termino);
+            }
+        }
+        return utiles;
+    }
+
+    private static final class Coincidencia {
+        private final int distancia;
+        private final float puntaje;
+
+        private Coincidencia(int distancia, float puntaje) {
+            this.distancia = distancia;
+            this.puntaje = puntaje;
+        }
+
+        private static Coincidencia mejor(Coincidencia a, Coincidencia b) {
+            if (a.distancia != b.distancia) {
+                return a.distancia < b.distancia ? a : b;
+            }
+            return a.puntaje >= b.puntaje ? a : b;
+        }
+    }
+
+    private static final class Documento {
+        private final ProductoPublicoDTO producto;
+        private final Set<String> terminos;
+        private final int ordinal;
+
+        private Documento(ProductoPublicoDTO producto, Set<String> terminos, int ordinal) {
+            this.producto = producto;
+            this.terminos = terminos;
+            this.ordinal = ordinal;
+        }
+    }
+}
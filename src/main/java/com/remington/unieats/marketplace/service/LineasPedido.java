@@ -0,0 +1,84 @@
+package com.remington.unieats.marketplace.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remington.unieats.marketplace.dto.PedidoVendedorDTO;
+
+/**
+ * Resumen de las líneas de un pedido guardado en pedidos.resumen_lineas. Se escribe una vez
+ * al crear el pedido (producto, cantidad y opciones no cambian después) y de él salen tanto
+ * los textos del historial del estudiante como los detalles del panel del vendedor.
+ */
+final class LineasPedido {
+
+    // Solo cadenas, enteros y BigDecimal: no hace falta la configuración de Spring
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<Linea>> TIPO = new TypeReference<>() {};
+
+    private LineasPedido() {
+    }
+
+    static String escribir(List<Linea> lineas) {
+        try {
+            return MAPPER.writeValueAsString(lineas);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar el resumen del pedido", e);
+        }
+    }
+
+    static List<Linea> leer(String json) {
+        try {
+            return MAPPER.readValue(json, TIPO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Resumen de pedido ilegible: " + json, e);
+        }
+    }
+
+    // "2x Arepa (+ Queso, + Huevo)", igual que el texto armado desde los detalles
+    static String textoComprador(Linea linea) {
+        StringBuilder texto = new StringBuilder().append(linea.getCantidad()).append("x ").append(linea.getProducto());
+        if (!linea.getOpciones().isEmpty()) {
+            texto.append(" (+ ").append(String.join(", + ", linea.getOpciones())).append(")");
+        }
+        return texto.toString();
+    }
+
+    static PedidoVendedorDTO.DetallePedidoVendedorDTO detalleVendedor(Linea linea) {
+        PedidoVendedorDTO.DetallePedidoVendedorDTO detalle = new PedidoVendedorDTO.DetallePedidoVendedorDTO();
+        detalle.setNombreProducto(linea.getProducto());
+        detalle.setCantidad(linea.getCantidad());
+        detalle.setPrecioUnitario(linea.getPrecioUnitario());
+        detalle.setOpcionesSeleccionadas(linea.getOpciones().isEmpty() ? null : String.join(", ", linea.getOpciones()));
+        return detalle;
+    }
+
+    static class Linea {
+        private String producto;
+        private int cantidad;
+        private BigDecimal precioUnitario;
+        private List<String> opciones = List.of();
+
+        Linea() {
+        }
+
+        Linea(String producto, int cantidad, BigDecimal precioUnitario, List<String> opciones) {
+            this.producto = producto;
+            this.cantidad = cantidad;
+            this.precioUnitario = precioUnitario;
+            this.opciones = opciones;
+        }
+
+        public String getProducto() { return producto; }
+        public void setProducto(String producto) { this.producto = producto; }
+        public int getCantidad() { return cantidad; }
+        public void setCantidad(int cantidad) { this.cantidad = cantidad; }
+        public BigDecimal getPrecioUnitario() { return precioUnitario; }
+        public void setPrecioUnitario(BigDecimal precioUnitario) { this.precioUnitario = precioUnitario; }
+        public List<String> getOpciones() { return opciones; }
+        public void setOpciones(List<String> opciones) { this.opciones = opciones; }
+    }
+}
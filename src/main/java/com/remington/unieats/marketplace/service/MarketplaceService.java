@@ -2,9 +2,13 @@ package com.remington.unieats.marketplace.service;
 
 import java.util.List; // Importar
 import java.util.Optional;
+import java.util.Set;
 
+import com.remington.unieats.marketplace.dto.PaginaDTO;
 import com.remington.unieats.marketplace.dto.ProductoDetalleDTO;
 import com.remington.unieats.marketplace.dto.ProductoPublicoDTO; // <-- Importar
+import com.remington.unieats.marketplace.dto.ProductosFacetadosDTO;
+import com.remington.unieats.marketplace.dto.SugerenciaDTO;
 import com.remington.unieats.marketplace.dto.TiendaDetallePublicoDTO;
 import com.remington.unieats.marketplace.dto.TiendaPublicaDTO;
 
@@ -19,4 +23,20 @@ public interface MarketplaceService {
     
     // NUEVOS MÉTODOS PARA BÚSQUEDA
     List<ProductoPublicoDTO> buscarProductos(String termino);
+    List<ProductoPublicoDTO> buscarProductosDifuso(String termino);
+
+    // VARIANTES PAGINADAS POR CURSOR
+    PaginaDTO<ProductoPublicoDTO> getProductosPopulares(String cursor, Integer limite);
+    PaginaDTO<ProductoPublicoDTO> getProductosDeTienda(Integer tiendaId, String cursor, Integer limite);
+    PaginaDTO<ProductoPublicoDTO> buscarProductos(String termino, String cursor, Integer limite);
+    PaginaDTO<ProductoPublicoDTO> buscarProductosDifuso(String termino, String cursor, Integer limite);
+
+    // VARIANTES CON FACETAS (conteos por clasificación y tienda, y filtros)
+    ProductosFacetadosDTO getProductosFacetados(Set<String> clasificaciones, Set<Integer> tiendaIds,
+                                                String cursor, Integer limite);
+    ProductosFacetadosDTO buscarProductosFacetados(String termino, boolean difuso, Set<String> clasificaciones,
+                                                   Set<Integer> tiendaIds, String cursor, Integer limite);
+
+    // AUTOCOMPLETADO DEL BUSCADOR
+    List<SugerenciaDTO> autocompletar(String prefijo, Integer limite);
 }
\ No newline at end of file
@@ -1,20 +1,30 @@
 package com.remington.unieats.marketplace.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.remington.unieats.marketplace.dto.CategoriaOpcionDTO;
 import com.remington.unieats.marketplace.dto.OpcionDTO;
+import com.remington.unieats.marketplace.dto.PaginaDTO;
 import com.remington.unieats.marketplace.dto.ProductoDetalleDTO;
 import com.remington.unieats.marketplace.dto.ProductoPublicoDTO;
+import com.remington.unieats.marketplace.dto.ProductosFacetadosDTO;
+import com.remington.unieats.marketplace.dto.SugerenciaDTO;
 import com.remington.unieats.marketplace.dto.TiendaDetallePublicoDTO;
 import com.remington.unieats.marketplace.dto.TiendaPublicaDTO;
-import com.remington.unieats.marketplace.model.entity.Producto;
 import com.remington.unieats.marketplace.model.entity.Tienda;
 import com.remington.unieats.marketplace.model.enums.EstadoTienda;
 import com.remington.unieats.marketplace.model.repository.ProductoRepository;
@@ -23,19 +33,39 @@ import com.remington.unieats.marketplace.model.repository.TiendaRepository;
 @Service
 public class MarketplaceServiceImpl implements MarketplaceService {
 
+    private static final int LIMITE_POR_DEFECTO = 20;
+    private static final int LIMITE_MAXIMO = 100;
+
     @Autowired
     private TiendaRepository tiendaRepository;
 
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Autowired
+    private DetalleProductoCache detalleProductoCache;
+
+    @Autowired
+    private IndiceBusquedaProductos indiceBusqueda;
+
+    @Autowired
+    private AutocompletadoCatalogo autocompletado;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Los métodos cacheados no son @Transactional: un acierto de caché no debe
+    // abrir transacción ni pedir conexión al pool. Solo la carga usa una.
     @Override
-    @Transactional(readOnly = true)
     public List<TiendaPublicaDTO> getTiendasActivas() {
-        return tiendaRepository.findByEstadoAndEstaAbierta(EstadoTienda.ACTIVA, true)
-                .stream()
-                .map(this::convertirATiendaPublicaDTO)
-                .collect(Collectors.toList());
+        return catalogoCache.obtener("tiendas:activas", () -> enTransaccionDeLectura(() ->
+                tiendaRepository.findByEstadoAndEstaAbierta(EstadoTienda.ACTIVA, true)
+                        .stream()
+                        .map(this::convertirATiendaPublicaDTO)
+                        .collect(Collectors.toUnmodifiableList())));
     }
 
     @Override
@@ -54,123 +84,214 @@ public class MarketplaceServiceImpl implements MarketplaceService {
             return Optional.empty();
         }
         
-        List<Producto> productos = productoRepository.findByTiendaAndDisponible(tienda, true);
+        List<ProductoPublicoDTO> productos = productoRepository.findPublicosByTiendaId(tienda.getId());
 
         TiendaDetallePublicoDTO dto = new TiendaDetallePublicoDTO();
         dto.setId(tienda.getId());
         dto.setNombre(tienda.getNombre());
         dto.setDescripcion(tienda.getDescripcion());
         dto.setLogoUrl(tienda.getLogoUrl());
-        dto.setProductos(productos.stream().map(this::convertirAProductoPublicoDTO).collect(Collectors.toList()));
+        dto.setProductos(productos);
         
         return Optional.of(dto);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<ProductoPublicoDTO> getProductosPopulares() {
-        return productoRepository.findByTienda_EstadoAndTienda_EstaAbiertaAndDisponible(EstadoTienda.ACTIVA, true, true)
-                .stream()
-                .map(this::convertirAProductoPublicoDTO)
-                .collect(Collectors.toList());
+        return catalogoCache.obtener("productos:populares", () -> enTransaccionDeLectura(() ->
+                List.copyOf(productoRepository.findPublicosByEstadoTienda(EstadoTienda.ACTIVA))));
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Optional<ProductoDetalleDTO> getDetalleProducto(Integer id) {
-        Optional<Producto> productoOpt = productoRepository.findById(id);
-        if (productoOpt.isEmpty()) {
-            return Optional.empty();
-        }
-        Producto producto = productoOpt.get();
-
-        ProductoDetalleDTO dto = new ProductoDetalleDTO();
-        dto.setId(producto.getId());
-        dto.setNombre(producto.getNombre());
-        dto.setDescripcion(producto.getDescripcion());
-        dto.setPrecio(producto.getPrecio());
-        dto.setImagenUrl(producto.getImagenUrl());
-
-        // Asignar la información de la tienda
-        ProductoPublicoDTO.TiendaSimpleDTO tiendaDTO = new ProductoPublicoDTO.TiendaSimpleDTO();
-        tiendaDTO.setId(producto.getTienda().getId());
-        tiendaDTO.setNombre(producto.getTienda().getNombre());
-        dto.setTienda(tiendaDTO);
-
-        // Mapear las categorías y sus opciones
-        List<CategoriaOpcionDTO> categoriasDTO = producto.getCategoriasDeOpciones().stream()
-            .map(categoria -> {
-                CategoriaOpcionDTO catDTO = new CategoriaOpcionDTO();
-                catDTO.setId(categoria.getId());
-                catDTO.setNombre(categoria.getNombre());
-                
-                List<OpcionDTO> opcionesDTO = categoria.getOpciones().stream()
-                    .map(opcion -> {
-                        OpcionDTO opDTO = new OpcionDTO();
-                        opDTO.setId(opcion.getId());
-                        opDTO.setNombre(opcion.getNombre());
-                        opDTO.setPrecioAdicional(opcion.getPrecioAdicional());
-                        return opDTO;
-                    }).collect(Collectors.toList());
-                
-                catDTO.setOpciones(opcionesDTO);
-                return catDTO;
-            }).collect(Collectors.toList());
-        
-        dto.setCategoriasDeOpciones(categoriasDTO);
-
-        return Optional.of(dto);
+        return detalleProductoCache.obtener(id, () -> enTransaccionDeLectura(() -> cargarDetalleProducto(id)));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductoPublicoDTO> getProductosDeTienda(Integer tiendaId) {
-        return productoRepository.findByTienda_IdAndTienda_EstaAbiertaAndDisponible(tiendaId, true, true)
-                .stream()
-                .map(this::convertirAProductoPublicoDTO)
-                .collect(Collectors.toList());
+        return productoRepository.findPublicosByTiendaId(tiendaId);
     }
     
+    // La búsqueda se resuelve en el índice invertido en memoria, sin consultar la base de datos
     @Override
-    @Transactional(readOnly = true)
     public List<ProductoPublicoDTO> buscarProductos(String termino) {
         if (termino == null || termino.trim().isEmpty()) {
             return getProductosPopulares(); // Si no hay término, devolver productos populares
         }
         
-        return productoRepository.findByNombreContainingIgnoreCaseAndTienda_EstadoAndTienda_EstaAbiertaAndDisponible(
-                termino.trim(), EstadoTienda.ACTIVA, true, true)
-                .stream()
-                .map(this::convertirAProductoPublicoDTO)
-                .collect(Collectors.toList());
+        return indiceBusqueda.buscar(termino);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaDTO<ProductoPublicoDTO> getProductosPopulares(String cursor, Integer limite) {
+        int tamano = normalizarLimite(limite);
+        return armarPagina(productoRepository.findPublicosByEstadoTiendaDespuesDe(
+                EstadoTienda.ACTIVA, leerCursor(cursor), PageRequest.ofSize(tamano + 1)), tamano);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaDTO<ProductoPublicoDTO> getProductosDeTienda(Integer tiendaId, String cursor, Integer limite) {
+        int tamano = normalizarLimite(limite);
+        return armarPagina(productoRepository.findPublicosByTiendaIdDespuesDe(
+                tiendaId, leerCursor(cursor), PageRequest.ofSize(tamano + 1)), tamano);
+    }
+
+    // Los resultados van ordenados por relevancia, así que aquí el cursor es la posición en el ranking
+    @Override
+    public PaginaDTO<ProductoPublicoDTO> buscarProductos(String termino, String cursor, Integer limite) {
+        if (termino == null || termino.trim().isEmpty()) {
+            return getProductosPopulares(cursor, limite);
+        }
+        return paginarRanking(indiceBusqueda.buscar(termino), cursor, limite);
+    }
+
+    // Búsqueda tolerante a errores de escritura: coincidencias cercanas ordenadas por distancia
+    @Override
+    public List<ProductoPublicoDTO> buscarProductosDifuso(String termino) {
+        if (termino == null || termino.trim().isEmpty()) {
+            return getProductosPopulares();
+        }
+        return indiceBusqueda.buscarDifuso(termino);
+    }
+
+    @Override
+    public PaginaDTO<ProductoPublicoDTO> buscarProductosDifuso(String termino, String cursor, Integer limite) {
+        if (termino == null || termino.trim().isEmpty()) {
+            return getProductosPopulares(cursor, limite);
+        }
+        return paginarRanking(indiceBusqueda.buscarDifuso(termino), cursor, limite);
+    }
+
+    // Las facetas se calculan sobre bitsets del índice en memoria, sin GROUP BY en la base de datos
+    @Override
+    public ProductosFacetadosDTO getProductosFacetados(Set<String> clasificaciones, Set<Integer> tiendaIds,
+                                                       String cursor, Integer limite) {
+        return paginarFacetado(indiceBusqueda.facetar(null, clasificaciones, tiendaIds), cursor, limite);
+    }
+
+    @Override
+    public ProductosFacetadosDTO buscarProductosFacetados(String termino, boolean difuso, Set<String> clasificaciones,
+                                                          Set<Integer> tiendaIds, String cursor, Integer limite) {
+        if (termino == null || termino.trim().isEmpty()) {
+            return getProductosFacetados(clasificaciones, tiendaIds, cursor, limite);
+        }
+        List<ProductoPublicoDTO> resultados = difuso ? indiceBusqueda.buscarDifuso(termino) : indiceBusqueda.buscar(termino);
+        return paginarFacetado(indiceBusqueda.facetar(resultados, clasificaciones, tiendaIds), cursor, limite);
+    }
+
+    // Se responde desde el trie en memoria; cada nodo ya tiene sus sugerencias más pedidas
+    @Override
+    public List<SugerenciaDTO> autocompletar(String prefijo, Integer limite) {
+        int tamano = limite == null || limite <= 0 ? AutocompletadoCatalogo.TOP_K : Math.min(limite, AutocompletadoCatalogo.TOP_K);
+        return autocompletado.sugerir(prefijo, tamano);
     }
 
     // --- Métodos privados de ayuda (Helpers) ---
 
-    private TiendaPublicaDTO convertirATiendaPublicaDTO(Tienda tienda) {
-        TiendaPublicaDTO dto = new TiendaPublicaDTO();
-        dto.setId(tienda.getId());
-        dto.setNombre(tienda.getNombre());
-        dto.setDescripcion(tienda.getDescripcion());
-        dto.setLogoUrl(tienda.getLogoUrl());
-        return dto;
+    private int normalizarLimite(Integer limite) {
+        if (limite == null || limite <= 0) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    // El cursor es el id del último producto entregado (en búsquedas, la posición en el ranking)
+    private int leerCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            int valor = Integer.parseInt(cursor.trim());
+            if (valor < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+            return valor;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+
+    private PaginaDTO<ProductoPublicoDTO> paginarRanking(List<ProductoPublicoDTO> resultados, String cursor, Integer limite) {
+        int tamano = normalizarLimite(limite);
+        int desde = leerCursor(cursor);
+        if (desde >= resultados.size()) {
+            return new PaginaDTO<>(List.of(), null);
+        }
+        int hasta = Math.min(desde + tamano, resultados.size());
+        String siguiente = hasta < resultados.size() ? String.valueOf(hasta) : null;
+        return new PaginaDTO<>(new ArrayList<>(resultados.subList(desde, hasta)), siguiente);
     }
 
-    private ProductoPublicoDTO convertirAProductoPublicoDTO(Producto producto) {
-        ProductoPublicoDTO dto = new ProductoPublicoDTO();
+    private ProductosFacetadosDTO paginarFacetado(ProductosFacetadosDTO facetado, String cursor, Integer limite) {
+        PaginaDTO<ProductoPublicoDTO> pagina = paginarRanking(facetado.getItems(), cursor, limite);
+        facetado.setItems(pagina.getItems());
+        facetado.setNextCursor(pagina.getNextCursor());
+        return facetado;
+    }
+
+    // Se consulta un elemento de más para saber si existe una página siguiente
+    private PaginaDTO<ProductoPublicoDTO> armarPagina(List<ProductoPublicoDTO> filas, int tamano) {
+        if (filas.size() <= tamano) {
+            return new PaginaDTO<>(filas, null);
+        }
+        List<ProductoPublicoDTO> items = filas.subList(0, tamano);
+        return new PaginaDTO<>(new ArrayList<>(items), String.valueOf(items.get(tamano - 1).getId()));
+    }
+
+    private <T> T enTransaccionDeLectura(Supplier<T> consulta) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> consulta.get());
+    }
+
+    // Dos consultas como máximo: el producto con su tienda y el árbol de opciones en filas planas
+    private Optional<ProductoDetalleDTO> cargarDetalleProducto(Integer id) {
+        Optional<ProductoPublicoDTO> productoOpt = productoRepository.findPublicoById(id);
+        if (productoOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        ProductoPublicoDTO producto = productoOpt.get();
+
+        ProductoDetalleDTO dto = new ProductoDetalleDTO();
         dto.setId(producto.getId());
         dto.setNombre(producto.getNombre());
         dto.setDescripcion(producto.getDescripcion());
         dto.setPrecio(producto.getPrecio());
         dto.setImagenUrl(producto.getImagenUrl());
-        dto.setClasificacion(producto.getClasificacion() != null ? 
-            producto.getClasificacion().name() : "SIN_CATEGORIA"); // 🍔 CONVERTIR ENUM A STRING PARA FILTRADO
-        
-        ProductoPublicoDTO.TiendaSimpleDTO tiendaDTO = new ProductoPublicoDTO.TiendaSimpleDTO();
-        tiendaDTO.setId(producto.getTienda().getId());
-        tiendaDTO.setNombre(producto.getTienda().getNombre());
-        dto.setTienda(tiendaDTO);
-        
+        dto.setTienda(producto.getTienda());
+
+        // Agrupar las filas (ordenadas por categoría) en categorías con sus opciones
+        Map<Integer, CategoriaOpcionDTO> categorias = new LinkedHashMap<>();
+        for (ProductoRepository.FilaOpcionProducto fila : productoRepository.findOpcionesDeProducto(id)) {
+            CategoriaOpcionDTO catDTO = categorias.computeIfAbsent(fila.getCategoriaId(), catId -> {
+                CategoriaOpcionDTO nueva = new CategoriaOpcionDTO();
+                nueva.setId(catId);
+                nueva.setNombre(fila.getCategoriaNombre());
+                nueva.setOpciones(new ArrayList<>());
+                return nueva;
+            });
+            if (fila.getOpcionId() != null) {
+                OpcionDTO opDTO = new OpcionDTO();
+                opDTO.setId(fila.getOpcionId());
+                opDTO.setNombre(fila.getOpcionNombre());
+                opDTO.setPrecioAdicional(fila.getPrecioAdicional());
+                catDTO.getOpciones().add(opDTO);
+            }
+        }
+        dto.setCategoriasDeOpciones(new ArrayList<>(categorias.values()));
+
+        return Optional.of(dto);
+    }
+
+    private TiendaPublicaDTO convertirATiendaPublicaDTO(Tienda tienda) {
+        TiendaPublicaDTO dto = new TiendaPublicaDTO();
+        dto.setId(tienda.getId());
+        dto.setNombre(tienda.getNombre());
+        dto.setDescripcion(tienda.getDescripcion());
+        dto.setLogoUrl(tienda.getLogoUrl());
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.remington.unieats.marketplace.service;
+
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+
+/**
+ * Evento publicado al guardar un pedido nuevo. Se escucha después del commit
+ * para avisar a los canales en vivo de estudiantes y vendedores.
+ */
+public class PedidoCreadoEvent {
+
+    private final Integer pedidoId;
+    private final Integer tiendaId;
+    private final String correoComprador;
+    private final EstadoPedido estado;
+
+    public PedidoCreadoEvent(Integer pedidoId, Integer tiendaId, String correoComprador, EstadoPedido estado) {
+        this.pedidoId = pedidoId;
+        this.tiendaId = tiendaId;
+        this.correoComprador = correoComprador;
+        this.estado = estado;
+    }
+
+    public Integer getPedidoId() { return pedidoId; }
+    public Integer getTiendaId() { return tiendaId; }
+    public String getCorreoComprador() { return correoComprador; }
+    public EstadoPedido getEstado() { return estado; }
+}
@@ -0,0 +1,21 @@
+package com.remington.unieats.marketplace.service;
+
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+
+/**
+ * Evento publicado cuando un pedido cambia de estado. Solo lleva el id y el estado
+ * nuevo porque el cambio se hace con un UPDATE, sin cargar el pedido.
+ */
+public class PedidoEstadoCambiadoEvent {
+
+    private final Integer pedidoId;
+    private final EstadoPedido estado;
+
+    public PedidoEstadoCambiadoEvent(Integer pedidoId, EstadoPedido estado) {
+        this.pedidoId = pedidoId;
+        this.estado = estado;
+    }
+
+    public Integer getPedidoId() { return pedidoId; }
+    public EstadoPedido getEstado() { return estado; }
+}
@@ -1,7 +1,9 @@
 package com.remington.unieats.marketplace.service;
 
+import com.remington.unieats.marketplace.dto.PaginaDTO;
 import com.remington.unieats.marketplace.dto.PedidoCompradorDTO;
 import com.remington.unieats.marketplace.dto.PedidoDTO;
+import com.remington.unieats.marketplace.dto.ResultadoCambioEstadoDTO;
 import com.remington.unieats.marketplace.model.entity.Pedido;
 import com.remington.unieats.marketplace.model.entity.Usuario;
 import java.util.List;
@@ -12,8 +14,15 @@ public interface PedidoService {
     Pedido crearPedido(PedidoDTO pedidoDTO, Usuario comprador);
     
     List<PedidoCompradorDTO> getMisPedidos(Usuario comprador);
+
+    // Primera página (sin cursor): todos los activos y los finalizados más recientes; luego solo finalizados
+    PaginaDTO<PedidoCompradorDTO> getMisPedidos(String correoComprador, String cursor, Integer limite);
     
-    Pedido actualizarEstadoPedido(Integer pedidoId, EstadoPedido nuevoEstado);
+    // Lanza TransicionEstadoInvalidaException si el estado actual no permite el cambio
+    void actualizarEstadoPedido(Integer pedidoId, EstadoPedido nuevoEstado);
+
+    // Cambia de una vez todos los pedidos de la tienda que lo permitan; informa el resultado de cada id
+    List<ResultadoCambioEstadoDTO> actualizarEstadoPedidos(Integer tiendaId, List<Integer> pedidoIds, EstadoPedido nuevoEstado);
 
 
 }
\ No newline at end of file
@@ -1,18 +1,28 @@
 package com.remington.unieats.marketplace.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.remington.unieats.marketplace.dto.PaginaDTO;
 import com.remington.unieats.marketplace.dto.PedidoCompradorDTO;
 import com.remington.unieats.marketplace.dto.PedidoDTO;
+import com.remington.unieats.marketplace.dto.ResultadoCambioEstadoDTO;
 import com.remington.unieats.marketplace.model.entity.DetallePedido;
 import com.remington.unieats.marketplace.model.entity.Opcion;
 import com.remington.unieats.marketplace.model.entity.Pedido;
@@ -20,6 +30,7 @@ import com.remington.unieats.marketplace.model.entity.Producto;
 import com.remington.unieats.marketplace.model.entity.Tienda;
 import com.remington.unieats.marketplace.model.entity.Usuario;
 import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+import com.remington.unieats.marketplace.model.repository.DetallePedidoRepository;
 import com.remington.unieats.marketplace.model.repository.OpcionRepository;
 import com.remington.unieats.marketplace.model.repository.PedidoRepository;
 import com.remington.unieats.marketplace.model.repository.ProductoRepository;
@@ -28,10 +39,17 @@ import com.remington.unieats.marketplace.model.repository.TiendaRepository;
 @Service
 public class PedidoServiceImpl implements PedidoService {
 
+    private static final int LIMITE_HISTORIAL_POR_DEFECTO = 10;
+    private static final int LIMITE_HISTORIAL_MAXIMO = 50;
+    // Tope de ids en el IN de la consulta de líneas
+    private static final int PEDIDOS_POR_CONSULTA = 500;
+
     @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private DetallePedidoRepository detallePedidoRepository;
     @Autowired private ProductoRepository productoRepository;
     @Autowired private TiendaRepository tiendaRepository;
     @Autowired private OpcionRepository opcionRepository; // <-- Asegúrate de tenerlo
+    @Autowired private ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -49,21 +67,49 @@ public class PedidoServiceImpl implements PedidoService {
         nuevoPedido.setNotasGenerales(pedidoDTO.getNotasGenerales());
         nuevoPedido.setNotasDomicilio(pedidoDTO.getNotasDomicilio());
 
+        if (pedidoDTO.getItems() == null || pedidoDTO.getItems().isEmpty()) {
+            throw new RuntimeException("El pedido no tiene productos");
+        }
+
+        // Todos los productos y opciones del carrito se cargan con una consulta cada uno,
+        // sin importar cuántas líneas tenga; luego cada línea se resuelve desde memoria
+        Set<Integer> productoIds = new HashSet<>();
+        Set<Integer> opcionIds = new HashSet<>();
+        for (PedidoDTO.ItemPedidoDTO itemDTO : pedidoDTO.getItems()) {
+            productoIds.add(itemDTO.getId());
+            if (itemDTO.getOpcionesIds() != null) {
+                opcionIds.addAll(itemDTO.getOpcionesIds());
+            }
+        }
+        Map<Integer, Producto> productos = productoRepository.findAllById(productoIds).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        Map<Integer, Opcion> opciones = opcionIds.isEmpty() ? Map.of()
+                : opcionRepository.findAllById(opcionIds).stream()
+                        .collect(Collectors.toMap(Opcion::getId, Function.identity()));
+
         List<DetallePedido> detalles = new ArrayList<>();
+        List<LineasPedido.Linea> lineas = new ArrayList<>();
         BigDecimal totalPedido = BigDecimal.ZERO;
 
         for (PedidoDTO.ItemPedidoDTO itemDTO : pedidoDTO.getItems()) {
-            Producto producto = productoRepository.findById(itemDTO.getId())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + itemDTO.getId()));
+            Producto producto = productos.get(itemDTO.getId());
+            if (producto == null) {
+                throw new RuntimeException("Producto no encontrado: " + itemDTO.getId());
+            }
+            // getTienda() es un proxy LAZY: leer su id no dispara otra consulta
+            if (!tienda.getId().equals(producto.getTienda().getId())) {
+                throw new RuntimeException("El producto " + itemDTO.getId() + " no pertenece a la tienda del pedido");
+            }
 
             // --- LÓGICA DE CÁLCULO DE PRECIO ACTUALIZADA ---
             BigDecimal precioDeOpciones = BigDecimal.ZERO;
             Set<Opcion> opcionesSeleccionadas = new HashSet<>();
-            if (itemDTO.getOpcionesIds() != null && !itemDTO.getOpcionesIds().isEmpty()) {
-                List<Opcion> opciones = opcionRepository.findAllById(itemDTO.getOpcionesIds());
-                opcionesSeleccionadas.addAll(opciones);
-                for (Opcion opcion : opciones) {
-                    precioDeOpciones = precioDeOpciones.add(opcion.getPrecioAdicional());
+            if (itemDTO.getOpcionesIds() != null) {
+                for (Integer opcionId : itemDTO.getOpcionesIds()) {
+                    Opcion opcion = opciones.get(opcionId);
+                    if (opcion != null && opcionesSeleccionadas.add(opcion)) {
+                        precioDeOpciones = precioDeOpciones.add(opcion.getPrecioAdicional());
+                    }
                 }
             }
             
@@ -79,57 +125,190 @@ public class PedidoServiceImpl implements PedidoService {
             detalle.setOpcionesSeleccionadas(opcionesSeleccionadas); // Guardamos las opciones
             detalle.setPedido(nuevoPedido);
             detalles.add(detalle);
+
+            // Opciones por id, el mismo orden en que las listan las consultas de detalles
+            List<String> nombresOpciones = opcionesSeleccionadas.stream()
+                    .sorted(Comparator.comparing(Opcion::getId))
+                    .map(Opcion::getNombre)
+                    .toList();
+            lineas.add(new LineasPedido.Linea(producto.getNombre(), itemDTO.getCantidad(), precioUnitarioFinal, nombresOpciones));
         }
 
         nuevoPedido.setDetalles(detalles);
         nuevoPedido.setTotal(totalPedido); // Guardamos el total correcto
+        nuevoPedido.setResumenLineas(LineasPedido.escribir(lineas));
 
-        return pedidoRepository.save(nuevoPedido);
+        Pedido guardado = pedidoRepository.save(nuevoPedido);
+        eventPublisher.publishEvent(new PedidoCreadoEvent(guardado.getId(), tienda.getId(),
+                comprador.getCorreo(), guardado.getEstado()));
+        return guardado;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<PedidoCompradorDTO> getMisPedidos(Usuario comprador) {
-        return pedidoRepository.findByCompradorOrderByFechaCreacionDesc(comprador)
-            .stream()
-            .map(this::convertirAPedidoCompradorDTO)
-            .collect(Collectors.toList());
+        return armarPedidosComprador(pedidoRepository.findFilasComprador(comprador));
     }
 
-    private PedidoCompradorDTO convertirAPedidoCompradorDTO(Pedido pedido) {
-        PedidoCompradorDTO dto = new PedidoCompradorDTO();
-        dto.setId(pedido.getId());
-        dto.setFechaCreacion(pedido.getFechaCreacion());
-        dto.setEstado(pedido.getEstado().name());
-        dto.setTotal(pedido.getTotal());
-        dto.setNombreTienda(pedido.getTienda().getNombre());
-
-        List<String> items = pedido.getDetalles().stream()
-            .map(detalle -> {
-                String itemBase = detalle.getCantidad() + "x " + detalle.getProducto().getNombre();
-                String opciones = detalle.getOpcionesSeleccionadas().stream()
-                    .map(opcion -> "+ " + opcion.getNombre())
-                    .collect(Collectors.joining(", "));
-                return opciones.isEmpty() ? itemBase : itemBase + " (" + opciones + ")";
-            })
-            .collect(Collectors.toList());
-        dto.setItems(items);
-
-        return dto;
+    /**
+     * Historial del estudiante por páginas. La primera trae los pedidos activos completos
+     * (los que el sondeo necesita) seguidos de los finalizados más recientes; las demás
+     * siguen por los finalizados con un cursor fecha_id. Cada página son a lo sumo tres
+     * consultas sobre el índice (comprador_id, estado, fecha_creacion), sin importar
+     * cuántos pedidos tenga el estudiante.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaDTO<PedidoCompradorDTO> getMisPedidos(String correoComprador, String cursor, Integer limite) {
+        int tamano = limite == null || limite <= 0 ? LIMITE_HISTORIAL_POR_DEFECTO : Math.min(limite, LIMITE_HISTORIAL_MAXIMO);
+        Set<EstadoPedido> finales = EstadoPedido.finales();
+        // Se pide uno de más para saber si hay otra página
+        Limit limiteConSiguiente = Limit.of(tamano + 1);
+
+        List<PedidoRepository.FilaPedidoComprador> filas = new ArrayList<>();
+        List<PedidoRepository.FilaPedidoComprador> finalizados;
+        if (cursor == null || cursor.isBlank()) {
+            filas.addAll(pedidoRepository.findFilasCompradorActivas(correoComprador, finales));
+            finalizados = pedidoRepository.findFilasCompradorFinales(correoComprador, finales, limiteConSiguiente);
+        } else {
+            int separador = cursor.lastIndexOf('_');
+            LocalDateTime fecha;
+            Integer id;
+            try {
+                fecha = LocalDateTime.parse(cursor.substring(0, separador));
+                id = Integer.valueOf(cursor.substring(separador + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+            finalizados = pedidoRepository.findFilasCompradorFinalesAntesDe(correoComprador, finales, fecha, id,
+                    limiteConSiguiente);
+        }
 
-        
+        String siguiente = null;
+        if (finalizados.size() > tamano) {
+            finalizados = finalizados.subList(0, tamano);
+            PedidoRepository.FilaPedidoComprador ultimo = finalizados.get(tamano - 1);
+            siguiente = ultimo.getFechaCreacion() + "_" + ultimo.getId();
+        }
+        filas.addAll(finalizados);
+        return new PaginaDTO<>(armarPedidosComprador(filas), siguiente);
+    }
+
+    // Las líneas salen del resumen guardado en el pedido; solo los pedidos anteriores a él
+    // necesitan la consulta de líneas (con sus opciones), una por bloque, en el orden de filas
+    private List<PedidoCompradorDTO> armarPedidosComprador(List<PedidoRepository.FilaPedidoComprador> filas) {
+        List<PedidoCompradorDTO> pedidos = new ArrayList<>(filas.size());
+        for (int desde = 0; desde < filas.size(); desde += PEDIDOS_POR_CONSULTA) {
+            List<PedidoRepository.FilaPedidoComprador> bloque =
+                    filas.subList(desde, Math.min(desde + PEDIDOS_POR_CONSULTA, filas.size()));
+            Map<Integer, PedidoCompradorDTO> sinResumen = new HashMap<>();
+            for (PedidoRepository.FilaPedidoComprador fila : bloque) {
+                PedidoCompradorDTO dto = new PedidoCompradorDTO();
+                dto.setId(fila.getId());
+                dto.setFechaCreacion(fila.getFechaCreacion());
+                dto.setEstado(fila.getEstado().name());
+                dto.setTotal(fila.getTotal());
+                dto.setNombreTienda(fila.getNombreTienda());
+                dto.setItems(new ArrayList<>());
+                if (fila.getResumenLineas() != null) {
+                    LineasPedido.leer(fila.getResumenLineas()).forEach(linea -> dto.getItems().add(LineasPedido.textoComprador(linea)));
+                } else {
+                    sinResumen.put(fila.getId(), dto);
+                }
+                pedidos.add(dto);
+            }
+            if (sinResumen.isEmpty()) {
+                continue;
+            }
+
+            // Las filas llegan ordenadas por detalle: las opciones de una línea son consecutivas
+            Integer detalleActual = null;
+            StringBuilder linea = null;
+            List<String> itemsActuales = null;
+            boolean conOpciones = false;
+            for (DetallePedidoRepository.FilaItemComprador fila : detallePedidoRepository.findItemsDePedidos(sinResumen.keySet())) {
+                if (!fila.getDetalleId().equals(detalleActual)) {
+                    cerrarLinea(itemsActuales, linea, conOpciones);
+                    detalleActual = fila.getDetalleId();
+                    itemsActuales = sinResumen.get(fila.getPedidoId()).getItems();
+                    linea = new StringBuilder().append(fila.getCantidad()).append("x ").append(fila.getNombreProducto());
+                    conOpciones = false;
+                }
+                if (fila.getOpcion() != null) {
+                    linea.append(conOpciones ? ", + " : " (+ ").append(fila.getOpcion());
+                    conOpciones = true;
+                }
+            }
+            cerrarLinea(itemsActuales, linea, conOpciones);
+        }
+        return pedidos;
+    }
+
+    private static void cerrarLinea(List<String> items, StringBuilder linea, boolean conOpciones) {
+        if (linea != null) {
+            items.add(conOpciones ? linea.append(")").toString() : linea.toString());
+        }
     }
 
     @Override
     @Transactional
-    public Pedido actualizarEstadoPedido(Integer pedidoId, EstadoPedido nuevoEstado) {
-        Pedido pedido = pedidoRepository.findById(pedidoId)
+    public void actualizarEstadoPedido(Integer pedidoId, EstadoPedido nuevoEstado) {
+        // Un solo UPDATE condicionado al estado actual: sin cargar el pedido y sin
+        // ventana entre leer y guardar en la que otro clic pueda colarse
+        Set<EstadoPedido> origenes = nuevoEstado.getOrigenesPermitidos();
+        if (!origenes.isEmpty() && pedidoRepository.cambiarEstadoSi(pedidoId, nuevoEstado, origenes, LocalDateTime.now()) == 1) {
+            eventPublisher.publishEvent(new PedidoEstadoCambiadoEvent(pedidoId, nuevoEstado));
+            return;
+        }
+
+        // Solo si no se actualizó: averiguar si el pedido no existe o si su estado no lo permite
+        EstadoPedido actual = pedidoRepository.findEstadoById(pedidoId)
             .orElseThrow(() -> new RuntimeException("Pedido no encontrado con ID: " + pedidoId));
+        throw new TransicionEstadoInvalidaException(pedidoId, actual, nuevoEstado);
+    }
 
-        // Aquí se podrían añadir validaciones de negocio en el futuro
-        // (ej. no se puede cancelar un pedido que ya está listo)
+    @Override
+    @Transactional
+    public List<ResultadoCambioEstadoDTO> actualizarEstadoPedidos(Integer tiendaId, List<Integer> pedidoIds,
+            EstadoPedido nuevoEstado) {
+        Set<Integer> ids = new LinkedHashSet<>(pedidoIds);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Se bloquean las filas de la tienda y se decide con su estado actual; los ids de
+        // otras tiendas no aparecen y se informan como no encontrados
+        Map<Integer, EstadoPedido> actuales = new HashMap<>();
+        for (PedidoRepository.EstadoDePedido fila : pedidoRepository.bloquearEstados(ids, tiendaId)) {
+            actuales.put(fila.getId(), fila.getEstado());
+        }
+        Set<Integer> aCambiar = new HashSet<>();
+        actuales.forEach((id, estado) -> {
+            if (estado.puedePasarA(nuevoEstado)) {
+                aCambiar.add(id);
+            }
+        });
 
-        pedido.setEstado(nuevoEstado);
-        return pedidoRepository.save(pedido);
+        if (!aCambiar.isEmpty()) {
+            int cambiados = pedidoRepository.cambiarEstadoEnLote(aCambiar, tiendaId, nuevoEstado,
+                    nuevoEstado.getOrigenesPermitidos(), LocalDateTime.now());
+            if (cambiados != aCambiar.size()) {
+                throw new IllegalStateException("Se esperaban " + aCambiar.size() + " pedidos actualizados y hubo " + cambiados);
+            }
+            aCambiar.forEach(id -> eventPublisher.publishEvent(new PedidoEstadoCambiadoEvent(id, nuevoEstado)));
+        }
+
+        List<ResultadoCambioEstadoDTO> resultados = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            EstadoPedido actual = actuales.get(id);
+            if (actual == null) {
+                resultados.add(new ResultadoCambioEstadoDTO(id, ResultadoCambioEstadoDTO.NO_ENCONTRADO, null));
+            } else if (aCambiar.contains(id)) {
+                resultados.add(new ResultadoCambioEstadoDTO(id, ResultadoCambioEstadoDTO.ACTUALIZADO, nuevoEstado));
+            } else {
+                resultados.add(new ResultadoCambioEstadoDTO(id, ResultadoCambioEstadoDTO.CONFLICTO, actual));
+            }
+        }
+        return resultados;
     }
-}
\ No newline at end of file
+}
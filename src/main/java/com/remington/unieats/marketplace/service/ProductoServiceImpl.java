@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -21,6 +22,9 @@ public class ProductoServiceImpl implements ProductoService {
     @Autowired
     private LocalImageService localImageService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public List<Producto> findByTienda(Tienda tienda) {
         return productoRepository.findByTienda(tienda);
@@ -49,7 +53,9 @@ public class ProductoServiceImpl implements ProductoService {
             // NUEVO: Asignar clasificación
             nuevoProducto.setClasificacion(productoDTO.getClasificacion());
 
-            return productoRepository.save(nuevoProducto);
+            Producto guardado = productoRepository.save(nuevoProducto);
+            eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(tienda.getId(), guardado.getId()));
+            return guardado;
         } catch (Exception e) {
             throw new RuntimeException("Error al crear producto: " + e.getMessage(), e);
         }
@@ -90,7 +96,9 @@ public class ProductoServiceImpl implements ProductoService {
             }
 
             // 4. Guardar los cambios
-            return productoRepository.save(producto);
+            Producto actualizado = productoRepository.save(producto);
+            eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(actualizado.getTienda().getId(), actualizado.getId()));
+            return actualizado;
         } catch (Exception e) {
             throw new RuntimeException("Error al actualizar producto: " + e.getMessage(), e);
         }
@@ -107,6 +115,7 @@ public class ProductoServiceImpl implements ProductoService {
         
         // 3. Guardar el cambio (soft delete)
         productoRepository.save(producto);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(producto.getTienda().getId(), producto.getId()));
         
         // Nota: No eliminamos la imagen ni el registro, solo lo marcamos como no disponible
         // Esto evita problemas con claves foráneas y preserva el historial de pedidos
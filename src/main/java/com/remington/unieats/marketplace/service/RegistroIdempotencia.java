@@ -0,0 +1,318 @@
+package com.remington.unieats.marketplace.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remington.unieats.marketplace.model.entity.ClaveIdempotencia;
+import com.remington.unieats.marketplace.model.repository.ClaveIdempotenciaRepository;
+
+/**
+ * Registro de claves Idempotency-Key para las operaciones que crean pedidos.
+ *
+ * La primera solicitud con una clave ejecuta la operación; las repeticiones reciben
+ * la misma respuesta, con sus cabeceras (Location, Retry-After), sin volver a tocar
+ * la base de datos. Las que llegan mientras la primera sigue en curso reciben 409 con
+ * Retry-After en lugar de crear un segundo pedido o de ocupar un hilo esperándola.
+ * Las claves se separan por usuario y se recuerdan junto con una huella del cuerpo:
+ * reutilizar una clave con otro carrito responde 422.
+ *
+ * Vive en memoria, acotado a {@code app.pedidos.idempotencia.max-claves} y con
+ * vencimiento de {@code app.pedidos.idempotencia.ttl-minutos}. Con
+ * {@code app.pedidos.idempotencia.persistente=true} las respuestas exitosas también
+ * se guardan en la tabla claves_idempotencia, para sobrevivir a un reinicio.
+ * Solo se recuerdan las respuestas 2xx: si la operación falla, la clave se libera
+ * y el cliente puede reintentar con ella.
+ */
+@Component
+public class RegistroIdempotencia {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistroIdempotencia.class);
+
+    public static final String CABECERA = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+    public static final int LONGITUD_MAXIMA_CLAVE = 100;
+    static final int REINTENTAR_EN_SEGUNDOS = 1;
+
+    // Las gestiona ResponseEntity a partir del cuerpo; no se guardan con el resto
+    private static final List<String> CABECERAS_DEL_CUERPO = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LENGTH);
+    private static final TypeReference<LinkedHashMap<String, List<String>>> TIPO_CABECERAS = new TypeReference<>() {
+    };
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClaveIdempotenciaRepository claveIdempotenciaRepository;
+
+    @Value("${app.pedidos.idempotencia.ttl-minutos:60}")
+    private long ttlMinutos;
+
+    @Value("${app.pedidos.idempotencia.max-claves:10000}")
+    private int maxClaves;
+
+    @Value("${app.pedidos.idempotencia.persistente:false}")
+    private boolean persistente;
+
+    // Orden de inserción: la primera entrada es siempre la más antigua
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+    private final AtomicLong guardadas = new AtomicLong();
+
+    public ResponseEntity<?> ejecutar(String alcance, String clave, Object solicitud,
+            Supplier<ResponseEntity<?>> operacion) {
+        validarClave(clave);
+        String id = alcance + ":" + clave;
+        String huella = huella(solicitud);
+
+        Entrada entrada;
+        boolean propia = false;
+        synchronized (entradas) {
+            long ahora = System.currentTimeMillis();
+            purgarVencidas(ahora);
+            entrada = entradas.get(id);
+            if (entrada == null) {
+                entrada = new Entrada(huella, ahora);
+                entradas.put(id, entrada);
+                propia = true;
+                acotar();
+            }
+        }
+
+        if (!propia) {
+            return repetirOEnCurso(entrada, huella);
+        }
+
+        Optional<RespuestaGuardada> guardada = buscarPersistida(id);
+        if (guardada.isPresent()) {
+            if (!guardada.get().huella.equals(huella)) {
+                // La entrada en memoria debe quedar con la huella del pedido original, no con la de este
+                Entrada original = new Entrada(guardada.get().huella, entrada.creadaEn);
+                original.futuro.complete(guardada.get());
+                synchronized (entradas) {
+                    entradas.replace(id, entrada, original);
+                }
+                entrada.futuro.complete(guardada.get());
+                return claveReutilizada();
+            }
+            entrada.futuro.complete(guardada.get());
+            return guardada.get().repetir();
+        }
+
+        ResponseEntity<?> respuesta;
+        try {
+            respuesta = operacion.get();
+        } catch (RuntimeException e) {
+            olvidar(id, entrada);
+            entrada.futuro.completeExceptionally(e);
+            throw e;
+        }
+
+        RespuestaGuardada resultado = guardar(huella, respuesta);
+        entrada.futuro.complete(resultado);
+        if (!respuesta.getStatusCode().is2xxSuccessful()) {
+            olvidar(id, entrada);
+        } else if (persistente) {
+            persistir(id, resultado);
+        }
+        return respuesta;
+    }
+
+    // No se espera al primero: el cliente reintenta con la misma clave y recibe la respuesta guardada
+    private ResponseEntity<?> repetirOEnCurso(Entrada entrada, String huella) {
+        if (!entrada.huella.equals(huella)) {
+            return claveReutilizada();
+        }
+        if (entrada.futuro.isDone() && !entrada.futuro.isCompletedExceptionally()) {
+            return entrada.futuro.join().repetir();
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(REINTENTAR_EN_SEGUNDOS))
+                .body("El pedido con esta clave todavía se está procesando. Intenta de nuevo en unos segundos.");
+    }
+
+    private static ResponseEntity<?> claveReutilizada() {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body("La clave de idempotencia ya se usó con un pedido distinto.");
+    }
+
+    private static void validarClave(String clave) {
+        if (clave == null || clave.isBlank() || clave.length() > LONGITUD_MAXIMA_CLAVE
+                || !clave.chars().allMatch(c -> c > 0x20 && c < 0x7f)) {
+            throw new IllegalArgumentException("La cabecera " + CABECERA + " debe tener entre 1 y "
+                    + LONGITUD_MAXIMA_CLAVE + " caracteres visibles");
+        }
+    }
+
+    // --- Memoria ---
+
+    // Las entradas en curso nunca vencen: siguen protegiendo la clave hasta terminar
+    private void purgarVencidas(long ahora) {
+        long ttlMs = TimeUnit.MINUTES.toMillis(ttlMinutos);
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (it.hasNext()) {
+            Entrada entrada = it.next();
+            if (ahora - entrada.creadaEn <= ttlMs) {
+                break;
+            }
+            if (entrada.futuro.isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    private void acotar() {
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (entradas.size() > maxClaves && it.hasNext()) {
+            if (it.next().futuro.isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    private void olvidar(String id, Entrada entrada) {
+        synchronized (entradas) {
+            entradas.remove(id, entrada);
+        }
+    }
+
+    // --- Tabla opcional ---
+
+    private Optional<RespuestaGuardada> buscarPersistida(String id) {
+        if (!persistente) {
+            return Optional.empty();
+        }
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(ttlMinutos);
+        return claveIdempotenciaRepository.findById(id)
+                .filter(fila -> fila.getCreadaEn().isAfter(limite))
+                .map(fila -> new RespuestaGuardada(fila.getHuella(), fila.getCodigo(),
+                        leerCabeceras(fila.getCabeceras()), fila.getTipoContenido(), fila.getCuerpo()));
+    }
+
+    // Un fallo al guardar no deshace el pedido: la clave sigue protegida en memoria
+    private void persistir(String id, RespuestaGuardada resultado) {
+        try {
+            ClaveIdempotencia fila = new ClaveIdempotencia();
+            fila.setId(id);
+            fila.setHuella(resultado.huella);
+            fila.setCodigo(resultado.codigo);
+            fila.setCabeceras(resultado.cabeceras.isEmpty() ? null : objectMapper.writeValueAsString(resultado.cabeceras));
+            fila.setTipoContenido(resultado.tipoContenido);
+            fila.setCuerpo(resultado.cuerpo);
+            claveIdempotenciaRepository.save(fila);
+            if (guardadas.incrementAndGet() % 100 == 0) {
+                claveIdempotenciaRepository.deleteByCreadaEnBefore(LocalDateTime.now().minusMinutes(ttlMinutos));
+            }
+        } catch (RuntimeException | JsonProcessingException e) {
+            logger.warn("No se pudo guardar la clave de idempotencia {}: {}", id, e.getMessage());
+        }
+    }
+
+    // --- Respuestas ---
+
+    private Map<String, List<String>> leerCabeceras(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, TIPO_CABECERAS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudieron leer las cabeceras guardadas", e);
+        }
+    }
+
+    private RespuestaGuardada guardar(String huella, ResponseEntity<?> respuesta) {
+        int codigo = respuesta.getStatusCode().value();
+        Map<String, List<String>> cabeceras = new LinkedHashMap<>();
+        respuesta.getHeaders().forEach((nombre, valores) -> {
+            if (CABECERAS_DEL_CUERPO.stream().noneMatch(nombre::equalsIgnoreCase)) {
+                cabeceras.put(nombre, List.copyOf(valores));
+            }
+        });
+        Object cuerpo = respuesta.getBody();
+        if (cuerpo == null) {
+            return new RespuestaGuardada(huella, codigo, cabeceras, null, null);
+        }
+        if (cuerpo instanceof String texto) {
+            return new RespuestaGuardada(huella, codigo, cabeceras, MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8", texto);
+        }
+        try {
+            return new RespuestaGuardada(huella, codigo, cabeceras, MediaType.APPLICATION_JSON_VALUE,
+                    objectMapper.writeValueAsString(cuerpo));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar la respuesta idempotente", e);
+        }
+    }
+
+    private String huella(Object solicitud) {
+        try {
+            byte[] json = solicitud instanceof String texto ? texto.getBytes(StandardCharsets.UTF_8)
+                    : objectMapper.writeValueAsBytes(solicitud);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la solicitud", e);
+        }
+    }
+
+    private static final class Entrada {
+        private final String huella;
+        private final long creadaEn;
+        private final CompletableFuture<RespuestaGuardada> futuro = new CompletableFuture<>();
+
+        private Entrada(String huella, long creadaEn) {
+            this.huella = huella;
+            this.creadaEn = creadaEn;
+        }
+    }
+
+    private static final class RespuestaGuardada {
+        private final String huella;
+        private final int codigo;
+        private final Map<String, List<String>> cabeceras;
+        private final String tipoContenido;
+        private final String cuerpo;
+
+        private RespuestaGuardada(String huella, int codigo, Map<String, List<String>> cabeceras,
+                String tipoContenido, String cuerpo) {
+            this.huella = huella;
+            this.codigo = codigo;
+            this.cabeceras = cabeceras;
+            this.tipoContenido = tipoContenido;
+            this.cuerpo = cuerpo;
+        }
+
+        private ResponseEntity<?> repetir() {
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(codigo)
+                    .headers(h -> cabeceras.forEach(h::addAll))
+                    .header(CABECERA_REPETIDA, "true");
+            if (tipoContenido != null) {
+                respuesta.contentType(MediaType.parseMediaType(tipoContenido));
+            }
+            return respuesta.body(cuerpo);
+        }
+    }
+}
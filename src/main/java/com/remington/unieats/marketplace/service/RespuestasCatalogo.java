@@ -0,0 +1,42 @@
+package com.remington.unieats.marketplace.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Respuestas completas de /tiendas y /productos ya serializadas (plano y gzip).
+ *
+ * Se guardan en {@link CatalogoCache}, así que se invalidan con el resto del catálogo;
+ * mientras tanto cada petición solo copia bytes, sin pasar por Jackson ni por el compresor.
+ */
+@Component
+public class RespuestasCatalogo {
+
+    @Autowired
+    private MarketplaceService marketplaceService;
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public CuerpoPrecomprimido getTiendasActivas() {
+        return catalogoCache.obtener("tiendas:activas:cuerpo", () -> serializar(marketplaceService.getTiendasActivas()));
+    }
+
+    public CuerpoPrecomprimido getProductosPopulares() {
+        return catalogoCache.obtener("productos:populares:cuerpo", () -> serializar(marketplaceService.getProductosPopulares()));
+    }
+
+    private CuerpoPrecomprimido serializar(Object valor) {
+        try {
+            return CuerpoPrecomprimido.de(objectMapper.writeValueAsBytes(valor));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta del catálogo", e);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.remington.unieats.marketplace.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.remington.unieats.marketplace.dto.PedidoVendedorDTO;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+import com.remington.unieats.marketplace.model.repository.TiendaRepository;
+
+/**
+ * Tablero de cocina en memoria: los pedidos activos (PENDIENTE, EN_PREPARACION,
+ * LISTO_PARA_RECOGER) de cada tienda, listos para servir al panel del vendedor sin
+ * consultar la base.
+ *
+ * Se carga una vez al terminar de crear los beans, antes de que el servidor acepte
+ * conexiones, y después se mantiene con los eventos de pedido que llegan tras el commit:
+ * un pedido nuevo se lee una vez de la base y entra al tablero, un cambio de estado lo
+ * actualiza en memoria y COMPLETADO o CANCELADO lo sacan. Cada tienda tiene su propio
+ * candado para los escritores, que nunca se toma mientras se consulta la base; los
+ * lectores toman la lista publicada, que es inmutable, sin bloquearse. Si la carga
+ * falla, {@link #getPedidos} responde vacío (el panel se atiende desde la base) y la
+ * vuelve a intentar, a lo sumo una vez cada {@link #REINTENTO_CARGA_MS} ms.
+ *
+ * Vale para una sola instancia de la aplicación, como los canales SSE de pedidos.
+ */
+@Component
+public class TableroCocina implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableroCocina.class);
+
+    // Mismo orden que el listado del panel: más recientes primero
+    private static final Comparator<PedidoVendedorDTO> ORDEN = Comparator
+            .comparing(PedidoVendedorDTO::getFechaCreacion, Comparator.reverseOrder())
+            .thenComparing(PedidoVendedorDTO::getId, Comparator.reverseOrder());
+
+    static final long REINTENTO_CARGA_MS = 30_000;
+
+    @Autowired
+    private VendedorService vendedorService;
+
+    @Autowired
+    private TiendaRepository tiendaRepository;
+
+    private final ConcurrentHashMap<Integer, Tablero> tableros = new ConcurrentHashMap<>();
+    // Tienda de cada pedido del tablero, porque el cambio de estado solo trae el id del pedido
+    private final ConcurrentHashMap<Integer, Integer> tiendaDePedido = new ConcurrentHashMap<>();
+    // Tienda de cada vendedor, para resolver el endpoint sin leer el usuario
+    private final ConcurrentHashMap<String, Integer> tiendaDeVendedor = new ConcurrentHashMap<>();
+    // Último estado de los pedidos que cambiaron mientras su alta leía la base
+    private final ConcurrentHashMap<Integer, EstadoPedido> cambiosDuranteAlta = new ConcurrentHashMap<>();
+
+    // Los eventos que llegan mientras una carga está en curso se anotan aquí (pedido -> tienda,
+    // o null si el evento no la trae) y se vuelven a leer al terminarla. Protegido por el candado carga
+    private final Object carga = new Object();
+    private final Map<Integer, Integer> eventosDuranteCarga = new HashMap<>();
+    private final AtomicBoolean cargando = new AtomicBoolean();
+    private volatile long ultimoIntento;
+    private volatile boolean cargado = false;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        cargar();
+    }
+
+    void cargar() {
+        if (!cargando.compareAndSet(false, true)) {
+            return;
+        }
+        ultimoIntento = System.currentTimeMillis();
+        try {
+            synchronized (carga) {
+                // Lo que se confirmó antes de empezar ya lo trae la lectura
+                eventosDuranteCarga.clear();
+            }
+            tiendaRepository.findTiendasDeVendedores()
+                    .forEach(fila -> tiendaDeVendedor.put(fila.getCorreo(), fila.getId()));
+            int total = 0;
+            for (Map.Entry<Integer, List<PedidoVendedorDTO>> entrada : vendedorService.getPedidosActivosPorTienda().entrySet()) {
+                Tablero tablero = tableroDe(entrada.getKey());
+                synchronized (tablero) {
+                    for (PedidoVendedorDTO pedido : entrada.getValue()) {
+                        tiendaDePedido.put(pedido.getId(), entrada.getKey());
+                    }
+                    tablero.publicar(entrada.getValue());
+                }
+                total += entrada.getValue().size();
+            }
+            synchronized (carga) {
+                eventosDuranteCarga.forEach(this::releer);
+                eventosDuranteCarga.clear();
+                cargado = true;
+            }
+            logger.info("Tablero de cocina cargado: {} pedidos activos en {} tiendas", total, tableros.size());
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo cargar el tablero de cocina; el panel se atenderá desde la base: {}", e.getMessage());
+        } finally {
+            cargando.set(false);
+        }
+    }
+
+    /** Pedidos activos de la tienda, más recientes primero; vacío si el tablero no se cargó. */
+    public Optional<List<PedidoVendedorDTO>> getPedidos(Integer tiendaId) {
+        if (!cargado && System.currentTimeMillis() - ultimoIntento >= REINTENTO_CARGA_MS) {
+            cargar();
+        }
+        if (!cargado) {
+            return Optional.empty();
+        }
+        Tablero tablero = tableros.get(tiendaId);
+        return Optional.of(tablero == null ? List.of() : tablero.pedidos);
+    }
+
+    /** Id de la tienda del vendedor; solo consulta la base la primera vez para tiendas nuevas. */
+    public Optional<Integer> getTiendaDeVendedor(String correo) {
+        Integer tiendaId = tiendaDeVendedor.get(correo);
+        if (tiendaId != null) {
+            return Optional.of(tiendaId);
+        }
+        Optional<Integer> encontrada = tiendaRepository.findIdByCorreoVendedor(correo);
+        encontrada.ifPresent(id -> tiendaDeVendedor.put(correo, id));
+        return encontrada;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPedidoCreado(PedidoCreadoEvent event) {
+        Integer pedidoId = event.getPedidoId();
+        if (event.getEstado().esFinal() || anotarSinCargar(pedidoId, event.getTiendaId())) {
+            return;
+        }
+        // El índice va antes de la lectura: un cambio de estado que llegue mientras se lee
+        // el pedido queda anotado en cambiosDuranteAlta, o lo saca del índice si es final
+        tiendaDePedido.put(pedidoId, event.getTiendaId());
+        Optional<PedidoVendedorDTO> leido = Optional.empty();
+        try {
+            // Se lee con el estado de ahora, que puede ser más nuevo que el del evento
+            leido = vendedorService.getPedidoVendedor(pedidoId);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo agregar el pedido {} al tablero de cocina: {}", pedidoId, e.getMessage());
+        }
+        Tablero tablero = tableroDe(event.getTiendaId());
+        synchronized (tablero) {
+            EstadoPedido posterior = cambiosDuranteAlta.remove(pedidoId);
+            Optional<PedidoVendedorDTO> pedido = leido
+                    .map(p -> posterior == null ? p : conEstado(p, posterior))
+                    .filter(TableroCocina::activo);
+            if (pedido.isPresent() && tiendaDePedido.containsKey(pedidoId)) {
+                tablero.poner(pedido.get());
+            } else {
+                tiendaDePedido.remove(pedidoId);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPedidoEstadoCambiado(PedidoEstadoCambiadoEvent event) {
+        if (anotarSinCargar(event.getPedidoId(), null)) {
+            return;
+        }
+        Integer tiendaId = tiendaDePedido.get(event.getPedidoId());
+        if (tiendaId == null) {
+            // No estaba activo, o su alta todavía no empezó y lo leerá con este estado
+            return;
+        }
+        Tablero tablero = tableroDe(tiendaId);
+        synchronized (tablero) {
+            if (event.getEstado().esFinal()) {
+                tablero.quitar(event.getPedidoId());
+                tiendaDePedido.remove(event.getPedidoId());
+                cambiosDuranteAlta.remove(event.getPedidoId());
+            } else if (!tablero.cambiarEstado(event.getPedidoId(), event.getEstado())) {
+                // Su alta sigue leyendo la base
+                cambiosDuranteAlta.put(event.getPedidoId(), event.getEstado());
+            }
+        }
+    }
+
+    // Sin tablero cargado el evento no se aplica; si hay una carga en curso se anota para releerlo al final
+    private boolean anotarSinCargar(Integer pedidoId, Integer tiendaId) {
+        if (cargado) {
+            return false;
+        }
+        synchronized (carga) {
+            if (cargado) {
+                return false;
+            }
+            if (cargando.get() && (tiendaId != null || !eventosDuranteCarga.containsKey(pedidoId))) {
+                eventosDuranteCarga.put(pedidoId, tiendaId);
+            }
+            return true;
+        }
+    }
+
+    // Solo durante la carga, con el candado carga tomado: ningún evento toca el tablero a la vez
+    private void releer(Integer pedidoId, Integer tiendaId) {
+        Integer tienda = tiendaId != null ? tiendaId : tiendaDePedido.get(pedidoId);
+        if (tienda == null) {
+            // Un cambio de estado de un pedido que no estaba activo al cargar
+            return;
+        }
+        Optional<PedidoVendedorDTO> pedido = vendedorService.getPedidoVendedor(pedidoId).filter(TableroCocina::activo);
+        Tablero tablero = tableroDe(tienda);
+        synchronized (tablero) {
+            if (pedido.isPresent()) {
+                tiendaDePedido.put(pedidoId, tienda);
+                tablero.poner(pedido.get());
+            } else {
+                tablero.quitar(pedidoId);
+                tiendaDePedido.remove(pedidoId);
+            }
+        }
+    }
+
+    private static boolean activo(PedidoVendedorDTO pedido) {
+        return !EstadoPedido.valueOf(pedido.getEstado()).esFinal();
+    }
+
+    int getPedidosEnTablero() {
+        return tiendaDePedido.size();
+    }
+
+    private Tablero tableroDe(Integer tiendaId) {
+        return tableros.computeIfAbsent(tiendaId, id -> new Tablero());
+    }
+
+    /**
+     * Pedidos activos de una tienda. Los escritores trabajan con el candado del tablero y
+     * publican una lista nueva; los DTO publicados no se modifican (un cambio de estado
+     * reemplaza el pedido por una copia).
+     */
+    private static final class Tablero {
+
+        private volatile List<PedidoVendedorDTO> pedidos = List.of();
+
+        void publicar(List<PedidoVendedorDTO> nuevos) {
+            List<PedidoVendedorDTO> ordenados = new ArrayList<>(nuevos);
+            ordenados.sort(ORDEN);
+            pedidos = List.copyOf(ordenados);
+        }
+
+        void poner(PedidoVendedorDTO pedido) {
+            List<PedidoVendedorDTO> nuevos = new ArrayList<>(pedidos);
+            nuevos.removeIf(p -> p.getId().equals(pedido.getId()));
+            nuevos.add(pedido);
+            publicar(nuevos);
+        }
+
+        void quitar(Integer pedidoId) {
+            List<PedidoVendedorDTO> nuevos = new ArrayList<>(pedidos);
+            if (nuevos.removeIf(p -> p.getId().equals(pedidoId))) {
+                pedidos = List.copyOf(nuevos);
+            }
+        }
+
+        boolean cambiarEstado(Integer pedidoId, EstadoPedido estado) {
+            for (PedidoVendedorDTO pedido : pedidos) {
+                if (pedido.getId().equals(pedidoId)) {
+                    poner(conEstado(pedido, estado));
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static PedidoVendedorDTO conEstado(PedidoVendedorDTO original, EstadoPedido estado) {
+        PedidoVendedorDTO copia = new PedidoVendedorDTO();
+        copia.setId(original.getId());
+        copia.setFechaCreacion(original.getFechaCreacion());
+        copia.setEstado(estado.name());
+        copia.setTotal(original.getTotal());
+        copia.setNombreComprador(original.getNombreComprador());
+        copia.setDetalles(original.getDetalles());
+        copia.setTipoEntrega(original.getTipoEntrega());
+        copia.setTipoPago(original.getTipoPago());
+        copia.setNotasGenerales(original.getNotasGenerales());
+        copia.setNotasDomicilio(original.getNotasDomicilio());
+        return copia;
+    }
+}
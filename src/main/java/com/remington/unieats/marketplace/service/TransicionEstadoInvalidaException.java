@@ -0,0 +1,33 @@
+package com.remington.unieats.marketplace.service;
+
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+
+/**
+ * El pedido no estaba en un estado desde el que se pueda pasar al solicitado:
+ * la transición no existe o alguien lo cambió antes (doble clic, otro dispositivo).
+ */
+public class TransicionEstadoInvalidaException extends RuntimeException {
+
+    private final Integer pedidoId;
+    private final EstadoPedido estadoActual;
+    private final EstadoPedido estadoSolicitado;
+
+    public TransicionEstadoInvalidaException(Integer pedidoId, EstadoPedido estadoActual, EstadoPedido estadoSolicitado) {
+        super("El pedido #" + pedidoId + " está " + estadoActual + " y no puede pasar a " + estadoSolicitado);
+        this.pedidoId = pedidoId;
+        this.estadoActual = estadoActual;
+        this.estadoSolicitado = estadoSolicitado;
+    }
+
+    public Integer getPedidoId() {
+        return pedidoId;
+    }
+
+    public EstadoPedido getEstadoActual() {
+        return estadoActual;
+    }
+
+    public EstadoPedido getEstadoSolicitado() {
+        return estadoSolicitado;
+    }
+}
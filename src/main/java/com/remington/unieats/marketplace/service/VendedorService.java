@@ -1,19 +1,26 @@
 package com.remington.unieats.marketplace.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import com.remington.unieats.marketplace.dto.CambiosPedidosDTO;
 import com.remington.unieats.marketplace.dto.CategoriaOpcionCreacionDTO;
 import com.remington.unieats.marketplace.dto.HorarioUpdateDTO;
+import com.remington.unieats.marketplace.dto.PaginaPedidosDTO;
 import com.remington.unieats.marketplace.dto.PedidoVendedorDTO;
+import com.remington.unieats.marketplace.dto.ResumenPedidosDTO;
 import com.remington.unieats.marketplace.dto.TiendaCreacionDTO;
 import com.remington.unieats.marketplace.dto.TiendaUpdateDTO;
 import com.remington.unieats.marketplace.model.entity.CategoriaOpcion;
 import com.remington.unieats.marketplace.model.entity.Horario;
 import com.remington.unieats.marketplace.model.entity.Tienda;
 import com.remington.unieats.marketplace.model.entity.Usuario;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
 
 public interface VendedorService {
 
@@ -29,6 +36,19 @@ public interface VendedorService {
 
     List<PedidoVendedorDTO> getPedidosDeLaTienda(Tienda tienda);
 
+    Optional<PedidoVendedorDTO> getPedidoDeLaTienda(Tienda tienda, Integer pedidoId);
+
+    CambiosPedidosDTO getPedidosDeLaTiendaDesde(Tienda tienda, LocalDateTime desde);
+
+    PaginaPedidosDTO getPaginaPedidosDeLaTienda(Tienda tienda, Set<EstadoPedido> estados, String cursor, int limite);
+
+    ResumenPedidosDTO getResumenPedidos(Tienda tienda);
+
+    // Carga del tablero de cocina: pedidos activos agrupados por id de tienda, y un pedido suelto
+    Map<Integer, List<PedidoVendedorDTO>> getPedidosActivosPorTienda();
+
+    Optional<PedidoVendedorDTO> getPedidoVendedor(Integer pedidoId);
+
     List<CategoriaOpcion> getCategoriasDeOpciones(Tienda tienda);
     
     CategoriaOpcion crearCategoriaConOpciones(CategoriaOpcionCreacionDTO dto, Tienda tienda);
@@ -4,24 +4,32 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.remington.unieats.marketplace.dto.CambiosPedidosDTO;
 import com.remington.unieats.marketplace.dto.CategoriaOpcionCreacionDTO;
 import com.remington.unieats.marketplace.dto.HorarioUpdateDTO;
 import com.remington.unieats.marketplace.dto.OpcionCreacionDTO;
+import com.remington.unieats.marketplace.dto.PaginaPedidosDTO;
 import com.remington.unieats.marketplace.dto.PedidoVendedorDTO;
+import com.remington.unieats.marketplace.dto.ResumenPedidosDTO;
 import com.remington.unieats.marketplace.dto.TiendaCreacionDTO;
 import com.remington.unieats.marketplace.dto.TiendaUpdateDTO;
 import com.remington.unieats.marketplace.model.entity.CategoriaOpcion;
-import com.remington.unieats.marketplace.model.entity.DetallePedido;
 import com.remington.unieats.marketplace.model.entity.Horario;
 import com.remington.unieats.marketplace.model.entity.Opcion;
 import com.remington.unieats.marketplace.model.entity.Pedido;
@@ -29,7 +37,9 @@ import com.remington.unieats.marketplace.model.entity.Producto;
 import com.remington.unieats.marketplace.model.entity.Tienda;
 import com.remington.unieats.marketplace.model.entity.Usuario;
 import com.remington.unieats.marketplace.model.enums.DiaSemana;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
 import com.remington.unieats.marketplace.model.repository.CategoriaOpcionRepository;
+import com.remington.unieats.marketplace.model.repository.DetallePedidoRepository;
 import com.remington.unieats.marketplace.model.repository.HorarioRepository;
 import com.remington.unieats.marketplace.model.repository.PedidoRepository;
 import com.remington.unieats.marketplace.model.repository.ProductoRepository;
@@ -38,12 +48,20 @@ import com.remington.unieats.marketplace.model.repository.TiendaRepository;
 @Service
 public class VendedorServiceImpl implements VendedorService {
 
+    // Cuánto mira hacia atrás una consulta incremental respecto de la marca recibida
+    private static final long MARGEN_SINCRONIZACION_SEGUNDOS = 5;
+
+    // Tope de ids en el IN de las consultas de detalles
+    private static final int PEDIDOS_POR_CONSULTA = 500;
+
     @Autowired private TiendaRepository tiendaRepository;
     @Autowired private HorarioRepository horarioRepository;
     @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private DetallePedidoRepository detallePedidoRepository;
     @Autowired private ProductoRepository productoRepository;
     @Autowired private CategoriaOpcionRepository categoriaOpcionRepository;
     @Autowired private LocalImageService localImageService;
+    @Autowired private ApplicationEventPublisher eventPublisher;
 
     @Override
     public Optional<Tienda> findTiendaByVendedor(Usuario vendedor) {
@@ -101,7 +119,9 @@ public class VendedorServiceImpl implements VendedorService {
                 throw new RuntimeException("Error al actualizar logo: " + e.getMessage(), e);
             }
         }
-        return tiendaRepository.save(tienda);
+        Tienda actualizada = tiendaRepository.save(tienda);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deTienda(actualizada.getId()));
+        return actualizada;
     }
 
     @Override
@@ -131,10 +151,99 @@ public class VendedorServiceImpl implements VendedorService {
 
     @Override
     public List<PedidoVendedorDTO> getPedidosDeLaTienda(Tienda tienda) {
-        List<Pedido> pedidos = pedidoRepository.findByTiendaOrderByFechaCreacionDesc(tienda);
-        return pedidos.stream()
-                .map(this::convertirAPedidoVendedorDTO)
-                .collect(Collectors.toList());
+        return armarPedidosVendedor(pedidoRepository.findFilasVendedor(tienda));
+    }
+
+    /**
+     * Pedidos creados o con cambio de estado desde {@code desde}. La marca devuelta es la
+     * hora de inicio de la lectura; la siguiente consulta mira además unos segundos hacia
+     * atrás para no perder cambios que se confirmaron después de asignar su hora. Los
+     * pedidos repetidos se resuelven en el cliente por id.
+     */
+    @Override
+    public CambiosPedidosDTO getPedidosDeLaTiendaDesde(Tienda tienda, LocalDateTime desde) {
+        LocalDateTime marca = LocalDateTime.now();
+        List<PedidoVendedorDTO> pedidos = armarPedidosVendedor(pedidoRepository
+                .findFilasVendedorActualizadasDesde(tienda, desde.minusSeconds(MARGEN_SINCRONIZACION_SEGUNDOS)));
+        return new CambiosPedidosDTO(pedidos, marca);
+    }
+
+    /**
+     * Página de pedidos en los estados pedidos, más recientes primero. El cursor es la
+     * fecha de creación y el id del último pedido de la página anterior: cada página es
+     * un rango del índice (tienda_id, estado, fecha_creacion), sin OFFSET, así que su
+     * costo no depende de cuántos pedidos tenga la tienda. Un límite fuera de rango se
+     * acota, igual que en el historial del estudiante.
+     */
+    @Override
+    public PaginaPedidosDTO getPaginaPedidosDeLaTienda(Tienda tienda, Set<EstadoPedido> estados, String cursor, int limite) {
+        int tamano = limite <= 0 ? PaginaPedidosDTO.LIMITE_POR_DEFECTO : Math.min(limite, PaginaPedidosDTO.LIMITE_MAXIMO);
+        // Se pide uno de más para saber si hay otra página
+        Limit limiteConSiguiente = Limit.of(tamano + 1);
+        List<PedidoRepository.FilaPedidoVendedor> pedidos;
+        if (cursor == null) {
+            pedidos = pedidoRepository.findPrimeraPagina(tienda, estados, limiteConSiguiente);
+        } else {
+            int separador = cursor.lastIndexOf('_');
+            LocalDateTime fecha;
+            Integer id;
+            try {
+                fecha = LocalDateTime.parse(cursor.substring(0, separador));
+                id = Integer.valueOf(cursor.substring(separador + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor de paginación inválido: " + cursor);
+            }
+            pedidos = pedidoRepository.findPaginaAntesDe(tienda, estados, fecha, id, limiteConSiguiente);
+        }
+
+        String siguiente = null;
+        if (pedidos.size() > tamano) {
+            pedidos = pedidos.subList(0, tamano);
+            PedidoRepository.FilaPedidoVendedor ultimo = pedidos.get(tamano - 1);
+            siguiente = ultimo.getFechaCreacion() + "_" + ultimo.getId();
+        }
+        return new PaginaPedidosDTO(armarPedidosVendedor(pedidos), siguiente);
+    }
+
+    @Override
+    public ResumenPedidosDTO getResumenPedidos(Tienda tienda) {
+        Map<String, Long> cantidades = new LinkedHashMap<>();
+        for (EstadoPedido estado : EstadoPedido.values()) {
+            cantidades.put(estado.name(), 0L);
+        }
+        BigDecimal ventas = BigDecimal.ZERO;
+        for (PedidoRepository.TotalesPorEstado totales : pedidoRepository.contarPorEstado(tienda)) {
+            cantidades.put(totales.getEstado().name(), totales.getCantidad());
+            if (totales.getEstado() == EstadoPedido.COMPLETADO) {
+                ventas = totales.getTotal();
+            }
+        }
+        return new ResumenPedidosDTO(cantidades, ventas);
+    }
+
+    // Un solo pedido, para que el panel agregue un pedido nuevo sin recargar la lista
+    @Override
+    public Optional<PedidoVendedorDTO> getPedidoDeLaTienda(Tienda tienda, Integer pedidoId) {
+        return pedidoRepository.findFilaVendedor(pedidoId, tienda)
+                .map(fila -> armarPedidosVendedor(List.of(fila)).get(0));
+    }
+
+    @Override
+    public Map<Integer, List<PedidoVendedorDTO>> getPedidosActivosPorTienda() {
+        List<PedidoRepository.FilaPedidoVendedor> filas = pedidoRepository.findFilasVendedorActivas(EstadoPedido.finales());
+        List<PedidoVendedorDTO> pedidos = armarPedidosVendedor(filas);
+        // armarPedidosVendedor respeta el orden de las filas
+        Map<Integer, List<PedidoVendedorDTO>> porTienda = new HashMap<>();
+        for (int i = 0; i < filas.size(); i++) {
+            porTienda.computeIfAbsent(filas.get(i).getTiendaId(), id -> new ArrayList<>()).add(pedidos.get(i));
+        }
+        return porTienda;
+    }
+
+    @Override
+    public Optional<PedidoVendedorDTO> getPedidoVendedor(Integer pedidoId) {
+        return pedidoRepository.findFilaVendedorPorId(pedidoId)
+                .map(fila -> armarPedidosVendedor(List.of(fila)).get(0));
     }
     
     @Override
@@ -161,7 +270,10 @@ public class VendedorServiceImpl implements VendedorService {
         }
         nuevaCategoria.setOpciones(opciones);
         
-        return categoriaOpcionRepository.save(nuevaCategoria);
+        CategoriaOpcion guardada = categoriaOpcionRepository.save(nuevaCategoria);
+        // La categoría nueva aún no está asignada a productos; se invalida por tienda por seguridad
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deTienda(tienda.getId()));
+        return guardada;
     }
 
     @Override
@@ -178,45 +290,59 @@ public class VendedorServiceImpl implements VendedorService {
 
         producto.getCategoriasDeOpciones().add(categoria);
         productoRepository.save(producto);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(producto.getTienda().getId(), productoId));
     }
     
-    private PedidoVendedorDTO convertirAPedidoVendedorDTO(Pedido pedido) {
-        PedidoVendedorDTO dto = new PedidoVendedorDTO();
-        dto.setId(pedido.getId());
-        dto.setFechaCreacion(pedido.getFechaCreacion());
-        dto.setEstado(pedido.getEstado().name());
-        dto.setTotal(pedido.getTotal());
-        dto.setNombreComprador(pedido.getComprador().getNombre() + " " + pedido.getComprador().getApellido());
-
-        // Mapear nuevos campos de entrega y pago
-        dto.setTipoEntrega(pedido.getTipoEntrega());
-        dto.setTipoPago(pedido.getTipoPago());
-        dto.setNotasGenerales(pedido.getNotasGenerales());
-        dto.setNotasDomicilio(pedido.getNotasDomicilio());
-
-        List<PedidoVendedorDTO.DetallePedidoVendedorDTO> detallesDTO = pedido.getDetalles().stream()
-                .map(this::convertirADetalleDTO)
-                .collect(Collectors.toList());
-        dto.setDetalles(detallesDTO);
-        
-        return dto;
-    }
+    /**
+     * Arma los pedidos del panel desde sus filas, que ya traen el nombre del comprador y el
+     * resumen de líneas escrito al crear el pedido. Solo los pedidos anteriores al resumen
+     * necesitan dos consultas más por bloque: detalles con el nombre del producto y opciones
+     * elegidas. No se cargan entidades, así que tampoco los roles del comprador, que son
+     * EAGER. Se respeta el orden de {@code filas}.
+     */
+    private List<PedidoVendedorDTO> armarPedidosVendedor(List<PedidoRepository.FilaPedidoVendedor> filas) {
+        List<PedidoVendedorDTO> pedidos = new ArrayList<>(filas.size());
+        for (int desde = 0; desde < filas.size(); desde += PEDIDOS_POR_CONSULTA) {
+            List<PedidoRepository.FilaPedidoVendedor> bloque =
+                    filas.subList(desde, Math.min(desde + PEDIDOS_POR_CONSULTA, filas.size()));
+            Map<Integer, PedidoVendedorDTO> sinResumen = new HashMap<>();
+            for (PedidoRepository.FilaPedidoVendedor fila : bloque) {
+                PedidoVendedorDTO dto = new PedidoVendedorDTO();
+                dto.setId(fila.getId());
+                dto.setFechaCreacion(fila.getFechaCreacion());
+                dto.setEstado(fila.getEstado().name());
+                dto.setTotal(fila.getTotal());
+                dto.setNombreComprador(fila.getNombreComprador() + " " + fila.getApellidoComprador());
+                dto.setTipoEntrega(fila.getTipoEntrega());
+                dto.setTipoPago(fila.getTipoPago());
+                dto.setNotasGenerales(fila.getNotasGenerales());
+                dto.setNotasDomicilio(fila.getNotasDomicilio());
+                dto.setDetalles(new ArrayList<>());
+                if (fila.getResumenLineas() != null) {
+                    LineasPedido.leer(fila.getResumenLineas()).forEach(linea -> dto.getDetalles().add(LineasPedido.detalleVendedor(linea)));
+                } else {
+                    sinResumen.put(fila.getId(), dto);
+                }
+                pedidos.add(dto);
+            }
+            if (sinResumen.isEmpty()) {
+                continue;
+            }
 
-    private PedidoVendedorDTO.DetallePedidoVendedorDTO convertirADetalleDTO(DetallePedido detalle) {
-        PedidoVendedorDTO.DetallePedidoVendedorDTO dto = new PedidoVendedorDTO.DetallePedidoVendedorDTO();
-        dto.setNombreProducto(detalle.getProducto().getNombre());
-        dto.setCantidad(detalle.getCantidad());
-        dto.setPrecioUnitario(detalle.getPrecioUnitario());
-        
-        // Mapear opciones seleccionadas
-        if (detalle.getOpcionesSeleccionadas() != null && !detalle.getOpcionesSeleccionadas().isEmpty()) {
-            String opciones = detalle.getOpcionesSeleccionadas().stream()
-                    .map(opcion -> opcion.getNombre())
-                    .collect(Collectors.joining(", "));
-            dto.setOpcionesSeleccionadas(opciones);
+            Map<Integer, String> opcionesPorDetalle = new HashMap<>();
+            for (DetallePedidoRepository.FilaOpcionDetalle opcion : detallePedidoRepository.findOpcionesDePedidos(sinResumen.keySet())) {
+                opcionesPorDetalle.merge(opcion.getDetalleId(), opcion.getNombre(), (previas, nombre) -> previas + ", " + nombre);
+            }
+            for (DetallePedidoRepository.FilaDetalleVendedor fila : detallePedidoRepository.findFilasVendedor(sinResumen.keySet())) {
+                PedidoVendedorDTO.DetallePedidoVendedorDTO detalle = new PedidoVendedorDTO.DetallePedidoVendedorDTO();
+                detalle.setNombreProducto(fila.getNombreProducto());
+                detalle.setCantidad(fila.getCantidad());
+                detalle.setPrecioUnitario(fila.getPrecioUnitario());
+                detalle.setOpcionesSeleccionadas(opcionesPorDetalle.get(fila.getId()));
+                sinResumen.get(fila.getPedidoId()).getDetalles().add(detalle);
+            }
         }
-        
-        return dto;
+        return pedidos;
     }
 
     @Override
@@ -226,6 +352,7 @@ public class VendedorServiceImpl implements VendedorService {
             .orElseThrow(() -> new RuntimeException("Tienda no encontrada"));
         tienda.setEstaAbierta(estaAbierta);
         tiendaRepository.save(tienda);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deTienda(tiendaId));
     }
 
     @Override
@@ -123,12 +123,15 @@ document.addEventListener("DOMContentLoaded", () => {
         tipoPago: 'transferencia', // 'efectivo' o 'transferencia' - por defecto transferencia
         notasGenerales: '',
         notasDomicilio: '',
+        clavePedido: null, // Idempotency-Key del pedido en curso; se descarta al confirmarlo
         // Nuevo sistema de caché y notificaciones
         pedidosCache: {
             data: null,
             lastUpdate: null,
             hash: null
         },
+        historialPedidos: [], // Páginas de "Pedidos anteriores" ya cargadas
+        productosCategoria: { items: [], total: 0 }, // Páginas ya cargadas de la categoría seleccionada
         polling: {
             interval: null,
             isActive: false,
@@ -152,7 +155,10 @@ document.addEventListener("DOMContentLoaded", () => {
             const response = await fetch(url, { ...options, headers });
             if (!response.ok) {
                 const errorMsg = await response.text();
-                throw new Error(errorMsg || 'Error de red o del servidor.');
+                const error = new Error(errorMsg || 'Error de red o del servidor.');
+                error.status = response.status;
+                error.retryAfter = Number(response.headers.get('Retry-After')) || null;
+                throw error;
             }
             const contentType = response.headers.get("content-type");
             if (contentType && contentType.indexOf("application/json") !== -1) {
@@ -163,12 +169,23 @@ document.addEventListener("DOMContentLoaded", () => {
         getTiendas: () => Api._fetch('/api/marketplace/tiendas'),
         getTienda: (id) => Api._fetch(`/api/marketplace/tiendas/${id}`),
         getProductos: () => Api._fetch('/api/marketplace/productos'),
+        // Filtro y conteos por faceta resueltos en el servidor; las páginas siguientes se piden con nextCursor
+        getProductosPorClasificacion: (clasificacion, cursor) => Api._fetch(`/api/marketplace/productos?clasificacion=${encodeURIComponent(clasificacion)}&limite=40${cursor ? `&cursor=${encodeURIComponent(cursor)}` : ''}`),
         getProductosDeTienda: (tiendaId) => Api._fetch(`/api/marketplace/productos/tienda/${tiendaId}`),
         getProductoDetalle: (id) => Api._fetch(`/api/marketplace/productos/${id}`),
-        getMisPedidos: () => Api._fetch('/api/pedidos/mis-pedidos'),
-        crearPedido: (dto) => Api._fetch('/api/pedidos/crear', { method: 'POST', body: JSON.stringify(dto) }),
+        // La primera página trae todos los pedidos activos; el sondeo no necesita el historial
+        getMisPedidos: () => Api._fetch('/api/pedidos/mis-pedidos?limite=1').then(pagina => pagina.items),
+        getHistorialPedidos: (cursor) => Api._fetch(`/api/pedidos/mis-pedidos?limite=20${cursor ? `&cursor=${encodeURIComponent(cursor)}` : ''}`),
+        getSolicitudPedido: (idProvisional) => Api._fetch(`/api/pedidos/solicitudes/${encodeURIComponent(idProvisional)}`),
+        // La clave de idempotencia hace seguro reenviar el mismo pedido (doble toque o reintento)
+        crearPedido: (dto, clave) => Api._fetch('/api/pedidos/crear', {
+            method: 'POST',
+            body: JSON.stringify(dto),
+            headers: { 'Idempotency-Key': clave }
+        }),
         // 🔍 NUEVA FUNCIÓN DE BÚSQUEDA
         buscarProductos: (termino) => Api._fetch(`/api/marketplace/productos/buscar?termino=${encodeURIComponent(termino)}`),
+        autocompletar: (prefijo) => Api._fetch(`/api/marketplace/autocompletar?prefijo=${encodeURIComponent(prefijo)}`),
         // Alias para compatibilidad
         getProductosPopulares: () => Api._fetch('/api/marketplace/productos'),
     };
@@ -606,10 +623,58 @@ document.addEventListener("DOMContentLoaded", () => {
         }
     };
 
+    // 📡 Estado de pedidos en vivo (Server-Sent Events); el polling queda como respaldo
+    const PedidosStream = {
+        source: null,
+        fallos: 0,
+
+        // Devuelve true mientras el stream esté conectado o conectando
+        iniciar() {
+            if (!('EventSource' in window) || this.fallos >= 3) return false;
+            if (this.source) return this.source.readyState !== EventSource.CLOSED;
+
+            this.source = new EventSource('/api/pedidos/stream');
+            // 'conectado' llega cuando el servidor ya sigue nuestros pedidos; 'open' llega antes
+            this.source.addEventListener('conectado', () => {
+                console.log('📡 Stream de pedidos conectado');
+                this.fallos = 0;
+                SmartPolling.stop();
+                this.refrescar();
+            });
+            ['pedido', 'pedido-nuevo'].forEach(tipo => this.source.addEventListener(tipo, (event) => {
+                console.log('📡 Cambio de pedido:', event.data);
+                this.refrescar();
+            }));
+            this.source.addEventListener('error', () => {
+                // El navegador reintenta solo; mientras tanto el polling cubre los cambios
+                if (this.source.readyState === EventSource.CLOSED) {
+                    this.fallos++;
+                    this.source = null;
+                }
+                SmartPolling.start(true);
+            });
+            return true;
+        },
+
+        async refrescar() {
+            try {
+                State.pedidosCache.lastUpdate = 0;
+                await SmartCache.getMisPedidosOptimized();
+                if (State.vistaActual === 'misPedidos') {
+                    Views.refreshPedidosView();
+                }
+            } catch (error) {
+                console.error('❌ Error al refrescar pedidos:', error);
+            }
+        }
+    };
+
     // 🔄 Sistema de Polling Inteligente
     const SmartPolling = {
-        start() {
+        // respaldo=true: el stream está caído y se consulta mientras se reconecta
+        start(respaldo = false) {
             if (State.polling.isActive) return;
+            if (!respaldo && PedidosStream.iniciar()) return;
             
             console.log('🔄 Iniciando polling automático para notificaciones en tiempo real...');
             State.polling.isActive = true;
@@ -686,7 +751,7 @@ document.addEventListener("DOMContentLoaded", () => {
                 State.polling.frequency = newFrequency;
                 if (State.polling.isActive) {
                     this.stop();
-                    this.start();
+                    this.start(true);
                 }
             }
         }
@@ -1164,26 +1229,18 @@ document.addEventListener("DOMContentLoaded", () => {
                     case 'inicio':
                         Header.innerHTML = this.getHeaderHTML('inicio');
                         const tiendas = await Api.getTiendas();
-                        let productos = await Api.getProductos();
                         
-                        // 🍔 FILTRAR POR CATEGORÍA SI HAY UNA SELECCIONADA
+                        // 🍔 FILTRAR POR CATEGORÍA EN EL SERVIDOR SI HAY UNA SELECCIONADA
                         if (State.categoriaSeleccionada) {
                             const dbValue = this.getDbValueFromCategory(State.categoriaSeleccionada);
                             console.log('🔍 Filtrando por:', State.categoriaSeleccionada, '-> BD:', dbValue);
-                            productos = productos.filter(producto => 
-                                producto.clasificacion === dbValue
-                            );
-                            console.log('📊 Productos filtrados encontrados:', productos.length);
-                        }
-                        
-                        // 🎯 NUEVA LÓGICA: Vista mejorada basada en popularidad
-                        if (State.categoriaSeleccionada) {
+                            const resultado = await Api.getProductosPorClasificacion(dbValue);
+                            console.log('📊 Productos filtrados encontrados:', resultado.total);
                             // Vista compacta cuando hay filtro de categoría
-                            Container.innerHTML = 
-                                this.getCategoryBarHTML() +
-                                this.getCompactProductGridHTML(productos, State.categoriaSeleccionada);
+                            this.mostrarProductosCategoria(resultado, false);
                         } else {
-                            // � VISTA DE INICIO MEJORADA: Mostrar categorías populares
+                            // 🎯 VISTA DE INICIO MEJORADA: Mostrar categorías populares
+                            const productos = await Api.getProductos();
                             Container.innerHTML = 
                                 this.getCategoryBarHTML() +
                                 this.getPopularCategoriesViewHTML(productos);
@@ -1385,7 +1442,10 @@ document.addEventListener("DOMContentLoaded", () => {
                             <input type="text" 
                                    id="searchInput" 
                                    placeholder="Buscar productos, tiendas..." 
+                                   list="sugerenciasBusqueda"
+                                   autocomplete="off"
                                    class="w-full pl-8 pr-3 py-2 bg-white rounded-lg text-gray-800 placeholder-gray-500 focus:outline-none focus:ring-1 focus:ring-white shadow-sm text-sm">
+                            <datalist id="sugerenciasBusqueda"></datalist>
                             <svg class="absolute left-2.5 top-1/2 transform -translate-y-1/2 w-3.5 h-3.5 text-gray-400" fill="none" stroke="currentColor" viewBox="0 0 24 24">
                                 <path stroke-linecap="round" stroke-linejoin="round" stroke-width="2" d="M21 21l-6-6m2-5a7 7 0 11-14 0 7 7 0 0114 0z"></path>
                             </svg>
@@ -1893,6 +1953,7 @@ document.addEventListener("DOMContentLoaded", () => {
             const pedidosActivos = pedidos.filter(p => 
                 ['PENDIENTE', 'EN_PREPARACION', 'LISTO_PARA_RECOGER'].includes(p.estado)
             );
+            // La primera página trae a lo sumo un finalizado: sirve para saber si hay historial, no para contarlo
             const pedidosFinalizados = pedidos.filter(p => 
                 ['COMPLETADO', 'CANCELADO'].includes(p.estado)
             );
@@ -1916,9 +1977,9 @@ document.addEventListener("DOMContentLoaded", () => {
                                     Hacer Nuevo Pedido
                                 </button>
                                 ${pedidosFinalizados.length > 0 ? `
-                                <button class="bg-white border-2 border-teal-500 text-teal-600 px-8 py-3 rounded-2xl font-semibold hover:bg-teal-50 transition-all" onclick="Views.mostrarPedidosAnteriores()">
+                                <button class="bg-white border-2 border-teal-500 text-teal-600 px-8 py-3 rounded-2xl font-semibold hover:bg-teal-50 transition-all" data-action="pedidos-anteriores">
                                     <i class="fas fa-history mr-2"></i>
-                                    Ver Pedidos Anteriores (${pedidosFinalizados.length})
+                                    Ver Pedidos Anteriores
                                 </button>
                                 ` : ''}
                             </div>
@@ -1985,7 +2046,7 @@ document.addEventListener("DOMContentLoaded", () => {
                                         <p class="text-sm text-slate-500">${pedidosActivos.length} pedido(s) en proceso</p>
                                     </div>
                                 </div>
-                                <button class="text-teal-600 hover:text-teal-700 font-semibold" onclick="Views.mostrarSoloPedidosActivos()">
+                                <button class="text-teal-600 hover:text-teal-700 font-semibold" data-action="pedidos-activos">
                                     <i class="fas fa-eye mr-1"></i>Solo Activos
                                 </button>
                             </div>
@@ -2290,7 +2351,7 @@ getCarouselTiendasHTML(tiendas) {
         /**
          * 📱 Grid compacto para productos filtrados
          */
-        getCompactProductGridHTML(productos, categoria) {
+        getCompactProductGridHTML(productos, categoria, total = productos?.length) {
             if (!productos || productos.length === 0) {
                 return `
                     <div class="flex flex-col items-center justify-center p-8 text-center">
@@ -2313,7 +2374,7 @@ getCarouselTiendasHTML(tiendas) {
                     <div class="flex items-center justify-between mb-3">
                         <div>
                             <h2 class="text-base font-bold text-gray-800">${categoria}</h2>
-                            <p class="text-xs text-gray-500">${productos.length} producto${productos.length !== 1 ? 's' : ''}</p>
+                            <p class="text-xs text-gray-500">${total} producto${total !== 1 ? 's' : ''}</p>
                         </div>
                         <button class="text-emerald-600 text-xs font-semibold hover:text-emerald-700 transition-colors" 
                                 data-action="filter-category" data-category="">
@@ -2701,11 +2762,25 @@ getCarouselTiendasHTML(tiendas) {
         },
 
         // 🎯 NUEVAS FUNCIONES PARA MANEJAR PEDIDOS ANTERIORES
-        async mostrarPedidosAnteriores() {
-            const pedidos = await SmartCache.getMisPedidosOptimized();
+        // El historial se pide por páginas; cada "Cargar más" agrega la siguiente
+        async mostrarPedidosAnteriores(cursor = null) {
             const container = document.getElementById('app-container');
-            if (container) {
-                container.innerHTML = this.getMisPedidosHTML(pedidos, true);
+            if (!container) return;
+            try {
+                const pagina = await Api.getHistorialPedidos(cursor);
+                State.historialPedidos = cursor ? [...(State.historialPedidos || []), ...pagina.items] : pagina.items;
+                container.innerHTML = this.getMisPedidosHTML(State.historialPedidos, true);
+                if (pagina.nextCursor) {
+                    container.insertAdjacentHTML('beforeend', `
+                        <div class="px-4 pb-6 text-center">
+                            <button class="bg-white border-2 border-teal-500 text-teal-600 px-6 py-2 rounded-2xl font-semibold hover:bg-teal-50 transition-all" data-action="pedidos-anteriores" data-cursor="${pagina.nextCursor}">
+                                <i class="fas fa-chevron-down mr-2"></i>Cargar más
+                            </button>
+                        </div>
+                    `);
+                }
+            } catch (error) {
+                Toast.show('No se pudo cargar el historial de pedidos', 'error');
             }
         },
 
@@ -2717,6 +2792,34 @@ getCarouselTiendasHTML(tiendas) {
             }
         },
 
+        // Vista compacta de la categoría; cada "Cargar más" agrega la página siguiente
+        mostrarProductosCategoria(pagina, agregar) {
+            const anteriores = agregar ? State.productosCategoria.items : [];
+            State.productosCategoria = { items: [...anteriores, ...pagina.items], total: pagina.total };
+            Container.innerHTML =
+                this.getCategoryBarHTML() +
+                this.getCompactProductGridHTML(State.productosCategoria.items, State.categoriaSeleccionada, pagina.total);
+            if (pagina.nextCursor) {
+                Container.insertAdjacentHTML('beforeend', `
+                    <div class="px-4 pb-6 text-center">
+                        <button class="bg-white border-2 border-emerald-500 text-emerald-600 px-6 py-2 rounded-2xl font-semibold hover:bg-emerald-50 transition-all" data-action="mas-productos-categoria" data-cursor="${pagina.nextCursor}">
+                            <i class="fas fa-chevron-down mr-2"></i>Cargar más
+                        </button>
+                    </div>
+                `);
+            }
+        },
+
+        async cargarMasProductosCategoria(cursor) {
+            if (!State.categoriaSeleccionada) return;
+            try {
+                const dbValue = this.getDbValueFromCategory(State.categoriaSeleccionada);
+                this.mostrarProductosCategoria(await Api.getProductosPorClasificacion(dbValue, cursor), true);
+            } catch (error) {
+                Toast.show('No se pudieron cargar más productos', 'error');
+            }
+        },
+
         // 🍔 NUEVA FUNCIÓN PARA FILTRAR POR CATEGORÍA
         async filtrarPorCategoria(categoria) {
             console.log('🍽️ Filtrando por categoría:', categoria);
@@ -2778,6 +2881,15 @@ getCarouselTiendasHTML(tiendas) {
                     case 'filter-category': 
                         Views.filtrarPorCategoria(target.dataset.category); 
                         break;
+                    case 'pedidos-anteriores':
+                        Views.mostrarPedidosAnteriores(target.dataset.cursor || null);
+                        break;
+                    case 'pedidos-activos':
+                        Views.mostrarSoloPedidosActivos();
+                        break;
+                    case 'mas-productos-categoria':
+                        Views.cargarMasProductosCategoria(target.dataset.cursor);
+                        break;
                     case 'add-custom-to-cart': this.agregarProductoPersonalizado(); break;
                     case 'update-qty': this.actualizarCantidadProducto(parseInt(op)); break;
                     case 'remove-from-cart': this.removerDelCarrito(parseInt(index)); break;
@@ -2797,6 +2909,7 @@ getCarouselTiendasHTML(tiendas) {
             // � FUNCIONALIDAD DE BÚSQUEDA
             document.addEventListener('input', e => {
                 if (e.target.id === 'searchInput') {
+                    this.actualizarSugerencias(e.target.value);
                     this.manejarBusqueda(e.target.value);
                 }
             });
@@ -2976,8 +3089,18 @@ getCarouselTiendasHTML(tiendas) {
                 notasDomicilio: State.notasDomicilio || ''
             };
 
+            // Se reutiliza la clave mientras el pedido no se confirme: si la respuesta se perdió,
+            // el servidor devuelve la del primer envío en lugar de crear otro pedido
+            State.clavePedido = State.clavePedido || this.nuevaClavePedido();
+
             try {
-                const response = await Api.crearPedido(dto);
+                const response = await this.enviarConReintentos(() => Api.crearPedido(dto, State.clavePedido));
+                if (response?.estado === 'EN_COLA') {
+                    // Hora pico: el servidor recibió el pedido y lo guardará en unos segundos
+                    boton.innerHTML = `<i class="fas fa-spinner fa-spin mr-2"></i> Confirmando...`;
+                    await this.esperarConfirmacion(response.idProvisional);
+                }
+                State.clavePedido = null;
                 
                 // 🎯 ACTUALIZACIÓN INMEDIATA: Crear pedido temporal para la caché
                 const nuevoPedidoTemporal = {
@@ -3047,6 +3170,47 @@ getCarouselTiendasHTML(tiendas) {
             }
         },
 
+        nuevaClavePedido() {
+            if (window.crypto?.randomUUID) {
+                return crypto.randomUUID();
+            }
+            return `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}`;
+        },
+
+        // Reintenta fallos de red (fetch lanza TypeError) y 429 (cola de pedidos llena);
+        // los demás errores del servidor se muestran
+        async enviarConReintentos(envio, intentos = 3) {
+            for (let intento = 1; ; intento++) {
+                try {
+                    return await envio();
+                } catch (error) {
+                    // 409: el mismo pedido todavía se está procesando; al reintentar llega su respuesta
+                    const reintentable = error instanceof TypeError || error.status === 429 || error.status === 409;
+                    if (!reintentable || intento >= intentos) {
+                        throw error;
+                    }
+                    const espera = error.retryAfter ? error.retryAfter * 1000 : 1000 * intento;
+                    await new Promise(resolve => setTimeout(resolve, espera));
+                }
+            }
+        },
+
+        // Consulta el estado de un pedido recibido en modo asíncrono hasta que se guarde o se rechace
+        async esperarConfirmacion(idProvisional, maxIntentos = 60) {
+            for (let intento = 0; intento < maxIntentos; intento++) {
+                await new Promise(resolve => setTimeout(resolve, 1000));
+                const solicitud = await Api.getSolicitudPedido(idProvisional);
+                if (solicitud.estado === 'CONFIRMADA') {
+                    return solicitud;
+                }
+                if (solicitud.estado === 'RECHAZADA') {
+                    State.clavePedido = null; // El carrito se puede corregir y enviar de nuevo
+                    throw new Error(solicitud.mensaje || 'No se pudo crear el pedido.');
+                }
+            }
+            throw new Error('Tu pedido sigue en proceso. Revisa "Mis pedidos" en unos minutos.');
+        },
+
         // 🔔 Manejar permisos de notificaciones después de un pedido exitoso
         async handlePostOrderNotificationPermissions() {
             console.log('🔔 Verificando permisos post-pedido...');
@@ -3191,7 +3355,32 @@ getCarouselTiendasHTML(tiendas) {
         
         // 🔍 NUEVA FUNCIONALIDAD DE BÚSQUEDA
         debounceTimer: null,
+        ultimaSugerencia: null,
         
+        // ⌨️ Sugerencias por cada tecla (el servidor responde desde memoria, sin debounce)
+        async actualizarSugerencias(prefijo) {
+            const lista = document.getElementById('sugerenciasBusqueda');
+            if (!lista) return;
+            const consulta = (prefijo || '').trim();
+            this.ultimaSugerencia = consulta;
+            if (consulta === '') {
+                lista.innerHTML = '';
+                return;
+            }
+            try {
+                const sugerencias = await Api.autocompletar(consulta);
+                // Ignorar respuestas que llegan después de otra tecla
+                if (this.ultimaSugerencia !== consulta) return;
+                lista.innerHTML = sugerencias.map(s => {
+                    const texto = s.texto.replace(/&/g, '&amp;').replace(/"/g, '&quot;').replace(/</g, '&lt;');
+                    const etiqueta = s.tipo === 'TIENDA' ? 'Tienda' : 'Producto';
+                    return `<option value="${texto}">${etiqueta}</option>`;
+                }).join('');
+            } catch (error) {
+                console.warn('⚠️ No se pudieron cargar sugerencias:', error);
+            }
+        },
+
         manejarBusqueda(termino) {
             // Limpiar el timer anterior
             clearTimeout(this.debounceTimer);
@@ -41,10 +41,16 @@ function startVendorApp() {
             apiEndpoints: {
                 getDashboard: '/api/vendedor/dashboard', 
                 getPedidos: '/api/vendedor/pedidos', // Endpoint para obtener pedidos
+                getPedidosActivos: '/api/vendedor/pedidos/tablero', // Activos desde el tablero en memoria del servidor
+                getHistorialPedidos: '/api/vendedor/pedidos?estado=COMPLETADO&estado=CANCELADO&limite=20', // Paginado con ?cursor=
+                getResumenPedidos: '/api/vendedor/pedidos/resumen',
+                getPedido: '/api/vendedor/pedidos/{id}',
+                streamPedidos: '/api/vendedor/pedidos/stream', // Pedidos nuevos y cambios de estado en vivo
                 aceptarPedido: '/api/vendedor/pedidos/{id}/aceptar',
                 listoPedido: '/api/vendedor/pedidos/{id}/listo',
                 entregadoPedido: '/api/vendedor/pedidos/{id}/entregado',
                 cancelarPedido: '/api/vendedor/pedidos/{id}/cancelar',
+                cambiarEstadoPedidos: '/api/vendedor/pedidos/estado', // Varios pedidos en una sola solicitud
                 getCategorias: '/api/vendedor/opciones/categorias',
                 crearCategoria: '/api/vendedor/opciones/categorias/crear',
                 asignarCategoria: '/api/vendedor/productos/',
@@ -652,7 +658,9 @@ function startVendorApp() {
                     }
 
                     try {
-                        const response = await fetch(App.config.apiEndpoints.getPedidos);
+                        // El tablero trae siempre todos los activos y sale de memoria en el
+                        // servidor, así que cada refresco lo pide completo; el historial va aparte
+                        const response = await fetch(App.config.apiEndpoints.getPedidosActivos);
                         if (!response.ok) throw new Error('No se pudieron cargar los pedidos.');
                         const pedidos = await response.json();
                         
@@ -796,7 +804,73 @@ function startVendorApp() {
                     }, App.state.pollingInterval);
                 },
 
-                startPolling() {
+                // 📡 Pedidos en vivo (Server-Sent Events); el polling queda como respaldo
+                stream: null,
+                streamFallos: 0,
+
+                // Devuelve true mientras el stream esté conectado o conectando
+                iniciarStream() {
+                    if (!('EventSource' in window) || this.streamFallos >= 3) return false;
+                    if (this.stream) return this.stream.readyState !== EventSource.CLOSED;
+
+                    this.stream = new EventSource(App.config.apiEndpoints.streamPedidos);
+                    // 'conectado' llega cuando el servidor ya sigue los pedidos de la tienda; 'open' llega antes
+                    this.stream.addEventListener('conectado', () => {
+                        console.log('📡 Stream de pedidos conectado');
+                        this.streamFallos = 0;
+                        this.stopPolling();
+                        // Lo que haya cambiado mientras no había conexión
+                        if (App.state.currentView === 'pedidos') this.loadPedidos();
+                    });
+                    this.stream.addEventListener('pedido-nuevo', (event) => this.aplicarEvento(JSON.parse(event.data), true));
+                    this.stream.addEventListener('pedido', (event) => this.aplicarEvento(JSON.parse(event.data), false));
+                    this.stream.addEventListener('error', () => {
+                        // El navegador reintenta solo; mientras tanto el polling cubre los cambios
+                        if (this.stream.readyState === EventSource.CLOSED) {
+                            this.streamFallos++;
+                            this.stream = null;
+                        }
+                        if (App.state.currentView === 'pedidos') this.startPolling(true);
+                    });
+                    return true;
+                },
+
+                // Actualiza la lista en memoria: solo se pide al servidor el pedido que no conocemos
+                async aplicarEvento({ pedidoId, estado }, esNuevo) {
+                    let pedido = App.state.currentPedidos.find(p => p.id === pedidoId);
+                    if (!pedido) {
+                        try {
+                            const response = await fetch(App.config.apiEndpoints.getPedido.replace('{id}', pedidoId));
+                            if (!response.ok) return;
+                            pedido = await response.json();
+                        } catch (error) {
+                            console.error(`Error cargando el pedido #${pedidoId}:`, error);
+                            return;
+                        }
+                    }
+
+                    const pedidos = [...App.state.currentPedidos];
+                    const indice = pedidos.findIndex(p => p.id === pedidoId);
+                    if (indice >= 0) {
+                        pedidos[indice] = { ...pedidos[indice], estado };
+                    } else {
+                        pedidos.unshift({ ...pedido, estado });
+                    }
+                    App.state.currentPedidos = pedidos;
+                    App.state.lastPedidosHash = App.ui.generatePedidosHash(pedidos);
+                    if (esNuevo) {
+                        App.ui.showNewOrderNotification(pedidos.length);
+                    }
+
+                    const container = document.getElementById('pedidos-container');
+                    if (container && App.state.currentView === 'pedidos') {
+                        this.renderPedidos(pedidos, container);
+                    }
+                },
+
+                // respaldo=true: el stream está caído y se consulta mientras se reconecta
+                startPolling(respaldo = false) {
+                    if (!respaldo && this.iniciarStream()) return;
                     // Don't start multiple polling intervals
                     if (App.state.pedidosPolling) return;
                     
@@ -840,11 +914,6 @@ function startVendorApp() {
                         p.estado === 'PENDIENTE' || p.estado === 'EN_PREPARACION' || p.estado === 'LISTO_PARA_RECOGER'
                     );
                     
-                    // Contar pedidos completados/cancelados para el historial
-                    const pedidosHistoricos = pedidos.filter(p => 
-                        p.estado === 'COMPLETADO' || p.estado === 'CANCELADO'
-                    );
-
                     if (pedidosActivos.length === 0) {
                         container.innerHTML = `
                             <div class="mb-4 flex justify-between items-center">
@@ -855,11 +924,9 @@ function startVendorApp() {
                                     <button id="refresh-pedidos" class="bg-indigo-100 hover:bg-indigo-200 text-indigo-700 px-3 py-2 rounded-lg transition-colors text-sm" title="Actualizar pedidos">
                                         <i class="fas fa-sync-alt mr-1"></i>Actualizar
                                     </button>
-                                    ${pedidosHistoricos.length > 0 ? `
-                                        <button id="ver-historial-pedidos" class="bg-slate-100 hover:bg-slate-200 text-slate-700 px-3 py-2 rounded-lg transition-colors text-sm">
-                                            <i class="fas fa-history mr-1"></i>Ver Historial (${pedidosHistoricos.length})
-                                        </button>
-                                    ` : ''}
+                                    <button id="ver-historial-pedidos" class="bg-slate-100 hover:bg-slate-200 text-slate-700 px-3 py-2 rounded-lg transition-colors text-sm">
+                                        <i class="fas fa-history mr-1"></i>Ver Historial
+                                    </button>
                                 </div>
                             </div>
                             <div class="bg-white p-6 rounded-xl shadow-md text-center">
@@ -868,11 +935,13 @@ function startVendorApp() {
                                 <p class="mt-2 text-slate-500">No tienes pedidos pendientes en este momento.</p>
                             </div>
                         `;
-                        this.attachHistorialHandler(pedidos);
+                        this.attachHistorialHandler();
                         return;
                     }
 
                     const formatPrice = (price) => new Intl.NumberFormat('es-CO', { style: 'currency', currency: 'COP', minimumFractionDigits: 0 }).format(price);
+                    const idsNuevos = pedidosActivos.filter(p => p.estado === 'PENDIENTE').map(p => p.id);
+                    const idsEnPreparacion = pedidosActivos.filter(p => p.estado === 'EN_PREPARACION').map(p => p.id);
                     
                     container.innerHTML = `
                         <div class="mb-4 flex justify-between items-center">
@@ -880,14 +949,22 @@ function startVendorApp() {
                                 <i class="fas fa-clock text-orange-500 mr-2"></i>Pedidos (${pedidosActivos.length})
                             </h2>
                             <div class="flex gap-2">
+                                ${idsNuevos.length > 1 ? `
+                                    <button class="bg-green-100 hover:bg-green-200 text-green-800 px-3 py-2 rounded-lg transition-colors text-sm" data-action="aceptar-todos" data-ids="${idsNuevos.join(',')}">
+                                        <i class="fas fa-check-double mr-1"></i>Aceptar todos (${idsNuevos.length})
+                                    </button>
+                                ` : ''}
+                                ${idsEnPreparacion.length > 1 ? `
+                                    <button class="bg-indigo-100 hover:bg-indigo-200 text-indigo-800 px-3 py-2 rounded-lg transition-colors text-sm" data-action="listos-todos" data-ids="${idsEnPreparacion.join(',')}">
+                                        <i class="fas fa-utensils mr-1"></i>Todos listos (${idsEnPreparacion.length})
+                                    </button>
+                                ` : ''}
                                 <button id="refresh-pedidos" class="bg-indigo-100 hover:bg-indigo-200 text-indigo-700 px-3 py-2 rounded-lg transition-colors text-sm" title="Actualizar pedidos">
                                     <i class="fas fa-sync-alt mr-1"></i>Actualizar
                                 </button>
-                                ${pedidosHistoricos.length > 0 ? `
-                                    <button id="ver-historial-pedidos" class="bg-slate-100 hover:bg-slate-200 text-slate-700 px-3 py-2 rounded-lg transition-colors text-sm">
-                                        <i class="fas fa-history mr-1"></i>Ver Historial (${pedidosHistoricos.length})
-                                    </button>
-                                ` : ''}
+                                <button id="ver-historial-pedidos" class="bg-slate-100 hover:bg-slate-200 text-slate-700 px-3 py-2 rounded-lg transition-colors text-sm">
+                                    <i class="fas fa-history mr-1"></i>Ver Historial
+                                </button>
                             </div>
                         </div>
                         <div class="space-y-4">
@@ -991,15 +1068,15 @@ function startVendorApp() {
                         </div>
                     `;
                     
-                    this.attachHistorialHandler(pedidos);
+                    this.attachHistorialHandler();
                 },
 
-                attachHistorialHandler(todosLosPedidos) {
+                attachHistorialHandler() {
                     // Handler para historial
                     const historialBtn = document.getElementById('ver-historial-pedidos');
                     if (historialBtn) {
                         historialBtn.addEventListener('click', () => {
-                            this.mostrarHistorialPedidos(todosLosPedidos);
+                            this.mostrarHistorialPedidos();
                         });
                     }
                     
@@ -1034,15 +1111,8 @@ function startVendorApp() {
                     }
                 },
 
-                mostrarHistorialPedidos(todosLosPedidos) {
-                    // Filtrar pedidos históricos
-                    const pedidosHistoricos = todosLosPedidos.filter(p => 
-                        p.estado === 'COMPLETADO' || p.estado === 'CANCELADO'
-                    ).sort((a, b) => new Date(b.fechaCreacion) - new Date(a.fechaCreacion));
-
-                    const formatPrice = (price) => new Intl.NumberFormat('es-CO', { style: 'currency', currency: 'COP', minimumFractionDigits: 0 }).format(price);
-                    
-                    // Crear modal para mostrar el historial
+                // El historial se pide por páginas; los totales vienen calculados del servidor
+                async mostrarHistorialPedidos() {
                     const modalHTML = `
                         <div id="historial-modal" class="fixed inset-0 bg-black bg-opacity-50 flex items-center justify-center z-50">
                             <div class="bg-white rounded-xl max-w-4xl w-full mx-4 max-h-[90vh] overflow-hidden">
@@ -1056,120 +1126,18 @@ function startVendorApp() {
                                     </button>
                                 </div>
                                 <div class="p-6 overflow-y-auto max-h-[70vh]">
-                                    ${pedidosHistoricos.length === 0 ? `
+                                    <div id="historial-resumen"></div>
+                                    <div id="historial-lista" class="grid gap-4">
                                         <div class="text-center py-8">
-                                            <i class="fas fa-inbox text-4xl text-gray-400 mb-4"></i>
-                                            <p class="text-gray-500">No hay pedidos en el historial.</p>
+                                            <div class="animate-spin rounded-full h-8 w-8 border-b-2 border-indigo-600 mx-auto mb-3"></div>
+                                            <p class="text-slate-500">Cargando historial...</p>
                                         </div>
-                                    ` : `
-                                        <div class="grid gap-4">
-                                            ${pedidosHistoricos.map(pedido => {
-                                                const statusConfig = {
-                                                    'COMPLETADO': { text: 'Completado', colors: 'bg-green-100 text-green-800', icon: 'fas fa-check-circle' },
-                                                    'CANCELADO': { text: 'Cancelado', colors: 'bg-red-100 text-red-800', icon: 'fas fa-times-circle' }
-                                                };
-                                                const currentStatus = statusConfig[pedido.estado] || {};
-                                                
-                                                const totalVentas = pedido.estado === 'COMPLETADO' ? pedido.total : 0;
-                                                
-                                                return `
-                                                    <div class="bg-gray-50 p-4 rounded-lg border ${pedido.estado === 'COMPLETADO' ? 'border-green-200' : 'border-red-200'}">
-                                                        <div class="flex justify-between items-start mb-3">
-                                                            <div>
-                                                                <p class="font-semibold text-slate-800">
-                                                                    <i class="fas fa-receipt text-slate-500 mr-1"></i>
-                                                                    Pedido #${pedido.id} - ${pedido.nombreComprador}
-                                                                </p>
-                                                                <p class="text-sm text-slate-500">
-                                                                    <i class="fas fa-calendar mr-1"></i>
-                                                                    ${new Date(pedido.fechaCreacion).toLocaleString()}
-                                                                </p>
-                                                            </div>
-                                                            <span class="px-3 py-1 text-xs font-semibold rounded-full ${currentStatus.colors}">
-                                                                <i class="${currentStatus.icon} mr-1"></i>${currentStatus.text}
-                                                            </span>
-                                                        </div>
-                                                        
-                                                        <!-- Info de entrega y pago en historial -->
-                                                        <div class="mb-3 grid grid-cols-2 gap-2">
-                                                            <div class="bg-white border rounded p-2">
-                                                                <p class="text-xs text-slate-600">Entrega:</p>
-                                                                <p class="text-sm font-medium">
-                                                                    ${pedido.tipoEntrega === 'domicilio' ? '🏠 Domicilio' : '🏪 Recoger'}
-                                                                </p>
-                                                            </div>
-                                                            <div class="bg-white border rounded p-2">
-                                                                <p class="text-xs text-slate-600">Pago:</p>
-                                                                <p class="text-sm font-medium">
-                                                                    ${pedido.tipoPago === 'efectivo' ? '💵 Efectivo' : '📱 Transferencia'}
-                                                                </p>
-                                                            </div>
-                                                        </div>
-                                                        
-                                                        <div class="text-sm space-y-1">
-                                                            ${pedido.detalles.map(d => `
-                                                                <div class="flex justify-between">
-                                                                    <div class="text-slate-600">
-                                                                        <span class="font-medium">${d.cantidad}x ${d.nombreProducto}</span>
-                                                                        ${d.opcionesSeleccionadas ? `<div class="text-xs text-slate-500 mt-1">• ${d.opcionesSeleccionadas}</div>` : ''}
-                                                                    </div>
-                                                                    <span class="text-slate-700">${formatPrice(d.precioUnitario * d.cantidad)}</span>
-                                                                </div>
-                                                            `).join('')}
-                                                        </div>
-                                                        <div class="pt-2 mt-2 border-t border-gray-200 flex justify-between items-center">
-                                                            <span class="font-bold text-slate-800">Total: ${formatPrice(pedido.total)}</span>
-                                                            ${pedido.estado === 'COMPLETADO' ? 
-                                                                `<span class="text-green-600 text-sm font-medium">
-                                                                    <i class="fas fa-money-bill-wave mr-1"></i>Venta exitosa
-                                                                </span>` : 
-                                                                `<span class="text-red-600 text-sm font-medium">
-                                                                    <i class="fas fa-ban mr-1"></i>No completado
-                                                                </span>`
-                                                            }
-                                                        </div>
-                                                    </div>
-                                                `;
-                                            }).join('')}
-                                        </div>
-                                        
-                                        <!-- Resumen de estadísticas -->
-                                        <div class="mt-6 pt-6 border-t border-gray-200">
-                                            <h3 class="text-lg font-semibold text-slate-800 mb-4">
-                                                <i class="fas fa-chart-bar text-indigo-500 mr-2"></i>Resumen de Estadísticas
-                                            </h3>
-                                            <div class="grid grid-cols-1 md:grid-cols-3 gap-4">
-                                                ${(() => {
-                                                    const completados = pedidosHistoricos.filter(p => p.estado === 'COMPLETADO');
-                                                    const cancelados = pedidosHistoricos.filter(p => p.estado === 'CANCELADO');
-                                                    const totalVentas = completados.reduce((sum, p) => sum + p.total, 0);
-                                                    
-                                                    return `
-                                                        <div class="bg-green-50 p-4 rounded-lg text-center">
-                                                            <i class="fas fa-check-circle text-2xl text-green-600 mb-2"></i>
-                                                            <p class="text-sm text-green-700 font-medium">Pedidos Completados</p>
-                                                            <p class="text-2xl font-bold text-green-800">${completados.length}</p>
-                                                            <p class="text-xs text-green-600">${formatPrice(totalVentas)}</p>
-                                                        </div>
-                                                        <div class="bg-red-50 p-4 rounded-lg text-center">
-                                                            <i class="fas fa-times-circle text-2xl text-red-600 mb-2"></i>
-                                                            <p class="text-sm text-red-700 font-medium">Pedidos Cancelados</p>
-                                                            <p class="text-2xl font-bold text-red-800">${cancelados.length}</p>
-                                                            <p class="text-xs text-red-600">Sin ingresos</p>
-                                                        </div>
-                                                        <div class="bg-indigo-50 p-4 rounded-lg text-center">
-                                                            <i class="fas fa-percentage text-2xl text-indigo-600 mb-2"></i>
-                                                            <p class="text-sm text-indigo-700 font-medium">Tasa de Éxito</p>
-                                                            <p class="text-2xl font-bold text-indigo-800">
-                                                                ${pedidosHistoricos.length > 0 ? Math.round((completados.length / pedidosHistoricos.length) * 100) : 0}%
-                                                            </p>
-                                                            <p class="text-xs text-indigo-600">${pedidosHistoricos.length} pedidos totales</p>
-                                                        </div>
-                                                    `;
-                                                })()}
-                                            </div>
-                                        </div>
-                                    `}
+                                    </div>
+                                    <div class="text-center mt-4">
+                                        <button id="historial-mas" class="hidden bg-slate-100 hover:bg-slate-200 text-slate-700 px-4 py-2 rounded-lg transition-colors text-sm">
+                                            <i class="fas fa-chevron-down mr-1"></i>Cargar más
+                                        </button>
+                                    </div>
                                 </div>
                             </div>
                         </div>
@@ -1198,6 +1166,161 @@ function startVendorApp() {
                             document.removeEventListener('keydown', escHandler);
                         }
                     });
+
+                    const lista = document.getElementById('historial-lista');
+                    const masBtn = document.getElementById('historial-mas');
+                    let cursor = null;
+
+                    const cargarPagina = async () => {
+                        const url = cursor
+                            ? `${App.config.apiEndpoints.getHistorialPedidos}&cursor=${encodeURIComponent(cursor)}`
+                            : App.config.apiEndpoints.getHistorialPedidos;
+                        const response = await fetch(url);
+                        if (!response.ok) throw new Error('No se pudo cargar el historial.');
+                        const pagina = await response.json();
+                        const pedidos = pagina.pedidos || [];
+
+                        if (!cursor) lista.innerHTML = '';
+                        if (!cursor && pedidos.length === 0) {
+                            lista.innerHTML = `
+                                <div class="text-center py-8">
+                                    <i class="fas fa-inbox text-4xl text-gray-400 mb-4"></i>
+                                    <p class="text-gray-500">No hay pedidos en el historial.</p>
+                                </div>
+                            `;
+                        }
+                        lista.insertAdjacentHTML('beforeend', pedidos.map(p => this.renderPedidoHistorial(p)).join(''));
+                        cursor = pagina.siguiente;
+                        masBtn.classList.toggle('hidden', !cursor);
+                    };
+
+                    masBtn.addEventListener('click', async () => {
+                        masBtn.disabled = true;
+                        try {
+                            await cargarPagina();
+                        } catch (error) {
+                            App.ui.showToast(error.message, 'error');
+                        } finally {
+                            masBtn.disabled = false;
+                        }
+                    });
+
+                    try {
+                        await Promise.all([cargarPagina(), this.cargarResumenHistorial()]);
+                    } catch (error) {
+                        lista.innerHTML = `<div class="text-center py-8 text-red-500"><p>${error.message}</p></div>`;
+                    }
+                },
+
+                renderPedidoHistorial(pedido) {
+                    const formatPrice = (price) => new Intl.NumberFormat('es-CO', { style: 'currency', currency: 'COP', minimumFractionDigits: 0 }).format(price);
+                    const statusConfig = {
+                        'COMPLETADO': { text: 'Completado', colors: 'bg-green-100 text-green-800', icon: 'fas fa-check-circle' },
+                        'CANCELADO': { text: 'Cancelado', colors: 'bg-red-100 text-red-800', icon: 'fas fa-times-circle' }
+                    };
+                    const currentStatus = statusConfig[pedido.estado] || {};
+
+                    return `
+                        <div class="bg-gray-50 p-4 rounded-lg border ${pedido.estado === 'COMPLETADO' ? 'border-green-200' : 'border-red-200'}">
+                            <div class="flex justify-between items-start mb-3">
+                                <div>
+                                    <p class="font-semibold text-slate-800">
+                                        <i class="fas fa-receipt text-slate-500 mr-1"></i>
+                                        Pedido #${pedido.id} - ${pedido.nombreComprador}
+                                    </p>
+                                    <p class="text-sm text-slate-500">
+                                        <i class="fas fa-calendar mr-1"></i>
+                                        ${new Date(pedido.fechaCreacion).toLocaleString()}
+                                    </p>
+                                </div>
+                                <span class="px-3 py-1 text-xs font-semibold rounded-full ${currentStatus.colors}">
+                                    <i class="${currentStatus.icon} mr-1"></i>${currentStatus.text}
+                                </span>
+                            </div>
+
+                            <!-- Info de entrega y pago en historial -->
+                            <div class="mb-3 grid grid-cols-2 gap-2">
+                                <div class="bg-white border rounded p-2">
+                                    <p class="text-xs text-slate-600">Entrega:</p>
+                                    <p class="text-sm font-medium">
+                                        ${pedido.tipoEntrega === 'domicilio' ? '🏠 Domicilio' : '🏪 Recoger'}
+                                    </p>
+                                </div>
+                                <div class="bg-white border rounded p-2">
+                                    <p class="text-xs text-slate-600">Pago:</p>
+                                    <p class="text-sm font-medium">
+                                        ${pedido.tipoPago === 'efectivo' ? '💵 Efectivo' : '📱 Transferencia'}
+                                    </p>
+                                </div>
+                            </div>
+
+                            <div class="text-sm space-y-1">
+                                ${pedido.detalles.map(d => `
+                                    <div class="flex justify-between">
+                                        <div class="text-slate-600">
+                                            <span class="font-medium">${d.cantidad}x ${d.nombreProducto}</span>
+                                            ${d.opcionesSeleccionadas ? `<div class="text-xs text-slate-500 mt-1">• ${d.opcionesSeleccionadas}</div>` : ''}
+                                        </div>
+                                        <span class="text-slate-700">${formatPrice(d.precioUnitario * d.cantidad)}</span>
+                                    </div>
+                                `).join('')}
+                            </div>
+                            <div class="pt-2 mt-2 border-t border-gray-200 flex justify-between items-center">
+                                <span class="font-bold text-slate-800">Total: ${formatPrice(pedido.total)}</span>
+                                ${pedido.estado === 'COMPLETADO' ? 
+                                    `<span class="text-green-600 text-sm font-medium">
+                                        <i class="fas fa-money-bill-wave mr-1"></i>Venta exitosa
+                                    </span>` : 
+                                    `<span class="text-red-600 text-sm font-medium">
+                                        <i class="fas fa-ban mr-1"></i>No completado
+                                    </span>`
+                                }
+                            </div>
+                        </div>
+                    `;
+                },
+
+                async cargarResumenHistorial() {
+                    const response = await fetch(App.config.apiEndpoints.getResumenPedidos);
+                    if (!response.ok) return;
+                    const resumen = await response.json();
+                    const contenedor = document.getElementById('historial-resumen');
+                    if (!contenedor) return;
+
+                    const formatPrice = (price) => new Intl.NumberFormat('es-CO', { style: 'currency', currency: 'COP', minimumFractionDigits: 0 }).format(price);
+                    const completados = resumen.cantidades.COMPLETADO || 0;
+                    const cancelados = resumen.cantidades.CANCELADO || 0;
+                    const totalHistorico = completados + cancelados;
+
+                    contenedor.innerHTML = `
+                        <div class="mb-6 pb-6 border-b border-gray-200">
+                            <h3 class="text-lg font-semibold text-slate-800 mb-4">
+                                <i class="fas fa-chart-bar text-indigo-500 mr-2"></i>Resumen de Estadísticas
+                            </h3>
+                            <div class="grid grid-cols-1 md:grid-cols-3 gap-4">
+                                <div class="bg-green-50 p-4 rounded-lg text-center">
+                                    <i class="fas fa-check-circle text-2xl text-green-600 mb-2"></i>
+                                    <p class="text-sm text-green-700 font-medium">Pedidos Completados</p>
+                                    <p class="text-2xl font-bold text-green-800">${completados}</p>
+                                    <p class="text-xs text-green-600">${formatPrice(resumen.ventasCompletadas)}</p>
+                                </div>
+                                <div class="bg-red-50 p-4 rounded-lg text-center">
+                                    <i class="fas fa-times-circle text-2xl text-red-600 mb-2"></i>
+                                    <p class="text-sm text-red-700 font-medium">Pedidos Cancelados</p>
+                                    <p class="text-2xl font-bold text-red-800">${cancelados}</p>
+                                    <p class="text-xs text-red-600">Sin ingresos</p>
+                                </div>
+                                <div class="bg-indigo-50 p-4 rounded-lg text-center">
+                                    <i class="fas fa-percentage text-2xl text-indigo-600 mb-2"></i>
+                                    <p class="text-sm text-indigo-700 font-medium">Tasa de Éxito</p>
+                                    <p class="text-2xl font-bold text-indigo-800">
+                                        ${totalHistorico > 0 ? Math.round((completados / totalHistorico) * 100) : 0}%
+                                    </p>
+                                    <p class="text-xs text-indigo-600">${totalHistorico} pedidos totales</p>
+                                </div>
+                            </div>
+                        </div>
+                    `;
                 },
 
                 // Función para activar temporalmente polling super rápido
@@ -1225,6 +1348,22 @@ function startVendorApp() {
                     }, duracionSegundos * 1000);
                 },
 
+                // Un solo POST para todos los pedidos del botón; el servidor informa cuáles cambió
+                async cambiarEstadoDeTodos(button, estado) {
+                    const pedidoIds = button.dataset.ids.split(',').map(Number);
+                    try {
+                        const response = await App.api.request(App.config.apiEndpoints.cambiarEstadoPedidos, {
+                            method: 'POST',
+                            body: JSON.stringify({ pedidoIds, estado })
+                        }, button);
+                        const resultados = await response.json();
+                        const actualizados = resultados.filter(r => r.resultado === 'ACTUALIZADO').length;
+                        App.ui.showToast(`${actualizados} de ${resultados.length} pedidos actualizados.`);
+                    } catch (error) { /* ya manejado en App.api */ }
+                    await App.components.Pedidos.loadPedidos();
+                    await App.components.Dashboard.actualizarEstadisticas();
+                },
+
                 async handlePedidoAction(e) {
                     const button = e.target.closest('button[data-action]');
                     if (!button) return;
@@ -1237,6 +1376,10 @@ function startVendorApp() {
                     this.activarPollingRapidoTemporal(60); // 60 segundos de polling rápido
                     
                     const { action, id } = button.dataset;
+                    if (action === 'aceptar-todos' || action === 'listos-todos') {
+                        await this.cambiarEstadoDeTodos(button, action === 'aceptar-todos' ? 'EN_PREPARACION' : 'LISTO_PARA_RECOGER');
+                        return;
+                    }
                     let endpoint = '';
 
                     switch(action) {
@@ -1254,7 +1397,10 @@ function startVendorApp() {
                         await App.components.Pedidos.loadPedidos();
                         // Actualizar estadísticas después de cambiar un pedido
                         await App.components.Dashboard.actualizarEstadisticas();
-                    } catch (error) { /* ya manejado en App.api */ }
+                    } catch (error) {
+                        // El error ya se mostró en App.api; si otro dispositivo cambió el pedido antes (409), se refresca la lista
+                        await App.components.Pedidos.loadPedidos();
+                    }
                 },
 
                 async handleStoreStatusToggle(e) {
@@ -0,0 +1,154 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.remington.unieats.marketplace.dto.ProductoPublicoDTO;
+import com.remington.unieats.marketplace.dto.SugerenciaDTO;
+import com.remington.unieats.marketplace.model.enums.ClasificacionProducto;
+import com.remington.unieats.marketplace.model.repository.DetallePedidoRepository;
+import com.remington.unieats.marketplace.model.repository.ProductoRepository;
+
+class AutocompletadoCatalogoTest {
+
+    private ProductoRepository productoRepository;
+    private DetallePedidoRepository detallePedidoRepository;
+    private AutocompletadoCatalogo autocompletado;
+    private final List<ProductoPublicoDTO> productos = new ArrayList<>();
+
+    @BeforeEach
+    void crearAutocompletado() {
+        productos.add(producto(1, "Hamburguesa BBQ", 1, "La Parrilla"));
+        productos.add(producto(2, "Hamburguesa Sencilla", 1, "La Parrilla"));
+        productos.add(producto(3, "Hamburguesa de Pollo", 2, "Café Central"));
+        productos.add(producto(4, "Jugo de Mora", 2, "Café Central"));
+        productos.add(producto(5, "Arepa Rellena", 2, "Café Central"));
+
+        productoRepository = mock(ProductoRepository.class);
+        detallePedidoRepository = mock(DetallePedidoRepository.class);
+        when(productoRepository.findPublicosByEstadoTienda(any())).thenAnswer(invocacion -> List.copyOf(productos));
+        when(detallePedidoRepository.sumarUnidadesPorProducto(any())).thenReturn(unidades(Map.of(1, 3L, 2, 10L, 3, 7L)));
+
+        autocompletado = new AutocompletadoCatalogo();
+        ReflectionTestUtils.setField(autocompletado, "productoRepository", productoRepository);
+        ReflectionTestUtils.setField(autocompletado, "detallePedidoRepository", detallePedidoRepository);
+        ReflectionTestUtils.setField(autocompletado, "refrescoSegundos", 300L);
+    }
+
+    @AfterEach
+    void detener() {
+        autocompletado.detener();
+    }
+
+    @Test
+    void lasSugerenciasVanPorPopularidad() {
+        List<SugerenciaDTO> sugerencias = autocompletado.sugerir("hamb", 10);
+
+        assertEquals(List.of("Hamburguesa Sencilla", "Hamburguesa de Pollo", "Hamburguesa BBQ"), textos(sugerencias));
+        assertEquals(10L, sugerencias.get(0).getPopularidad());
+        assertEquals(List.of("Hamburguesa Sencilla"), textos(autocompletado.sugerir("hamb", 1)));
+    }
+
+    @Test
+    void completaDesdeCualquierPalabraYSinTildes() {
+        assertEquals(List.of("Hamburguesa BBQ"), textos(autocompletado.sugerir("bb", 5)));
+        assertEquals(List.of("Jugo de Mora"), textos(autocompletado.sugerir("MORA", 5)));
+        // "de" aparece en dos nombres; gana el más pedido
+        assertEquals(List.of("Hamburguesa de Pollo", "Jugo de Mora"), textos(autocompletado.sugerir("de", 5)));
+        assertEquals("Café Central", autocompletado.sugerir("cafe cen", 5).get(0).getTexto());
+        assertEquals(SugerenciaDTO.TIPO_TIENDA, autocompletado.sugerir("cafe cen", 5).get(0).getTipo());
+    }
+
+    @Test
+    void unPrefijoQueNoExisteNoSugiereNada() {
+        assertTrue(autocompletado.sugerir("hamburguesaz", 5).isEmpty());
+        assertTrue(autocompletado.sugerir("pizza", 5).isEmpty());
+        assertTrue(autocompletado.sugerir("   ", 5).isEmpty());
+        // El prefijo se separa de una arista compactada a mitad de camino
+        assertTrue(autocompletado.sugerir("hambx", 5).isEmpty());
+    }
+
+    @Test
+    void elTopSeCortaEnTopK() {
+        for (int i = 0; i < AutocompletadoCatalogo.TOP_K + 4; i++) {
+            productos.add(producto(100 + i, "Empanada " + i, 3, "Empanadas"));
+        }
+        assertEquals(AutocompletadoCatalogo.TOP_K, autocompletado.sugerir("emp", 50).size());
+    }
+
+    @Test
+    void unCambioDelCatalogoReconstruyeFueraDelHiloQueHaceCommit() throws InterruptedException {
+        autocompletado.sugerir("hamb", 5);
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        List<String> hilos = new CopyOnWriteArrayList<>();
+        when(productoRepository.findPublicosByEstadoTienda(any())).thenAnswer(invocacion -> {
+            hilos.add(Thread.currentThread().getName());
+            leyendo.countDown();
+            bloqueo.await(5, TimeUnit.SECONDS);
+            return List.copyOf(productos);
+        });
+        productos.add(producto(6, "Hamburguesa Doble", 1, "La Parrilla"));
+
+        autocompletado.onCatalogoModificado(CatalogoModificadoEvent.completo());
+        assertTrue(leyendo.await(2, TimeUnit.SECONDS));
+        // Más eventos mientras la primera reconstrucción sigue en curso
+        for (int i = 0; i < 4; i++) {
+            autocompletado.onCatalogoModificado(CatalogoModificadoEvent.completo());
+        }
+        // Mientras tanto se responde con el trie anterior
+        assertEquals(3, autocompletado.sugerir("hamb", 10).size());
+        bloqueo.countDown();
+
+        // La carga inicial, la reconstrucción en curso y una sola más por los eventos que llegaron durante ella
+        verify(productoRepository, timeout(2000).times(3)).findPublicosByEstadoTienda(any());
+        Thread.sleep(100);
+        verify(productoRepository, times(3)).findPublicosByEstadoTienda(any());
+        assertTrue(hilos.stream().allMatch("autocompletado"::equals), hilos.toString());
+        assertEquals(4, autocompletado.sugerir("hamb", 10).size());
+    }
+
+    private static List<String> textos(List<SugerenciaDTO> sugerencias) {
+        return sugerencias.stream().map(SugerenciaDTO::getTexto).toList();
+    }
+
+    private static ProductoPublicoDTO producto(Integer id, String nombre, Integer tiendaId, String tienda) {
+        return new ProductoPublicoDTO(id, nombre, "", BigDecimal.valueOf(10000), null,
+                ClasificacionProducto.values()[0], tiendaId, tienda);
+    }
+
+    private static List<DetallePedidoRepository.UnidadesPorProducto> unidades(Map<Integer, Long> porProducto) {
+        List<DetallePedidoRepository.UnidadesPorProducto> filas = new ArrayList<>();
+        porProducto.forEach((productoId, unidades) -> filas.add(new DetallePedidoRepository.UnidadesPorProducto() {
+            @Override
+            public Integer getProductoId() {
+                return productoId;
+            }
+
+            @Override
+            public Long getUnidades() {
+                return unidades;
+            }
+        }));
+        return filas;
+    }
+}
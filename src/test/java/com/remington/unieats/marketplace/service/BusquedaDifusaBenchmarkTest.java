@@ -0,0 +1,132 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.remington.unieats.marketplace.dto.ProductoPublicoDTO;
+import com.remington.unieats.marketplace.model.enums.ClasificacionProducto;
+import com.remington.unieats.marketplace.model.repository.ProductoRepository;
+
+/**
+ * Benchmark del modo difuso de {@link IndiceBusquedaProductos} sobre un catálogo
+ * sintético de decenas de miles de productos (sin base de datos). La medición del p99
+ * lleva la etiqueta "benchmark" y solo corre con {@code mvn test -Pbenchmark}.
+ */
+class BusquedaDifusaBenchmarkTest {
+
+    private static final int PRODUCTOS = 30_000;
+    private static final int CALENTAMIENTO = 2_000;
+    private static final int MEDICIONES = 5_000;
+    // Presupuesto holgado para máquinas de CI lentas; en local el p99 ronda pocos cientos de microsegundos
+    private static final double P99_MAXIMO_MS = 5.0;
+
+    private static final String[] PLATOS = {
+            "hamburguesa", "cappuccino", "empanada", "arepa", "perro caliente", "salchipapa",
+            "limonada", "jugo natural", "brownie", "ensalada", "sandwich", "pizza", "tamal", "buñuelo"
+    };
+    private static final String[] SILABAS = {
+            "ra", "me", "to", "li", "sa", "po", "ne", "ca", "du", "ri", "lo", "ta", "mu", "ve", "go", "zi"
+    };
+
+    private static IndiceBusquedaProductos indice;
+    private static final List<String> consultas = new ArrayList<>();
+
+    @BeforeAll
+    static void cargarCatalogo() {
+        Random random = new Random(42);
+        List<ProductoPublicoDTO> productos = new ArrayList<>(PRODUCTOS);
+        ClasificacionProducto[] clasificaciones = ClasificacionProducto.values();
+        for (int i = 1; i <= PRODUCTOS; i++) {
+            String plato = PLATOS[random.nextInt(PLATOS.length)];
+            String variante = palabraAleatoria(random);
+            productos.add(new ProductoPublicoDTO(i, plato + " " + variante, "Preparación " + palabraAleatoria(random),
+                    BigDecimal.valueOf(1000 + random.nextInt(20000)), null,
+                    clasificaciones[random.nextInt(clasificaciones.length)], 1 + random.nextInt(200),
+                    "Tienda " + palabraAleatoria(random)));
+            if (i % 10 == 0) {
+                consultas.add(conErrorDeEscritura(variante, random));
+            }
+        }
+
+        ProductoRepository repositorio = mock(ProductoRepository.class);
+        when(repositorio.findPublicosByEstadoTienda(any())).thenReturn(productos);
+        indice = new IndiceBusquedaProductos();
+        ReflectionTestUtils.setField(indice, "productoRepository", repositorio);
+        indice.reconstruir();
+    }
+
+    @Test
+    void encuentraPlatosMalEscritos() {
+        assertTrue(contieneNombre(indice.buscarDifuso("amburguesa"), "hamburguesa"));
+        assertTrue(contieneNombre(indice.buscarDifuso("capuchino"), "cappuccino"));
+        assertTrue(contieneNombre(indice.buscarDifuso("enpanada"), "empanada"));
+        // La búsqueda exacta sigue sin encontrar nada con el error de escritura
+        assertTrue(indice.buscar("amburguesa").isEmpty());
+    }
+
+    @Test
+    void lasCoincidenciasExactasVanPrimero() {
+        List<ProductoPublicoDTO> resultados = indice.buscarDifuso("hamburguesa");
+        assertFalse(resultados.isEmpty());
+        assertTrue(resultados.get(0).getNombre().startsWith("hamburguesa"));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void p99DentroDelPresupuesto() {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            indice.buscarDifuso(consultas.get(i % consultas.size()));
+        }
+        long[] tiempos = new long[MEDICIONES];
+        for (int i = 0; i < MEDICIONES; i++) {
+            String consulta = consultas.get(i % consultas.size());
+            long inicio = System.nanoTime();
+            indice.buscarDifuso(consulta);
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tiempos);
+        double p50 = tiempos[MEDICIONES / 2] / 1_000_000.0;
+        double p99 = tiempos[(int) (MEDICIONES * 0.99)] / 1_000_000.0;
+        assertTrue(p99 < P99_MAXIMO_MS, "p99 de " + p99 + " ms (p50 " + p50 + " ms) supera el presupuesto de "
+                + P99_MAXIMO_MS + " ms");
+    }
+
+    private static boolean contieneNombre(List<ProductoPublicoDTO> resultados, String nombre) {
+        return resultados.stream().anyMatch(p -> p.getNombre().startsWith(nombre));
+    }
+
+    private static String palabraAleatoria(Random random) {
+        StringBuilder palabra = new StringBuilder();
+        int silabas = 2 + random.nextInt(3);
+        for (int i = 0; i < silabas; i++) {
+            palabra.append(SILABAS[random.nextInt(SILABAS.length)]);
+        }
+        return palabra.toString();
+    }
+
+    // Cambia, borra o duplica una letra al azar
+    private static String conErrorDeEscritura(String palabra, Random random) {
+        int posicion = random.nextInt(palabra.length());
+        StringBuilder resultado = new StringBuilder(palabra);
+        switch (random.nextInt(3)) {
+            case 0 -> resultado.setCharAt(posicion, (char) ('a' + random.nextInt(26)));
+            case 1 -> resultado.deleteCharAt(posicion);
+            default -> resultado.insert(posicion, palabra.charAt(posicion));
+        }
+        return resultado.toString();
+    }
+}
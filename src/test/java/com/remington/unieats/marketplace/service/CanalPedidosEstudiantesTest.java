@@ -0,0 +1,192 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+import com.remington.unieats.marketplace.model.repository.PedidoRepository;
+
+class CanalPedidosEstudiantesTest {
+
+    private CanalPedidosEstudiantes canal;
+    private PedidoRepository pedidoRepository;
+
+    @BeforeEach
+    void crearCanal() {
+        pedidoRepository = mock(PedidoRepository.class);
+        when(pedidoRepository.findIdsNoFinalesByCorreoComprador(eq("ana"), any())).thenReturn(List.of(1, 2));
+        when(pedidoRepository.findIdsNoFinalesByCorreoComprador(eq("luis"), any())).thenReturn(List.of(3));
+
+        canal = new CanalPedidosEstudiantes() {
+            @Override
+            SseEmitter crearEmisor(long timeoutMs) {
+                return new EmisorDePrueba();
+            }
+        };
+        ReflectionTestUtils.setField(canal, "pedidoRepository", pedidoRepository);
+        ReflectionTestUtils.setField(canal, "timeoutMinutos", 30L);
+        ReflectionTestUtils.setField(canal, "maxPorUsuario", 2);
+    }
+
+    @AfterEach
+    void detenerCanal() {
+        canal.detener();
+    }
+
+    @Test
+    void soloElDuenoRecibeElCambio() throws Exception {
+        EmisorDePrueba ana = suscribir("ana");
+        EmisorDePrueba luis = suscribir("luis");
+        esperarIndice(3);
+
+        canal.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(2, EstadoPedido.EN_PREPARACION));
+
+        String evento = ana.siguiente();
+        assertTrue(evento.contains("event:pedido"), evento);
+        assertTrue(evento.contains("\"pedidoId\":2") || evento.contains("pedidoId=2"), evento);
+        assertNull(luis.enviados.poll(200, TimeUnit.MILLISECONDS), "Luis no debería recibir pedidos de Ana");
+    }
+
+    @Test
+    void unEstadoFinalSaleDelIndice() throws Exception {
+        EmisorDePrueba ana = suscribir("ana");
+        esperarIndice(2);
+
+        canal.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(1, EstadoPedido.CANCELADO));
+        ana.siguiente();
+        assertEquals(1, canal.getPedidosSeguidos());
+
+        // Un pedido que ya no se sigue no genera consultas ni envíos
+        canal.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(1, EstadoPedido.COMPLETADO));
+        assertNull(ana.enviados.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void losPedidosNuevosSeSiguenSiElDuenoEstaConectado() throws Exception {
+        EmisorDePrueba ana = suscribir("ana");
+        esperarIndice(2);
+
+        canal.onPedidoCreado(new PedidoCreadoEvent(10, 7, "ana", EstadoPedido.PENDIENTE));
+        canal.onPedidoCreado(new PedidoCreadoEvent(11, 7, "pedro", EstadoPedido.PENDIENTE));
+        ana.siguiente();
+        assertEquals(3, canal.getPedidosSeguidos());
+
+        canal.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(10, EstadoPedido.EN_PREPARACION));
+        assertTrue(ana.siguiente().contains("EN_PREPARACION"));
+    }
+
+    @Test
+    void losEventosDeUnaConexionLleganEnOrden() throws Exception {
+        EmisorDePrueba ana = suscribir("ana");
+        esperarIndice(2);
+
+        EstadoPedido[] estados = {EstadoPedido.EN_PREPARACION, EstadoPedido.LISTO_PARA_RECOGER, EstadoPedido.COMPLETADO};
+        for (EstadoPedido estado : estados) {
+            canal.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(1, estado));
+        }
+        for (EstadoPedido estado : estados) {
+            assertTrue(ana.siguiente().contains(estado.name()));
+        }
+    }
+
+    @Test
+    void seLimitanLasConexionesPorUsuario() throws Exception {
+        EmisorDePrueba primera = suscribir("ana");
+        suscribir("ana");
+        suscribir("ana");
+
+        assertEquals(2, canal.getConexiones());
+        assertTrue(primera.completado, "La conexión más antigua se cierra");
+    }
+
+    @Test
+    void conectadoLlegaConLosPedidosYaSeguidos() throws Exception {
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        when(pedidoRepository.findIdsNoFinalesByCorreoComprador(eq("ana"), any())).thenAnswer(invocacion -> {
+            leyendo.countDown();
+            bloqueo.await(5, TimeUnit.SECONDS);
+            return List.of(1, 2);
+        });
+        EmisorDePrueba ana = (EmisorDePrueba) canal.suscribir("ana");
+        assertTrue(leyendo.await(2, TimeUnit.SECONDS));
+        // Mientras se carga el índice el cliente sigue consultando
+        assertNull(ana.enviados.poll(200, TimeUnit.MILLISECONDS));
+
+        bloqueo.countDown();
+        assertTrue(ana.siguiente().contains("event:" + CanalPedidosSse.EVENTO_CONECTADO));
+        assertEquals(2, canal.getPedidosSeguidos());
+        canal.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(2, EstadoPedido.LISTO_PARA_RECOGER));
+        assertTrue(ana.siguiente().contains("LISTO_PARA_RECOGER"));
+    }
+
+    @Test
+    void sinIndiceLaConexionSeCierraSinConectado() throws Exception {
+        when(pedidoRepository.findIdsNoFinalesByCorreoComprador(eq("ana"), any()))
+                .thenThrow(new IllegalStateException("base caída"));
+        EmisorDePrueba ana = (EmisorDePrueba) canal.suscribir("ana");
+
+        for (int i = 0; i < 100 && !ana.completado; i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(ana.completado);
+        assertNull(ana.enviados.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    private EmisorDePrueba suscribir(String correo) throws InterruptedException {
+        EmisorDePrueba emisor = (EmisorDePrueba) canal.suscribir(correo);
+        assertTrue(emisor.siguiente().contains("event:" + CanalPedidosSse.EVENTO_CONECTADO));
+        return emisor;
+    }
+
+    private void esperarIndice(int pedidos) throws InterruptedException {
+        for (int i = 0; i < 100 && canal.getPedidosSeguidos() < pedidos; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(pedidos, canal.getPedidosSeguidos());
+    }
+
+    // Guarda el texto de cada evento en lugar de escribirlo en una respuesta HTTP
+    private static class EmisorDePrueba extends SseEmitter {
+        private final BlockingQueue<String> enviados = new LinkedBlockingQueue<>();
+        private volatile boolean completado;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            enviados.add(builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .map(String::valueOf)
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completado = true;
+        }
+
+        private String siguiente() throws InterruptedException {
+            String evento = enviados.poll(5, TimeUnit.SECONDS);
+            assertTrue(evento != null, "No llegó ningún evento");
+            return evento;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+import com.remington.unieats.marketplace.model.repository.PedidoRepository;
+
+class CanalPedidosVendedoresTest {
+
+    private CanalPedidosVendedores canal;
+
+    @BeforeEach
+    void crearCanal() {
+        PedidoRepository pedidoRepository = mock(PedidoRepository.class);
+        when(pedidoRepository.findIdsNoFinalesByTiendaId(eq(1), any())).thenReturn(List.of(100));
+        when(pedidoRepository.findIdsNoFinalesByTiendaId(eq(2), any())).thenReturn(List.of(200));
+
+        canal = new CanalPedidosVendedores() {
+            @Override
+            SseEmitter crearEmisor(long timeoutMs) {
+                return new EmisorDePrueba();
+            }
+        };
+        ReflectionTestUtils.setField(canal, "pedidoRepository", pedidoRepository);
+        ReflectionTestUtils.setField(canal, "timeoutMinutos", 30L);
+        ReflectionTestUtils.setField(canal, "maxPorTienda", 10);
+    }
+
+    @AfterEach
+    void detenerCanal() {
+        canal.detener();
+    }
+
+    @Test
+    void unPedidoNuevoLlegaATodosLosDispositivosDeLaTienda() throws Exception {
+        EmisorDePrueba caja = suscribir(1);
+        EmisorDePrueba cocina = suscribir(1);
+        EmisorDePrueba otraTienda = suscribir(2);
+
+        canal.onPedidoCreado(new PedidoCreadoEvent(101, 1, "ana", EstadoPedido.PENDIENTE));
+
+        assertTrue(caja.siguiente().contains("event:" + CanalPedidosSse.EVENTO_NUEVO));
+        assertTrue(cocina.siguiente().contains("pedidoId=101"));
+        assertNull(otraTienda.enviados.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void losCambiosDeEstadoSeEnrutanPorTienda() throws Exception {
+        EmisorDePrueba tienda1 = suscribir(1);
+        EmisorDePrueba tienda2 = suscribir(2);
+        for (int i = 0; i < 100 && canal.getPedidosSeguidos() < 2; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, canal.getPedidosSeguidos());
+
+        canal.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(200, EstadoPedido.COMPLETADO));
+
+        assertTrue(tienda2.siguiente().contains("COMPLETADO"));
+        assertNull(tienda1.enviados.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, canal.getPedidosSeguidos());
+    }
+
+    @Test
+    void lasTiendasTienenSuPropioLimiteDeDispositivos() throws Exception {
+        ReflectionTestUtils.setField(canal, "maxPorTienda", 3);
+        EmisorDePrueba primero = suscribir(1);
+        for (int i = 0; i < 3; i++) {
+            suscribir(1);
+        }
+
+        assertEquals(3, canal.getConexiones());
+        assertTrue(primero.completado, "El dispositivo más antiguo se cierra");
+    }
+
+    @Test
+    void alDesconectarseUnaTiendaSoloSalenSusPedidos() throws Exception {
+        EmisorDePrueba tienda1 = suscribir(1);
+        suscribir(2);
+        for (int i = 0; i < 100 && canal.getPedidosSeguidos() < 2; i++) {
+            Thread.sleep(20);
+        }
+        canal.onPedidoCreado(new PedidoCreadoEvent(101, 1, "ana", EstadoPedido.PENDIENTE));
+        tienda1.siguiente();
+        assertEquals(3, canal.getPedidosSeguidos());
+
+        tienda1.complete();
+
+        assertEquals(1, canal.getPedidosSeguidos());
+        canal.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(101, EstadoPedido.EN_PREPARACION));
+        assertNull(tienda1.enviados.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    private EmisorDePrueba suscribir(Integer tiendaId) throws InterruptedException {
+        EmisorDePrueba emisor = (EmisorDePrueba) canal.suscribir(tiendaId);
+        assertTrue(emisor.siguiente().contains("event:" + CanalPedidosSse.EVENTO_CONECTADO));
+        return emisor;
+    }
+
+    private static class EmisorDePrueba extends SseEmitter {
+        private final BlockingQueue<String> enviados = new LinkedBlockingQueue<>();
+        private volatile boolean completado;
+        private Runnable alCompletar = () -> { };
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            enviados.add(builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .map(String::valueOf)
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            alCompletar = callback;
+        }
+
+        // Como lo haría el contenedor al cerrar la respuesta
+        @Override
+        public synchronized void complete() {
+            completado = true;
+            alCompletar.run();
+        }
+
+        private String siguiente() throws InterruptedException {
+            String evento = enviados.poll(5, TimeUnit.SECONDS);
+            assertTrue(evento != null, "No llegó ningún evento");
+            return evento;
+        }
+    }
+}
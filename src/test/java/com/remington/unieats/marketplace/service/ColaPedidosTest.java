@@ -0,0 +1,153 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.remington.unieats.marketplace.dto.PedidoDTO;
+import com.remington.unieats.marketplace.dto.SolicitudPedidoDTO;
+import com.remington.unieats.marketplace.model.entity.Pedido;
+import com.remington.unieats.marketplace.model.entity.Usuario;
+import com.remington.unieats.marketplace.model.enums.EstadoSolicitudPedido;
+import com.remington.unieats.marketplace.model.repository.UsuarioRepository;
+
+class ColaPedidosTest {
+
+    private ColaPedidos cola;
+    private PedidoService pedidoService;
+    private PlatformTransactionManager transacciones;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @BeforeEach
+    void crearCola() {
+        pedidoService = mock(PedidoService.class);
+        when(pedidoService.crearPedido(any(), any())).thenAnswer(inv -> pedido());
+        UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+        when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(new Usuario()));
+        transacciones = mock(PlatformTransactionManager.class);
+
+        cola = new ColaPedidos();
+        ReflectionTestUtils.setField(cola, "pedidoService", pedidoService);
+        ReflectionTestUtils.setField(cola, "usuarioRepository", usuarioRepository);
+        ReflectionTestUtils.setField(cola, "transactionTemplate", new TransactionTemplate(transacciones));
+        ReflectionTestUtils.setField(cola, "habilitada", true);
+        ReflectionTestUtils.setField(cola, "capacidad", 2);
+        ReflectionTestUtils.setField(cola, "tamanoLote", 10);
+        ReflectionTestUtils.setField(cola, "retencionMinutos", 30L);
+    }
+
+    @AfterEach
+    void detenerCola() throws InterruptedException {
+        cola.detener();
+    }
+
+    @Test
+    void conLaColaLlenaNoAceptaMas() throws Exception {
+        CountDownLatch escritorOcupado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(pedidoService.crearPedido(any(), any())).thenAnswer(inv -> {
+            escritorOcupado.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return pedido();
+        });
+        cola.iniciar();
+
+        SolicitudPedidoDTO primera = cola.encolar(carrito(), "estudiante").orElseThrow();
+        assertTrue(escritorOcupado.await(5, TimeUnit.SECONDS));
+        // El escritor está ocupado con la primera: caben dos más y la cuarta se rechaza
+        assertTrue(cola.encolar(carrito(), "estudiante").isPresent());
+        assertTrue(cola.encolar(carrito(), "estudiante").isPresent());
+        assertTrue(cola.encolar(carrito(), "estudiante").isEmpty());
+
+        liberar.countDown();
+        SolicitudPedidoDTO estado = esperarResuelta(primera.getIdProvisional());
+        assertEquals(EstadoSolicitudPedido.CONFIRMADA, estado.getEstado());
+    }
+
+    @Test
+    void unPedidoInvalidoNoArrastraAlResto() {
+        PedidoDTO invalido = carrito();
+        when(pedidoService.crearPedido(any(), any())).thenAnswer(inv -> {
+            if (inv.getArgument(0) == invalido) {
+                throw new RuntimeException("Producto no encontrado: 99");
+            }
+            return pedido();
+        });
+
+        List<ColaPedidos.Solicitud> lote = new ArrayList<>();
+        lote.add(new ColaPedidos.Solicitud("a", carrito(), "estudiante"));
+        lote.add(new ColaPedidos.Solicitud("b", invalido, "estudiante"));
+        lote.add(new ColaPedidos.Solicitud("c", carrito(), "estudiante"));
+        cola.escribirLote(lote);
+
+        assertEquals(EstadoSolicitudPedido.CONFIRMADA, lote.get(0).aDTO().getEstado());
+        assertEquals(EstadoSolicitudPedido.RECHAZADA, lote.get(1).aDTO().getEstado());
+        assertEquals("Producto no encontrado: 99", lote.get(1).aDTO().getMensaje());
+        assertEquals(EstadoSolicitudPedido.CONFIRMADA, lote.get(2).aDTO().getEstado());
+        // Un intento en lote y luego una transacción por pedido
+        verify(transacciones, times(4)).getTransaction(any());
+    }
+
+    @Test
+    void soloElCompradorVeSuSolicitud() {
+        cola.iniciar();
+        SolicitudPedidoDTO solicitud = cola.encolar(carrito(), "estudiante").orElseThrow();
+        assertTrue(cola.consultar(solicitud.getIdProvisional(), "estudiante").isPresent());
+        assertTrue(cola.consultar(solicitud.getIdProvisional(), "otro").isEmpty());
+    }
+
+    @Test
+    void rechazaCarritosVacios() {
+        cola.iniciar();
+        PedidoDTO vacio = new PedidoDTO();
+        vacio.setTiendaId(1);
+        assertThrows(IllegalArgumentException.class, () -> cola.encolar(vacio, "estudiante"));
+    }
+
+    private SolicitudPedidoDTO esperarResuelta(String id) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            SolicitudPedidoDTO estado = cola.consultar(id, "estudiante").orElseThrow();
+            if (estado.getEstado() != EstadoSolicitudPedido.EN_COLA) {
+                return estado;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("La solicitud " + id + " sigue en cola");
+    }
+
+    private Pedido pedido() {
+        Pedido pedido = new Pedido();
+        pedido.setId(ids.incrementAndGet());
+        return pedido;
+    }
+
+    private static PedidoDTO carrito() {
+        PedidoDTO dto = new PedidoDTO();
+        dto.setTiendaId(1);
+        PedidoDTO.ItemPedidoDTO item = new PedidoDTO.ItemPedidoDTO();
+        item.setId(1);
+        item.setCantidad(1);
+        dto.setItems(new ArrayList<>(List.of(item)));
+        return dto;
+    }
+}
@@ -0,0 +1,40 @@
+package com.remington.unieats.marketplace.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * StatementInspector de pruebas: registra cada sentencia SQL que Hibernate envía.
+ * Se activa con hibernate.session_factory.statement_inspector.
+ */
+public class ContadorSentencias implements StatementInspector {
+
+    private static final List<String> sentencias = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        sentencias.add(sql);
+        return sql;
+    }
+
+    public static void reiniciar() {
+        sentencias.clear();
+    }
+
+    // Las lecturas de secuencias no cuentan: se piden una vez por bloque de ids, no por pedido
+    public static long contar(String tipo) {
+        String prefijo = tipo.toLowerCase(Locale.ROOT);
+        return sentencias.stream()
+                .map(sql -> sql.trim().toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith(prefijo))
+                .filter(sql -> !sql.contains("next value for") && !sql.contains("nextval("))
+                .count();
+    }
+
+    public static List<String> getSentencias() {
+        return List.copyOf(sentencias);
+    }
+}
@@ -0,0 +1,116 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.remington.unieats.marketplace.dto.PedidoDTO;
+import com.remington.unieats.marketplace.model.entity.Opcion;
+import com.remington.unieats.marketplace.model.entity.Pedido;
+import com.remington.unieats.marketplace.model.entity.Producto;
+import com.remington.unieats.marketplace.model.entity.Tienda;
+import com.remington.unieats.marketplace.model.entity.Usuario;
+
+/**
+ * Verifica que crearPedido lea el carrito con un número fijo de consultas,
+ * sin importar cuántas líneas tenga.
+ */
+@PruebaJpaPedidos
+@Import(PedidoServiceImpl.class)
+class CrearPedidoConsultasTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    private DatosPedidos datos;
+    private Usuario comprador;
+    private Tienda tienda;
+    private Tienda otraTienda;
+    private final List<Producto> productos = new ArrayList<>();
+    private List<Opcion> opciones;
+
+    @BeforeEach
+    void prepararDatos() {
+        datos = new DatosPedidos(em);
+        comprador = datos.usuario("comprador");
+        tienda = datos.tienda("Tienda Uno");
+        otraTienda = datos.tienda("Tienda Dos");
+        opciones = datos.opciones(tienda, 4);
+        for (int i = 0; i < 20; i++) {
+            productos.add(datos.producto(tienda, "Producto " + i, 10000));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void lasConsultasNoCrecenConElTamanoDelCarrito() {
+        long conUnaLinea = selectsAlCrear(carrito(1));
+        long conSeisLineas = selectsAlCrear(carrito(6));
+        long conVeinteLineas = selectsAlCrear(carrito(20));
+
+        assertEquals(conUnaLinea, conSeisLineas, "SELECTs con 1 línea vs 6: " + ContadorSentencias.getSentencias());
+        assertEquals(conUnaLinea, conVeinteLineas);
+        // Tienda, productos y opciones
+        assertTrue(conUnaLinea <= 3, "Se esperaban a lo sumo 3 SELECTs y hubo " + conUnaLinea);
+    }
+
+    @Test
+    void calculaElTotalConLasOpciones() {
+        Pedido pedido = pedidoService.crearPedido(carrito(2), comprador);
+        // (10000 + 2 opciones x 500) x cantidad 2, por cada una de las 2 líneas
+        assertEquals(0, new BigDecimal("44000").compareTo(pedido.getTotal()));
+    }
+
+    @Test
+    void rechazaProductosDeOtraTienda() {
+        Producto ajeno = datos.producto(otraTienda, "Ajeno", 10000);
+        em.flush();
+        PedidoDTO dto = carrito(2);
+        PedidoDTO.ItemPedidoDTO linea = new PedidoDTO.ItemPedidoDTO();
+        linea.setId(ajeno.getId());
+        linea.setCantidad(1);
+        dto.getItems().add(linea);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> pedidoService.crearPedido(dto, comprador));
+        assertTrue(error.getMessage().contains("no pertenece a la tienda"));
+    }
+
+    private long selectsAlCrear(PedidoDTO dto) {
+        em.clear();
+        ContadorSentencias.reiniciar();
+        pedidoService.crearPedido(dto, comprador);
+        em.flush();
+        return ContadorSentencias.contar("select");
+    }
+
+    private PedidoDTO carrito(int lineas) {
+        PedidoDTO dto = new PedidoDTO();
+        dto.setTiendaId(tienda.getId());
+        dto.setTipoEntrega("recoger");
+        dto.setTipoPago("efectivo");
+        List<PedidoDTO.ItemPedidoDTO> items = new ArrayList<>();
+        for (int i = 0; i < lineas; i++) {
+            PedidoDTO.ItemPedidoDTO item = new PedidoDTO.ItemPedidoDTO();
+            item.setId(productos.get(i).getId());
+            item.setCantidad(2);
+            item.setOpcionesIds(List.of(opciones.get(i % 4).getId(), opciones.get((i + 1) % 4).getId()));
+            items.add(item);
+        }
+        dto.setItems(items);
+        return dto;
+    }
+}
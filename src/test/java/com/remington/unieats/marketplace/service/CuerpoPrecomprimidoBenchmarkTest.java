@@ -0,0 +1,97 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remington.unieats.marketplace.dto.ProductoPublicoDTO;
+import com.remington.unieats.marketplace.model.enums.ClasificacionProducto;
+
+/**
+ * Compara el camino anterior de /productos (Jackson + gzip en cada petición) con la
+ * escritura de un {@link CuerpoPrecomprimido} ya armado. La comparación de tiempos lleva
+ * la etiqueta "benchmark"; en la suite normal solo se revisa que el gzip sea el mismo JSON.
+ */
+class CuerpoPrecomprimidoBenchmarkTest {
+
+    private static final int PRODUCTOS = 2_000;
+    private static final int CALENTAMIENTO = 300;
+    private static final int MEDICIONES = 1_000;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static List<ProductoPublicoDTO> productos;
+    private static CuerpoPrecomprimido cuerpo;
+
+    @BeforeAll
+    static void prepararCatalogo() throws IOException {
+        productos = new ArrayList<>(PRODUCTOS);
+        ClasificacionProducto[] clasificaciones = ClasificacionProducto.values();
+        for (int i = 1; i <= PRODUCTOS; i++) {
+            productos.add(new ProductoPublicoDTO(i, "Producto " + i, "Descripción del producto número " + i,
+                    BigDecimal.valueOf(5000 + i), "/uploads/productos/" + i + ".png",
+                    clasificaciones[i % clasificaciones.length], i % 40, "Tienda " + (i % 40)));
+        }
+        cuerpo = CuerpoPrecomprimido.de(objectMapper.writeValueAsBytes(productos));
+    }
+
+    @Test
+    void elGzipDescomprimeAlMismoJson() throws IOException {
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(cuerpo.getGzip()))) {
+            assertArrayEquals(cuerpo.getPlano(), entrada.readAllBytes());
+        }
+        assertArrayEquals(objectMapper.writeValueAsBytes(productos), cuerpo.getPlano());
+        assertTrue(cuerpo.getGzip().length < cuerpo.getPlano().length);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void escribirPrecomprimidoEsMasRapidoQueSerializarPorPeticion() throws IOException {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            serializarYComprimir();
+            escribirPrecomprimido();
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < MEDICIONES; i++) {
+            serializarYComprimir();
+        }
+        double porPeticionUs = (System.nanoTime() - inicio) / 1_000.0 / MEDICIONES;
+
+        inicio = System.nanoTime();
+        for (int i = 0; i < MEDICIONES; i++) {
+            escribirPrecomprimido();
+        }
+        double precomprimidoUs = (System.nanoTime() - inicio) / 1_000.0 / MEDICIONES;
+
+        assertTrue(precomprimidoUs * 10 < porPeticionUs, "El cuerpo precomprimido debería ser al menos 10 veces más"
+                + " rápido de escribir (" + precomprimidoUs + " us/op frente a " + porPeticionUs + " us/op)");
+    }
+
+    // Lo que hacía cada petición: serializar la lista y comprimirla al vuelo
+    private static int serializarYComprimir() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            objectMapper.writeValue(gzip, productos);
+        }
+        return salida.size();
+    }
+
+    private static int escribirPrecomprimido() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(cuerpo.getGzip().length);
+        salida.write(cuerpo.getGzip());
+        return salida.size();
+    }
+}
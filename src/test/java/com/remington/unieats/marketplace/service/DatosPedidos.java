@@ -0,0 +1,108 @@
+package com.remington.unieats.marketplace.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.remington.unieats.marketplace.model.entity.CategoriaOpcion;
+import com.remington.unieats.marketplace.model.entity.DetallePedido;
+import com.remington.unieats.marketplace.model.entity.Opcion;
+import com.remington.unieats.marketplace.model.entity.Pedido;
+import com.remington.unieats.marketplace.model.entity.Producto;
+import com.remington.unieats.marketplace.model.entity.Tienda;
+import com.remington.unieats.marketplace.model.entity.Usuario;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+import com.remington.unieats.marketplace.model.enums.EstadoTienda;
+
+/**
+ * Datos de prueba de las pruebas JPA de pedidos. Cada método arma la entidad solo con
+ * los campos obligatorios y la persiste.
+ */
+final class DatosPedidos {
+
+    private final TestEntityManager em;
+
+    DatosPedidos(TestEntityManager em) {
+        this.em = em;
+    }
+
+    // Sin roles y con correo alias@unieats.test
+    Usuario usuario(String alias) {
+        Usuario usuario = new Usuario();
+        usuario.setNombre(alias);
+        usuario.setApellido("Prueba");
+        usuario.setCorreo(alias + "@unieats.test");
+        usuario.setCedula("ced-" + alias);
+        usuario.setContrasenaHash("x");
+        usuario.setRoles(new HashSet<>());
+        return em.persist(usuario);
+    }
+
+    // Tienda activa con su propio vendedor
+    Tienda tienda(String nombre) {
+        Tienda tienda = new Tienda();
+        tienda.setNombre(nombre);
+        tienda.setNit("nit-" + nombre);
+        tienda.setEstado(EstadoTienda.ACTIVA);
+        tienda.setVendedor(usuario("vendedor-" + nombre.replace(' ', '-')));
+        return em.persist(tienda);
+    }
+
+    Producto producto(Tienda tienda, String nombre, int precio) {
+        Producto producto = new Producto();
+        producto.setNombre(nombre);
+        producto.setPrecio(BigDecimal.valueOf(precio));
+        producto.setTienda(tienda);
+        return em.persist(producto);
+    }
+
+    // Opciones "Extra 0", "Extra 1", ... de 500 cada una, en una categoría "Adiciones"
+    List<Opcion> opciones(Tienda tienda, int cantidad) {
+        CategoriaOpcion categoria = new CategoriaOpcion();
+        categoria.setNombre("Adiciones");
+        categoria.setTienda(tienda);
+        em.persist(categoria);
+        List<Opcion> opciones = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            Opcion opcion = new Opcion();
+            opcion.setNombre("Extra " + i);
+            opcion.setPrecioAdicional(BigDecimal.valueOf(500));
+            opcion.setCategoria(categoria);
+            opciones.add(em.persist(opcion));
+        }
+        return opciones;
+    }
+
+    Pedido pedido(Usuario comprador, Tienda tienda, EstadoPedido estado, int total) {
+        return pedido(comprador, tienda, estado, total, LocalDateTime.now());
+    }
+
+    // La fecha vale tanto de creación como de última actualización
+    Pedido pedido(Usuario comprador, Tienda tienda, EstadoPedido estado, int total, LocalDateTime fecha) {
+        Pedido pedido = new Pedido();
+        pedido.setComprador(comprador);
+        pedido.setTienda(tienda);
+        pedido.setEstado(estado);
+        pedido.setTotal(BigDecimal.valueOf(total));
+        pedido.setTipoEntrega("recoger");
+        pedido.setTipoPago("efectivo");
+        pedido.setFechaCreacion(fecha);
+        pedido.setActualizadoEn(fecha);
+        return em.persist(pedido);
+    }
+
+    DetallePedido detalle(Pedido pedido, Producto producto, int cantidad, int precio, Set<Opcion> opciones) {
+        DetallePedido detalle = new DetallePedido();
+        detalle.setPedido(pedido);
+        detalle.setProducto(producto);
+        detalle.setCantidad(cantidad);
+        detalle.setPrecioUnitario(BigDecimal.valueOf(precio));
+        detalle.setOpcionesSeleccionadas(new HashSet<>(opciones));
+        return em.persist(detalle);
+    }
+}
@@ -0,0 +1,86 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+
+import com.remington.unieats.marketplace.dto.ProductoPublicoDTO;
+import com.remington.unieats.marketplace.model.enums.ClasificacionProducto;
+import com.remington.unieats.marketplace.model.repository.ProductoRepository;
+
+/**
+ * El ETag del catálogo solo cambia cuando el índice de búsqueda ya tiene el cambio: una
+ * búsqueda atendida a mitad del evento sale con el ETag anterior y el cliente la vuelve a
+ * descargar, en lugar de guardar el resultado viejo con el ETag nuevo y recibir 304 sobre él.
+ */
+class EtagCatalogoTest {
+
+    private AnnotationConfigApplicationContext contexto;
+    private ProductoRepository productoRepository;
+    // ETag que vería una búsqueda atendida mientras el índice lee el producto modificado
+    private final List<String> etagsDuranteLaActualizacion = new ArrayList<>();
+
+    @BeforeEach
+    void crearContexto() {
+        productoRepository = mock(ProductoRepository.class);
+        when(productoRepository.findPublicosByEstadoTienda(any()))
+                .thenReturn(List.of(producto(1, "Empanada de Pipián")));
+
+        contexto = new AnnotationConfigApplicationContext();
+        contexto.registerBean(TransactionalEventListenerFactory.class);
+        contexto.registerBean(ProductoRepository.class, () -> productoRepository);
+        // La caché se registra primero: sin orden explícito su listener correría antes que el del índice
+        contexto.registerBean(CatalogoCache.class, () -> new CatalogoCache(16));
+        contexto.registerBean(IndiceBusquedaProductos.class);
+        contexto.refresh();
+    }
+
+    @AfterEach
+    void cerrarContexto() {
+        contexto.close();
+    }
+
+    @Test
+    void elEtagCambiaDespuesDeActualizarElIndice() {
+        CatalogoCache cache = contexto.getBean(CatalogoCache.class);
+        IndiceBusquedaProductos indice = contexto.getBean(IndiceBusquedaProductos.class);
+        String etagAnterior = cache.getEtag();
+        assertEquals(List.of(1), ids(indice.buscar("empanada")));
+
+        when(productoRepository.findPublicoVisibleById(eq(1), any())).thenAnswer(invocacion -> {
+            etagsDuranteLaActualizacion.add(cache.getEtag());
+            return Optional.of(producto(1, "Arepa de Choclo"));
+        });
+        contexto.publishEvent(CatalogoModificadoEvent.deProducto(1, 1));
+
+        assertEquals(List.of(etagAnterior), etagsDuranteLaActualizacion);
+        assertNotEquals(etagAnterior, cache.getEtag());
+        // Con el ETag nuevo la búsqueda ya devuelve el producto cambiado
+        assertTrue(indice.buscar("empanada").isEmpty());
+        assertEquals(List.of(1), ids(indice.buscar("arepa")));
+    }
+
+    private static List<Integer> ids(List<ProductoPublicoDTO> resultados) {
+        return resultados.stream().map(ProductoPublicoDTO::getId).toList();
+    }
+
+    private static ProductoPublicoDTO producto(Integer id, String nombre) {
+        return new ProductoPublicoDTO(id, nombre, "", BigDecimal.valueOf(6000), null,
+                ClasificacionProducto.values()[0], 1, "La Esquina");
+    }
+}
@@ -0,0 +1,143 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.remington.unieats.marketplace.dto.PaginaDTO;
+import com.remington.unieats.marketplace.dto.PedidoCompradorDTO;
+import com.remington.unieats.marketplace.model.entity.Opcion;
+import com.remington.unieats.marketplace.model.entity.Pedido;
+import com.remington.unieats.marketplace.model.entity.Producto;
+import com.remington.unieats.marketplace.model.entity.Tienda;
+import com.remington.unieats.marketplace.model.entity.Usuario;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+
+/**
+ * Historial paginado del estudiante: los activos van primero y completos, los
+ * finalizados se recorren con cursor, y cada página cuesta las mismas consultas
+ * sin importar cuántos pedidos tenga el estudiante.
+ */
+@PruebaJpaPedidos
+@Import(PedidoServiceImpl.class)
+class HistorialPedidosCompradorTest {
+
+    private static final String CORREO = "fiel@unieats.test";
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    private DatosPedidos datos;
+    private Usuario comprador;
+    private Tienda tienda;
+    private Producto producto;
+    private List<Opcion> opciones;
+    private final Set<Integer> activos = new HashSet<>();
+
+    @BeforeEach
+    void crearHistorial() {
+        datos = new DatosPedidos(em);
+        comprador = datos.usuario("fiel");
+        Usuario otro = datos.usuario("otro");
+        tienda = datos.tienda("Tienda Historial");
+        opciones = datos.opciones(tienda, 2);
+        producto = datos.producto(tienda, "Arepa", 8000);
+
+        // 25 finalizados antiguos y 3 activos recientes; el activo más viejo es anterior a todos
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 8, 0);
+        for (int i = 0; i < 25; i++) {
+            pedido(comprador, i % 5 == 0 ? EstadoPedido.CANCELADO : EstadoPedido.COMPLETADO, base.plusHours(i));
+        }
+        activos.add(pedido(comprador, EstadoPedido.PENDIENTE, base.plusDays(5)).getId());
+        activos.add(pedido(comprador, EstadoPedido.LISTO_PARA_RECOGER, base.plusDays(4)).getId());
+        activos.add(pedido(comprador, EstadoPedido.EN_PREPARACION, base.minusDays(1)).getId());
+        pedido(otro, EstadoPedido.PENDIENTE, base);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void laPrimeraPaginaEmpiezaPorTodosLosActivos() {
+        PaginaDTO<PedidoCompradorDTO> pagina = pedidoService.getMisPedidos(CORREO, null, 2);
+
+        List<PedidoCompradorDTO> items = pagina.getItems();
+        assertEquals(5, items.size());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(activos.contains(items.get(i).getId()), "Los activos van primero");
+        }
+        assertFalse(activos.contains(items.get(3).getId()));
+        assertNotNull(pagina.getNextCursor());
+    }
+
+    @Test
+    void elCursorRecorreLosFinalizadosSinRepetir() {
+        Set<Integer> vistos = new HashSet<>();
+        PaginaDTO<PedidoCompradorDTO> pagina = pedidoService.getMisPedidos(CORREO, null, 10);
+        pagina.getItems().forEach(p -> assertTrue(vistos.add(p.getId())));
+        int paginas = 1;
+        while (pagina.getNextCursor() != null) {
+            pagina = pedidoService.getMisPedidos(CORREO, pagina.getNextCursor(), 10);
+            pagina.getItems().forEach(p -> {
+                assertTrue(vistos.add(p.getId()), "Pedido repetido: " + p.getId());
+                assertFalse(activos.contains(p.getId()));
+            });
+            paginas++;
+        }
+        assertEquals(28, vistos.size());
+        assertEquals(3, paginas);
+    }
+
+    @Test
+    void cadaPaginaCuestaLasMismasConsultas() {
+        ContadorSentencias.reiniciar();
+        PaginaDTO<PedidoCompradorDTO> primera = pedidoService.getMisPedidos(CORREO, null, 10);
+        assertEquals(3, ContadorSentencias.contar("select"), "Sentencias: " + ContadorSentencias.getSentencias());
+
+        ContadorSentencias.reiniciar();
+        pedidoService.getMisPedidos(CORREO, primera.getNextCursor(), 10);
+        assertEquals(2, ContadorSentencias.contar("select"), "Sentencias: " + ContadorSentencias.getSentencias());
+        assertFalse(ContadorSentencias.getSentencias().stream().anyMatch(sql -> sql.contains("usuario_roles")));
+    }
+
+    @Test
+    void lasLineasCoincidenConLaListaCompleta() {
+        List<PedidoCompradorDTO> completa = pedidoService.getMisPedidos(em.find(Usuario.class, comprador.getId()));
+        PedidoCompradorDTO paginado = pedidoService.getMisPedidos(CORREO, null, 1).getItems().get(0);
+        PedidoCompradorDTO esperado = completa.stream().filter(p -> p.getId().equals(paginado.getId())).findFirst().get();
+
+        assertEquals(List.of("2x Arepa (+ Extra 0, + Extra 1)", "1x Arepa"), paginado.getItems());
+        assertEquals(esperado.getItems(), paginado.getItems());
+        assertEquals("Tienda Historial", paginado.getNombreTienda());
+        assertEquals(28, completa.size());
+    }
+
+    @Test
+    void unCursorInvalidoSeRechaza() {
+        assertThrows(IllegalArgumentException.class, () -> pedidoService.getMisPedidos(CORREO, "ayer", 10));
+        assertNull(pedidoService.getMisPedidos(CORREO, null, 50).getNextCursor());
+    }
+
+    private Pedido pedido(Usuario dueno, EstadoPedido estado, LocalDateTime fecha) {
+        Pedido pedido = datos.pedido(dueno, tienda, estado, 26000, fecha);
+        datos.detalle(pedido, producto, 2, 9000, Set.copyOf(opciones));
+        datos.detalle(pedido, producto, 1, 8000, Set.of());
+        return pedido;
+    }
+}
@@ -0,0 +1,142 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.remington.unieats.marketplace.dto.ProductoPublicoDTO;
+import com.remington.unieats.marketplace.model.enums.ClasificacionProducto;
+import com.remington.unieats.marketplace.model.enums.EstadoTienda;
+import com.remington.unieats.marketplace.model.repository.ProductoRepository;
+
+class IndiceBusquedaProductosTest {
+
+    private ProductoRepository productoRepository;
+    private IndiceBusquedaProductos indice;
+    private final List<ProductoPublicoDTO> productos = new ArrayList<>();
+
+    @BeforeEach
+    void crearIndice() {
+        productos.add(producto(1, "Café Americano", "Tinto grande", 1, "Cafetería Central"));
+        productos.add(producto(2, "Buñuelo", "Con queso costeño", 1, "Cafetería Central"));
+        productos.add(producto(3, "Hamburguesa BBQ", "Con tocineta", 2, "La Parrilla"));
+
+        productoRepository = mock(ProductoRepository.class);
+        when(productoRepository.findPublicosByEstadoTienda(any())).thenAnswer(invocacion -> List.copyOf(productos));
+        indice = new IndiceBusquedaProductos();
+        ReflectionTestUtils.setField(indice, "productoRepository", productoRepository);
+    }
+
+    @Test
+    void tokenizaEnMinusculasSinTildesNiSignos() {
+        assertEquals(List.of("cafe", "con", "leche", "2x1"), IndiceBusquedaProductos.tokenizar("Café con LECHE, ¡2x1!"));
+        assertEquals(List.of("bunuelo", "costeno"), IndiceBusquedaProductos.tokenizar("  Buñuelo--costeño "));
+        assertTrue(IndiceBusquedaProductos.tokenizar(null).isEmpty());
+        assertTrue(IndiceBusquedaProductos.tokenizar("   ").isEmpty());
+    }
+
+    @Test
+    void lasTildesNoImportanEnNingunSentido() {
+        assertEquals(List.of(1), ids(indice.buscar("cafe americano")));
+        assertEquals(List.of(1), ids(indice.buscar("CAFÉ américano")));
+        assertEquals(List.of(2), ids(indice.buscar("bunuelo")));
+        assertEquals(List.of(2), ids(indice.buscar("queso costeno")));
+        // El nombre de la tienda también se indexa normalizado
+        assertTrue(ids(indice.buscar("cafeteria")).containsAll(List.of(1, 2)));
+    }
+
+    @Test
+    void unCambioDeProductoSoloVuelveALeerEseProducto() {
+        indice.buscar("cafe");
+        clearInvocations(productoRepository);
+        when(productoRepository.findPublicoVisibleById(eq(3), any()))
+                .thenReturn(Optional.of(producto(3, "Hamburguesa Doble", "Con tocineta", 2, "La Parrilla")));
+        when(productoRepository.findPublicoVisibleById(eq(2), any())).thenReturn(Optional.empty());
+
+        indice.onCatalogoModificado(CatalogoModificadoEvent.deProducto(2, 3));
+        indice.onCatalogoModificado(CatalogoModificadoEvent.deProducto(1, 2));
+
+        verify(productoRepository, never()).findPublicosByEstadoTienda(any());
+        assertEquals(List.of(3), ids(indice.buscar("doble")));
+        assertTrue(indice.buscar("bbq").isEmpty());
+        assertTrue(indice.buscar("bunuelo").isEmpty(), "Un producto que dejó de ser visible sale del índice");
+        assertEquals(List.of(1), ids(indice.buscar("cafe")));
+    }
+
+    @Test
+    void unCambioDeTiendaReconstruyeCompleto() {
+        indice.buscar("cafe");
+        productos.remove(2);
+
+        indice.onCatalogoModificado(CatalogoModificadoEvent.deTienda(2));
+
+        verify(productoRepository, times(2)).findPublicosByEstadoTienda(EstadoTienda.ACTIVA);
+        assertTrue(indice.buscar("hamburguesa").isEmpty());
+    }
+
+    @Test
+    void unEventoAntesDeLaPrimeraBusquedaNoCarga() {
+        indice.onCatalogoModificado(CatalogoModificadoEvent.deProducto(1, 1));
+
+        verify(productoRepository, never()).findPublicosByEstadoTienda(any());
+        verify(productoRepository, never()).findPublicoVisibleById(any(), any());
+    }
+
+    @Test
+    void unEventoDuranteLaPrimeraCargaNoSePierde() throws InterruptedException {
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        // La primera carga lee el catálogo antes del commit del producto 4
+        when(productoRepository.findPublicosByEstadoTienda(any())).thenAnswer(invocacion -> {
+            List<ProductoPublicoDTO> leidos = List.copyOf(productos);
+            leyendo.countDown();
+            bloqueo.await(5, TimeUnit.SECONDS);
+            return leidos;
+        });
+        when(productoRepository.findPublicoVisibleById(eq(4), any()))
+                .thenReturn(Optional.of(producto(4, "Tamal Tolimense", "Con arroz", 2, "La Parrilla")));
+
+        Thread primeraBusqueda = new Thread(() -> indice.buscar("cafe"));
+        primeraBusqueda.start();
+        assertTrue(leyendo.await(2, TimeUnit.SECONDS));
+        Thread commit = new Thread(() -> indice.onCatalogoModificado(CatalogoModificadoEvent.deProducto(2, 4)));
+        commit.start();
+        // El evento llega con la carga todavía en curso
+        while (commit.isAlive() && commit.getState() != Thread.State.BLOCKED) {
+            Thread.onSpinWait();
+        }
+        bloqueo.countDown();
+        primeraBusqueda.join(2000);
+        commit.join(2000);
+
+        assertEquals(List.of(4), ids(indice.buscar("tamal")));
+    }
+
+    private static List<Integer> ids(List<ProductoPublicoDTO> resultados) {
+        return resultados.stream().map(ProductoPublicoDTO::getId).toList();
+    }
+
+    private static ProductoPublicoDTO producto(Integer id, String nombre, String descripcion, Integer tiendaId,
+            String tienda) {
+        return new ProductoPublicoDTO(id, nombre, descripcion, BigDecimal.valueOf(8000), null,
+                ClasificacionProducto.values()[0], tiendaId, tienda);
+    }
+}
@@ -0,0 +1,127 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.remington.unieats.marketplace.dto.PedidoDTO;
+import com.remington.unieats.marketplace.model.entity.Opcion;
+import com.remington.unieats.marketplace.model.entity.Producto;
+import com.remington.unieats.marketplace.model.entity.Tienda;
+import com.remington.unieats.marketplace.model.entity.Usuario;
+
+/**
+ * Verifica que el número de INSERT preparados al crear un pedido no crezca con el carrito
+ * (1, 5 y 20 líneas, dos opciones por línea): pedido, detalles y filas de opciones van cada
+ * uno en un lote JDBC. La medición de tiempos lleva la etiqueta "benchmark" y solo corre con
+ * -Pbenchmark. Las subclases fijan el dialecto.
+ */
+// El @Transactional de @DataJpaTest no alcanza a los métodos heredados de esta clase
+@Transactional
+abstract class InsercionPedidosBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(InsercionPedidosBenchmark.class);
+
+    private static final int[] TAMANOS_CARRITO = {1, 5, 20};
+    private static final int CALENTAMIENTO = 20;
+    private static final int MEDICIONES = 100;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    private Usuario comprador;
+    private Tienda tienda;
+    private final List<Producto> productos = new ArrayList<>();
+    private List<Opcion> opciones;
+
+    protected abstract String nombreDialecto();
+
+    @BeforeEach
+    void prepararDatos() {
+        DatosPedidos datos = new DatosPedidos(em);
+        comprador = datos.usuario("comprador");
+        tienda = datos.tienda("Tienda Lotes");
+        opciones = datos.opciones(tienda, 4);
+        for (int i = 0; i < 20; i++) {
+            productos.add(datos.producto(tienda, "Producto " + i, 10000));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void lasInsercionesVanEnLotes() {
+        Map<Integer, Long> insertsPorTamano = new LinkedHashMap<>();
+        for (int lineas : TAMANOS_CARRITO) {
+            ContadorSentencias.reiniciar();
+            crear(lineas);
+            insertsPorTamano.put(lineas, ContadorSentencias.contar("insert"));
+        }
+
+        // pedido + detalles + opciones seleccionadas
+        assertTrue(insertsPorTamano.get(1) <= 3, "INSERT con 1 línea: " + insertsPorTamano.get(1));
+        assertEquals(insertsPorTamano.get(1), insertsPorTamano.get(20),
+                "Los INSERT preparados no deberían crecer con el carrito: " + insertsPorTamano);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void tiemposPorTamanoDeCarrito() {
+        for (int lineas : TAMANOS_CARRITO) {
+            for (int i = 0; i < CALENTAMIENTO; i++) {
+                crear(lineas);
+            }
+            long[] tiempos = new long[MEDICIONES];
+            for (int i = 0; i < MEDICIONES; i++) {
+                tiempos[i] = crear(lineas);
+            }
+            Arrays.sort(tiempos);
+            logger.info("[{}] carrito de {} líneas: p50={} ms, p99={} ms", nombreDialecto(), lineas,
+                    tiempos[MEDICIONES / 2] / 1_000_000.0, tiempos[(int) (MEDICIONES * 0.99)] / 1_000_000.0);
+        }
+    }
+
+    private long crear(int lineas) {
+        PedidoDTO dto = carrito(lineas);
+        long inicio = System.nanoTime();
+        pedidoService.crearPedido(dto, comprador);
+        em.flush();
+        long duracion = System.nanoTime() - inicio;
+        em.clear();
+        return duracion;
+    }
+
+    private PedidoDTO carrito(int lineas) {
+        PedidoDTO dto = new PedidoDTO();
+        dto.setTiendaId(tienda.getId());
+        dto.setTipoEntrega("recoger");
+        dto.setTipoPago("efectivo");
+        List<PedidoDTO.ItemPedidoDTO> items = new ArrayList<>();
+        for (int i = 0; i < lineas; i++) {
+            PedidoDTO.ItemPedidoDTO item = new PedidoDTO.ItemPedidoDTO();
+            item.setId(productos.get(i).getId());
+            item.setCantidad(1);
+            item.setOpcionesIds(List.of(opciones.get(i % 4).getId(), opciones.get((i + 1) % 4).getId()));
+            items.add(item);
+        }
+        dto.setItems(items);
+        return dto;
+    }
+}
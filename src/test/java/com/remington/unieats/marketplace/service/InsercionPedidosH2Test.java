@@ -0,0 +1,13 @@
+package com.remington.unieats.marketplace.service;
+
+import org.springframework.context.annotation.Import;
+
+@PruebaJpaPedidos
+@Import(PedidoServiceImpl.class)
+class InsercionPedidosH2Test extends InsercionPedidosBenchmark {
+
+    @Override
+    protected String nombreDialecto() {
+        return "H2";
+    }
+}
@@ -0,0 +1,28 @@
+package com.remington.unieats.marketplace.service;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Misma prueba con el dialecto de PostgreSQL (el de producción) sobre H2 en modo
+ * PostgreSQL, para no depender de un servidor en las pruebas: valida el SQL que genera
+ * el dialecto (secuencias con nextval, lotes), no la latencia real de Supabase.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pedidos_pg;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.remington.unieats.marketplace.service.ContadorSentencias"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PedidoServiceImpl.class)
+class InsercionPedidosPostgresDialectoTest extends InsercionPedidosBenchmark {
+
+    @Override
+    protected String nombreDialecto() {
+        return "PostgreSQL";
+    }
+}
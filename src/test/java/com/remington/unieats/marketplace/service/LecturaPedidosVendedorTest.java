@@ -0,0 +1,128 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.remington.unieats.marketplace.dto.PedidoVendedorDTO;
+import com.remington.unieats.marketplace.model.entity.Opcion;
+import com.remington.unieats.marketplace.model.entity.Pedido;
+import com.remington.unieats.marketplace.model.entity.Producto;
+import com.remington.unieats.marketplace.model.entity.Rol;
+import com.remington.unieats.marketplace.model.entity.Tienda;
+import com.remington.unieats.marketplace.model.entity.Usuario;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+
+/**
+ * Los pedidos del panel del vendedor se leen con tres consultas sin importar cuántos
+ * pedidos, compradores, detalles u opciones haya, y sin tocar los roles del comprador.
+ */
+@PruebaJpaPedidos
+@Import(VendedorServiceImpl.class)
+class LecturaPedidosVendedorTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private VendedorService vendedorService;
+
+    @MockitoBean
+    private LocalImageService localImageService;
+
+    private Tienda tienda;
+    private final List<Usuario> compradores = new ArrayList<>();
+    private final List<Producto> productos = new ArrayList<>();
+    private List<Opcion> opciones;
+    private Integer pedidoSinDetalles;
+
+    @BeforeEach
+    void prepararDatos() {
+        DatosPedidos datos = new DatosPedidos(em);
+        Rol rol = new Rol();
+        rol.setNombre("ESTUDIANTE");
+        em.persist(rol);
+        for (int i = 0; i < 3; i++) {
+            Usuario comprador = datos.usuario("comprador" + i);
+            comprador.getRoles().add(rol);
+            compradores.add(comprador);
+        }
+        tienda = datos.tienda("Tienda Lectura");
+        opciones = datos.opciones(tienda, 3);
+        for (int i = 0; i < 4; i++) {
+            productos.add(datos.producto(tienda, "Producto " + i, 10000));
+        }
+
+        for (int i = 0; i < 8; i++) {
+            EstadoPedido estado = i % 2 == 0 ? EstadoPedido.PENDIENTE : EstadoPedido.COMPLETADO;
+            Pedido pedido = datos.pedido(compradores.get(i % 3), tienda, estado, 21000);
+            datos.detalle(pedido, productos.get(i % 4), 1, 10000, Set.of());
+            datos.detalle(pedido, productos.get((i + 1) % 4), 1, 10000, Set.of(opciones.get(0), opciones.get(2)));
+        }
+        pedidoSinDetalles = datos.pedido(compradores.get(0), tienda, EstadoPedido.PENDIENTE, 21000).getId();
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void elListadoCompletoSonTresConsultas() {
+        ContadorSentencias.reiniciar();
+        List<PedidoVendedorDTO> pedidos = vendedorService.getPedidosDeLaTienda(tienda);
+
+        assertEquals(9, pedidos.size());
+        assertEquals(3, ContadorSentencias.contar("select"), "Sentencias: " + ContadorSentencias.getSentencias());
+        assertFalse(ContadorSentencias.getSentencias().stream().anyMatch(sql -> sql.contains("usuario_roles")),
+                "No debería cargar los roles del comprador");
+    }
+
+    @Test
+    void unaPaginaTambienSonTresConsultas() {
+        ContadorSentencias.reiniciar();
+        vendedorService.getPaginaPedidosDeLaTienda(tienda, EnumSet.of(EstadoPedido.PENDIENTE), null, 3);
+
+        assertEquals(3, ContadorSentencias.contar("select"), "Sentencias: " + ContadorSentencias.getSentencias());
+    }
+
+    @Test
+    void armaElPedidoConCompradorDetallesYOpciones() {
+        List<PedidoVendedorDTO> pedidos = vendedorService.getPedidosDeLaTienda(tienda);
+
+        PedidoVendedorDTO conDetalles = pedidos.stream().filter(p -> !p.getId().equals(pedidoSinDetalles)).findFirst().get();
+        assertTrue(conDetalles.getNombreComprador().matches("comprador\\d Prueba"), conDetalles.getNombreComprador());
+        assertEquals(2, conDetalles.getDetalles().size());
+        assertNull(conDetalles.getDetalles().get(0).getOpcionesSeleccionadas());
+        assertEquals("Extra 0, Extra 2", conDetalles.getDetalles().get(1).getOpcionesSeleccionadas());
+        assertTrue(conDetalles.getDetalles().get(0).getNombreProducto().startsWith("Producto "));
+
+        PedidoVendedorDTO vacio = vendedorService.getPedidoDeLaTienda(tienda, pedidoSinDetalles).get();
+        assertTrue(vacio.getDetalles().isEmpty());
+        assertEquals("PENDIENTE", vacio.getEstado());
+    }
+
+    @Test
+    void laCargaDelTableroAgrupaLosActivosPorTienda() {
+        ContadorSentencias.reiniciar();
+        Map<Integer, List<PedidoVendedorDTO>> porTienda = vendedorService.getPedidosActivosPorTienda();
+
+        assertEquals(3, ContadorSentencias.contar("select"), "Sentencias: " + ContadorSentencias.getSentencias());
+        List<PedidoVendedorDTO> activos = porTienda.get(tienda.getId());
+        assertEquals(5, activos.size());
+        assertTrue(activos.stream().allMatch(p -> p.getEstado().equals("PENDIENTE")));
+        assertEquals(2, activos.get(1).getDetalles().size());
+        assertEquals(pedidoSinDetalles, vendedorService.getPedidoVendedor(pedidoSinDetalles).get().getId());
+    }
+}
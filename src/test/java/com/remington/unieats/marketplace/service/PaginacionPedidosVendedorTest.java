@@ -0,0 +1,137 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.remington.unieats.marketplace.dto.PaginaPedidosDTO;
+import com.remington.unieats.marketplace.dto.PedidoVendedorDTO;
+import com.remington.unieats.marketplace.dto.ResumenPedidosDTO;
+import com.remington.unieats.marketplace.model.entity.Pedido;
+import com.remington.unieats.marketplace.model.entity.Tienda;
+import com.remington.unieats.marketplace.model.entity.Usuario;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+
+/**
+ * Listado de pedidos del vendedor por estado y con cursor: las páginas no repiten ni
+ * saltan pedidos aunque varios compartan la fecha de creación.
+ */
+@PruebaJpaPedidos
+@Import(VendedorServiceImpl.class)
+class PaginacionPedidosVendedorTest {
+
+    private static final Set<EstadoPedido> HISTORIAL = EnumSet.of(EstadoPedido.COMPLETADO, EstadoPedido.CANCELADO);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private VendedorService vendedorService;
+
+    @MockitoBean
+    private LocalImageService localImageService;
+
+    private DatosPedidos datos;
+    private Usuario comprador;
+    private Tienda tienda;
+    private final List<Integer> historialEsperado = new ArrayList<>();
+
+    @BeforeEach
+    void crearPedidos() {
+        datos = new DatosPedidos(em);
+        comprador = datos.usuario("comprador");
+        tienda = datos.tienda("Tienda Paginada");
+        Tienda otra = datos.tienda("Otra Tienda");
+
+        // Varios pedidos por minuto para que el desempate por id importe
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 12, 0);
+        EstadoPedido[] estados = {EstadoPedido.COMPLETADO, EstadoPedido.PENDIENTE, EstadoPedido.CANCELADO};
+        List<Pedido> creados = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            EstadoPedido estado = estados[i % estados.length];
+            creados.add(pedido(tienda, estado, base.plusMinutes(i / 4), 1000));
+            pedido(otra, EstadoPedido.COMPLETADO, base, 1000);
+        }
+        em.flush();
+        creados.stream()
+                .filter(p -> HISTORIAL.contains(p.getEstado()))
+                .sorted((a, b) -> a.getFechaCreacion().equals(b.getFechaCreacion())
+                        ? b.getId().compareTo(a.getId())
+                        : b.getFechaCreacion().compareTo(a.getFechaCreacion()))
+                .forEach(p -> historialEsperado.add(p.getId()));
+        em.clear();
+    }
+
+    @Test
+    void lasPaginasRecorrenElHistorialSinRepetir() {
+        List<Integer> recorridos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            PaginaPedidosDTO pagina = vendedorService.getPaginaPedidosDeLaTienda(tienda, HISTORIAL, cursor, 3);
+            pagina.getPedidos().forEach(p -> recorridos.add(p.getId()));
+            cursor = pagina.getSiguiente();
+            paginas++;
+        } while (cursor != null);
+
+        assertEquals(historialEsperado, recorridos);
+        assertEquals(3, paginas);
+    }
+
+    @Test
+    void elFiltroDeEstadoSoloDevuelveEsosPedidos() {
+        PaginaPedidosDTO pagina = vendedorService.getPaginaPedidosDeLaTienda(
+                tienda, EnumSet.of(EstadoPedido.PENDIENTE), null, PaginaPedidosDTO.LIMITE_POR_DEFECTO);
+
+        assertEquals(4, pagina.getPedidos().size());
+        assertEquals(List.of("PENDIENTE"), pagina.getPedidos().stream().map(PedidoVendedorDTO::getEstado).distinct().toList());
+        assertNull(pagina.getSiguiente());
+    }
+
+    @Test
+    void unCursorInvalidoSeRechaza() {
+        assertThrows(IllegalArgumentException.class,
+                () -> vendedorService.getPaginaPedidosDeLaTienda(tienda, HISTORIAL, "no-es-un-cursor", 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> vendedorService.getPaginaPedidosDeLaTienda(tienda, HISTORIAL, "2025-03-01T12:00_x", 10));
+    }
+
+    @Test
+    void unLimiteFueraDeRangoSeAcota() {
+        PaginaPedidosDTO grande = vendedorService.getPaginaPedidosDeLaTienda(
+                tienda, HISTORIAL, null, PaginaPedidosDTO.LIMITE_MAXIMO + 1);
+        PaginaPedidosDTO cero = vendedorService.getPaginaPedidosDeLaTienda(tienda, HISTORIAL, null, 0);
+
+        assertEquals(historialEsperado, grande.getPedidos().stream().map(PedidoVendedorDTO::getId).toList());
+        assertEquals(historialEsperado, cero.getPedidos().stream().map(PedidoVendedorDTO::getId).toList());
+        assertNull(cero.getSiguiente());
+    }
+
+    @Test
+    void elResumenCuentaPorEstadoSinCargarPedidos() {
+        ResumenPedidosDTO resumen = vendedorService.getResumenPedidos(tienda);
+
+        assertEquals(4L, resumen.getCantidades().get("COMPLETADO"));
+        assertEquals(4L, resumen.getCantidades().get("CANCELADO"));
+        assertEquals(0L, resumen.getCantidades().get("EN_PREPARACION"));
+        assertEquals(0, BigDecimal.valueOf(4000).compareTo(resumen.getVentasCompletadas()));
+    }
+
+    private Pedido pedido(Tienda tiendaPedido, EstadoPedido estado, LocalDateTime fecha, int total) {
+        return datos.pedido(comprador, tiendaPedido, estado, total, fecha);
+    }
+}
@@ -0,0 +1,23 @@
+package com.remington.unieats.marketplace.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+/**
+ * {@code @DataJpaTest} sobre H2 con {@link ContadorSentencias} como statement_inspector,
+ * la configuración común de las pruebas que cuentan las consultas de los pedidos.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.remington.unieats.marketplace.service.ContadorSentencias"
+})
+@interface PruebaJpaPedidos {
+}
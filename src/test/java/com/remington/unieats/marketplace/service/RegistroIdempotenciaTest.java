@@ -0,0 +1,197 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remington.unieats.marketplace.model.entity.ClaveIdempotencia;
+import com.remington.unieats.marketplace.model.repository.ClaveIdempotenciaRepository;
+
+class RegistroIdempotenciaTest {
+
+    private RegistroIdempotencia registro;
+    private ClaveIdempotenciaRepository claveIdempotenciaRepository;
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+    private long demoraMs = 50;
+
+    @BeforeEach
+    void crearRegistro() {
+        registro = new RegistroIdempotencia();
+        ReflectionTestUtils.setField(registro, "objectMapper", new ObjectMapper());
+        claveIdempotenciaRepository = mock(ClaveIdempotenciaRepository.class);
+        ReflectionTestUtils.setField(registro, "claveIdempotenciaRepository", claveIdempotenciaRepository);
+        ReflectionTestUtils.setField(registro, "ttlMinutos", 60L);
+        ReflectionTestUtils.setField(registro, "maxClaves", 100);
+    }
+
+    @Test
+    void unDuplicadoEnCursoRecibe409SinEsperar() throws Exception {
+        CountDownLatch ejecutando = new CountDownLatch(1);
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> primera = CompletableFuture.supplyAsync(
+                () -> registro.ejecutar("estudiante", "clave-1", "carrito", () -> {
+                    ejecutando.countDown();
+                    try {
+                        bloqueo.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return crearLento();
+                }));
+        assertTrue(ejecutando.await(2, TimeUnit.SECONDS));
+
+        long inicio = System.nanoTime();
+        ResponseEntity<?> enCurso = registro.ejecutar("estudiante", "clave-1", "carrito", this::crearLento);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 1000, "El duplicado no espera al primero");
+        assertEquals(HttpStatus.CONFLICT, enCurso.getStatusCode());
+        assertEquals(String.valueOf(RegistroIdempotencia.REINTENTAR_EN_SEGUNDOS),
+                enCurso.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        bloqueo.countDown();
+        assertEquals(HttpStatus.CREATED, primera.get(2, TimeUnit.SECONDS).getStatusCode());
+        ResponseEntity<?> repetida = registro.ejecutar("estudiante", "clave-1", "carrito", this::crearLento);
+        assertEquals(HttpStatus.CREATED, repetida.getStatusCode());
+        assertEquals("Pedido creado exitosamente.", repetida.getBody());
+        assertEquals("true", repetida.getHeaders().getFirst(RegistroIdempotencia.CABECERA_REPETIDA));
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void laRepeticionConservaLasCabeceras() {
+        ResponseEntity<?> aceptada = registro.ejecutar("estudiante", "clave-5", "carrito", () -> {
+            ejecuciones.incrementAndGet();
+            return ResponseEntity.accepted().location(URI.create("/api/pedidos/solicitudes/abc")).body("en cola");
+        });
+        ResponseEntity<?> repetida = registro.ejecutar("estudiante", "clave-5", "carrito", this::crearLento);
+
+        assertEquals(HttpStatus.ACCEPTED, repetida.getStatusCode());
+        assertEquals(aceptada.getHeaders().getLocation(), repetida.getHeaders().getLocation());
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void laRepeticionDesdeLaTablaConservaLasCabeceras() {
+        ReflectionTestUtils.setField(registro, "persistente", true);
+        registro.ejecutar("estudiante", "clave-6", "carrito", () -> ResponseEntity.accepted()
+                .location(URI.create("/api/pedidos/solicitudes/xyz")).build());
+        ArgumentCaptor<ClaveIdempotencia> guardada = ArgumentCaptor.forClass(ClaveIdempotencia.class);
+        verify(claveIdempotenciaRepository).save(guardada.capture());
+        ClaveIdempotencia fila = new ClaveIdempotencia();
+        fila.setHuella(guardada.getValue().getHuella());
+        fila.setCodigo(guardada.getValue().getCodigo());
+        fila.setCabeceras(guardada.getValue().getCabeceras());
+        fila.setCreadaEn(LocalDateTime.now());
+
+        // Tras un reinicio la clave solo está en la tabla
+        crearRegistro();
+        ReflectionTestUtils.setField(registro, "persistente", true);
+        when(claveIdempotenciaRepository.findById("estudiante:clave-6")).thenReturn(Optional.of(fila));
+        ResponseEntity<?> repetida = registro.ejecutar("estudiante", "clave-6", "carrito", this::crearLento);
+
+        assertEquals(HttpStatus.ACCEPTED, repetida.getStatusCode());
+        assertEquals(URI.create("/api/pedidos/solicitudes/xyz"), repetida.getHeaders().getLocation());
+        assertEquals(0, ejecuciones.get());
+    }
+
+    @Test
+    void laMismaClaveConOtroCarritoEsRechazada() {
+        registro.ejecutar("estudiante", "clave-2", "carrito A", this::crearLento);
+        ResponseEntity<?> r = registro.ejecutar("estudiante", "clave-2", "carrito B", this::crearLento);
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, r.getStatusCode());
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void lasClavesSeSeparanPorUsuario() {
+        registro.ejecutar("estudiante1", "clave-3", "carrito", this::crearLento);
+        ResponseEntity<?> r = registro.ejecutar("estudiante2", "clave-3", "carrito", this::crearLento);
+        assertNull(r.getHeaders().get(RegistroIdempotencia.CABECERA_REPETIDA));
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    void unFalloLiberaLaClave() {
+        ResponseEntity<?> fallida = registro.ejecutar("estudiante", "clave-4", "carrito", () -> {
+            ejecuciones.incrementAndGet();
+            return ResponseEntity.badRequest().body("Tienda no encontrada");
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, fallida.getStatusCode());
+
+        ResponseEntity<?> reintento = registro.ejecutar("estudiante", "clave-4", "carrito", this::crearLento);
+        assertEquals(HttpStatus.CREATED, reintento.getStatusCode());
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    void rechazaClavesInvalidas() {
+        assertThrows(IllegalArgumentException.class,
+                () -> registro.ejecutar("estudiante", " ", "carrito", this::crearLento));
+        assertThrows(IllegalArgumentException.class,
+                () -> registro.ejecutar("estudiante", "x".repeat(101), "carrito", this::crearLento));
+    }
+
+    @Test
+    void respetaElLimiteDeClaves() {
+        demoraMs = 0;
+        for (int i = 0; i < 250; i++) {
+            registro.ejecutar("estudiante", "clave-" + i, "carrito", this::crearLento);
+        }
+        ResponseEntity<?> antigua = registro.ejecutar("estudiante", "clave-0", "carrito", this::crearLento);
+        // La clave más antigua salió del registro y se ejecuta de nuevo
+        assertNull(antigua.getHeaders().get(RegistroIdempotencia.CABECERA_REPETIDA));
+        assertEquals(251, ejecuciones.get());
+    }
+
+    @Test
+    void unaClaveDeLaTablaConOtroCarritoSigueRechazadaAlReintentar() {
+        ReflectionTestUtils.setField(registro, "persistente", true);
+        registro.ejecutar("estudiante", "clave-7", "carrito A", this::crearLento);
+        ArgumentCaptor<ClaveIdempotencia> guardada = ArgumentCaptor.forClass(ClaveIdempotencia.class);
+        verify(claveIdempotenciaRepository).save(guardada.capture());
+
+        // Tras un reinicio la clave solo está en la tabla
+        crearRegistro();
+        ReflectionTestUtils.setField(registro, "persistente", true);
+        when(claveIdempotenciaRepository.findById("estudiante:clave-7")).thenReturn(Optional.of(guardada.getValue()));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,
+                registro.ejecutar("estudiante", "clave-7", "carrito B", this::crearLento).getStatusCode());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,
+                registro.ejecutar("estudiante", "clave-7", "carrito B", this::crearLento).getStatusCode());
+        ResponseEntity<?> original = registro.ejecutar("estudiante", "clave-7", "carrito A", this::crearLento);
+        assertEquals(HttpStatus.CREATED, original.getStatusCode());
+        assertEquals("true", original.getHeaders().getFirst(RegistroIdempotencia.CABECERA_REPETIDA));
+        assertEquals(1, ejecuciones.get());
+    }
+
+    private ResponseEntity<?> crearLento() {
+        ejecuciones.incrementAndGet();
+        try {
+            Thread.sleep(demoraMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body("Pedido creado exitosamente.");
+    }
+}
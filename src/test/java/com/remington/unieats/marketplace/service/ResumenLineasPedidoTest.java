@@ -0,0 +1,149 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.remington.unieats.marketplace.dto.PedidoCompradorDTO;
+import com.remington.unieats.marketplace.dto.PedidoDTO;
+import com.remington.unieats.marketplace.dto.PedidoVendedorDTO;
+import com.remington.unieats.marketplace.model.entity.Opcion;
+import com.remington.unieats.marketplace.model.entity.Pedido;
+import com.remington.unieats.marketplace.model.entity.Producto;
+import com.remington.unieats.marketplace.model.entity.Tienda;
+import com.remington.unieats.marketplace.model.entity.Usuario;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+
+/**
+ * El resumen de líneas se escribe al crear el pedido y los listados lo usan sin volver a
+ * leer detalles ni opciones; los pedidos anteriores al resumen se siguen armando desde
+ * sus detalles, con el mismo resultado.
+ */
+@PruebaJpaPedidos
+@Import({PedidoServiceImpl.class, VendedorServiceImpl.class})
+class ResumenLineasPedidoTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private VendedorService vendedorService;
+
+    @MockitoBean
+    private LocalImageService localImageService;
+
+    private DatosPedidos datos;
+    private Usuario comprador;
+    private Tienda tienda;
+    private Producto arepa;
+    private Producto jugo;
+    private List<Opcion> opciones;
+
+    @BeforeEach
+    void prepararCatalogo() {
+        datos = new DatosPedidos(em);
+        comprador = datos.usuario("resumen");
+        tienda = datos.tienda("Tienda Resumen");
+        opciones = datos.opciones(tienda, 3);
+        arepa = datos.producto(tienda, "Arepa", 8000);
+        jugo = datos.producto(tienda, "Jugo", 4000);
+        em.flush();
+    }
+
+    @Test
+    void crearPedidoGuardaElResumenDeLineas() {
+        Integer id = crear().getId();
+        em.flush();
+        em.clear();
+
+        String resumen = em.find(Pedido.class, id).getResumenLineas();
+        assertNotNull(resumen);
+        List<LineasPedido.Linea> lineas = LineasPedido.leer(resumen);
+        assertEquals(2, lineas.size());
+        assertEquals(List.of("Extra 0", "Extra 2"), lineas.get(0).getOpciones());
+        assertEquals(0, BigDecimal.valueOf(9000).compareTo(lineas.get(0).getPrecioUnitario()));
+    }
+
+    @Test
+    void losListadosDePedidosNuevosNoLeenDetalles() {
+        for (int i = 0; i < 5; i++) {
+            crear();
+        }
+        em.flush();
+        em.clear();
+
+        ContadorSentencias.reiniciar();
+        List<PedidoVendedorDTO> panel = vendedorService.getPedidosDeLaTienda(tienda);
+        assertEquals(1, ContadorSentencias.contar("select"), "Sentencias: " + ContadorSentencias.getSentencias());
+        assertEquals(5, panel.size());
+
+        ContadorSentencias.reiniciar();
+        pedidoService.getMisPedidos("resumen@unieats.test", null, 10);
+        assertEquals(2, ContadorSentencias.contar("select"), "Sentencias: " + ContadorSentencias.getSentencias());
+    }
+
+    @Test
+    void elResumenYLosDetallesArmanLoMismo() {
+        Integer nuevo = crear().getId();
+        Integer anterior = pedidoSinResumen().getId();
+        em.flush();
+        em.clear();
+
+        List<PedidoVendedorDTO> panel = vendedorService.getPedidosDeLaTienda(tienda);
+        PedidoVendedorDTO desdeResumen = panel.stream().filter(p -> p.getId().equals(nuevo)).findFirst().get();
+        PedidoVendedorDTO desdeDetalles = panel.stream().filter(p -> p.getId().equals(anterior)).findFirst().get();
+        assertEquals(2, desdeResumen.getDetalles().size());
+        for (int i = 0; i < 2; i++) {
+            PedidoVendedorDTO.DetallePedidoVendedorDTO esperado = desdeDetalles.getDetalles().get(i);
+            PedidoVendedorDTO.DetallePedidoVendedorDTO obtenido = desdeResumen.getDetalles().get(i);
+            assertEquals(esperado.getNombreProducto(), obtenido.getNombreProducto());
+            assertEquals(esperado.getCantidad(), obtenido.getCantidad());
+            assertEquals(0, esperado.getPrecioUnitario().compareTo(obtenido.getPrecioUnitario()));
+            assertEquals(esperado.getOpcionesSeleccionadas(), obtenido.getOpcionesSeleccionadas());
+        }
+        assertNull(desdeResumen.getDetalles().get(1).getOpcionesSeleccionadas());
+
+        List<PedidoCompradorDTO> historial = pedidoService.getMisPedidos(em.find(Usuario.class, comprador.getId()));
+        assertEquals(List.of("2x Arepa (+ Extra 0, + Extra 2)", "1x Jugo"), historial.get(0).getItems());
+        assertEquals(historial.get(0).getItems(), historial.get(1).getItems());
+    }
+
+    // 2 arepas con dos adiciones (pedidas en desorden) y un jugo solo
+    private Pedido crear() {
+        PedidoDTO.ItemPedidoDTO conOpciones = new PedidoDTO.ItemPedidoDTO();
+        conOpciones.setId(arepa.getId());
+        conOpciones.setCantidad(2);
+        conOpciones.setOpcionesIds(List.of(opciones.get(2).getId(), opciones.get(0).getId()));
+        PedidoDTO.ItemPedidoDTO simple = new PedidoDTO.ItemPedidoDTO();
+        simple.setId(jugo.getId());
+        simple.setCantidad(1);
+
+        PedidoDTO pedidoDTO = new PedidoDTO();
+        pedidoDTO.setTiendaId(tienda.getId());
+        pedidoDTO.setItems(List.of(conOpciones, simple));
+        return pedidoService.crearPedido(pedidoDTO, comprador);
+    }
+
+    // Los mismos productos, como quedaban guardados antes de existir el resumen
+    private Pedido pedidoSinResumen() {
+        Pedido pedido = datos.pedido(comprador, tienda, EstadoPedido.COMPLETADO, 22000, LocalDateTime.now().minusDays(1));
+        datos.detalle(pedido, arepa, 2, 9000, Set.of(opciones.get(0), opciones.get(2)));
+        datos.detalle(pedido, jugo, 1, 4000, Set.of());
+        return pedido;
+    }
+}
@@ -0,0 +1,275 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.remington.unieats.marketplace.dto.PedidoVendedorDTO;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+import com.remington.unieats.marketplace.model.repository.TiendaRepository;
+
+class TableroCocinaTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 5, 1, 12, 0);
+
+    private VendedorService vendedorService;
+    private TiendaRepository tiendaRepository;
+    private TableroCocina tablero;
+
+    // Estado que "tiene la base" para cada pedido al leerlo después del commit
+    private final Map<Integer, EstadoPedido> estadoEnBase = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void crearTablero() {
+        vendedorService = mock(VendedorService.class);
+        tiendaRepository = mock(TiendaRepository.class);
+        when(tiendaRepository.findTiendasDeVendedores()).thenReturn(List.of(tiendaDe("tienda1@unieats.test", 1)));
+        when(vendedorService.getPedidosActivosPorTienda()).thenReturn(Map.of(
+                1, List.of(pedido(10, EstadoPedido.PENDIENTE), pedido(11, EstadoPedido.EN_PREPARACION)),
+                2, List.of(pedido(20, EstadoPedido.LISTO_PARA_RECOGER))));
+        when(vendedorService.getPedidoVendedor(anyInt())).thenAnswer(invocacion -> {
+            Integer id = invocacion.getArgument(0);
+            return Optional.ofNullable(estadoEnBase.get(id)).map(estado -> pedido(id, estado));
+        });
+
+        tablero = new TableroCocina();
+        ReflectionTestUtils.setField(tablero, "vendedorService", vendedorService);
+        ReflectionTestUtils.setField(tablero, "tiendaRepository", tiendaRepository);
+        tablero.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void seSirveDesdeMemoriaSinConsultas() {
+        clearInvocations(vendedorService, tiendaRepository);
+
+        assertEquals(Optional.of(1), tablero.getTiendaDeVendedor("tienda1@unieats.test"));
+        List<PedidoVendedorDTO> pedidos = tablero.getPedidos(1).get();
+
+        assertEquals(List.of(11, 10), pedidos.stream().map(PedidoVendedorDTO::getId).toList());
+        assertEquals(List.of(), tablero.getPedidos(99).get());
+        verifyNoInteractions(vendedorService, tiendaRepository);
+    }
+
+    @Test
+    void unaTiendaNuevaSeBuscaUnaSolaVez() {
+        when(tiendaRepository.findIdByCorreoVendedor("nueva@unieats.test")).thenReturn(Optional.of(3));
+
+        tablero.getTiendaDeVendedor("nueva@unieats.test");
+        assertEquals(Optional.of(3), tablero.getTiendaDeVendedor("nueva@unieats.test"));
+        verify(tiendaRepository, times(1)).findIdByCorreoVendedor("nueva@unieats.test");
+    }
+
+    @Test
+    void losEventosMantienenElTablero() {
+        estadoEnBase.put(12, EstadoPedido.PENDIENTE);
+        tablero.onPedidoCreado(new PedidoCreadoEvent(12, 1, "ana", EstadoPedido.PENDIENTE));
+        assertEquals(List.of(12, 11, 10), ids(1));
+
+        PedidoVendedorDTO antes = tablero.getPedidos(1).get().get(0);
+        tablero.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(12, EstadoPedido.EN_PREPARACION));
+        assertEquals("EN_PREPARACION", tablero.getPedidos(1).get().get(0).getEstado());
+        assertEquals("PENDIENTE", antes.getEstado(), "La lista ya publicada no cambia");
+
+        tablero.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(10, EstadoPedido.CANCELADO));
+        tablero.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(20, EstadoPedido.COMPLETADO));
+        assertEquals(List.of(12, 11), ids(1));
+        assertEquals(List.of(), ids(2));
+        assertEquals(2, tablero.getPedidosEnTablero());
+    }
+
+    @Test
+    void unPedidoQueYaTerminoAlLeerloNoEntra() {
+        // Se canceló entre su commit y el alta en el tablero
+        estadoEnBase.put(13, EstadoPedido.CANCELADO);
+        tablero.onPedidoCreado(new PedidoCreadoEvent(13, 1, "ana", EstadoPedido.PENDIENTE));
+
+        assertEquals(List.of(11, 10), ids(1));
+        assertEquals(3, tablero.getPedidosEnTablero());
+    }
+
+    @Test
+    void escritoresConcurrentesNoPierdenCambios() throws Exception {
+        int hilos = 8;
+        int porHilo = 150;
+        AtomicInteger siguienteId = new AtomicInteger(1000);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            tareas.add(ejecutor.submit(() -> {
+                for (int i = 0; i < porHilo; i++) {
+                    int id = siguienteId.getAndIncrement();
+                    int tiendaId = 1 + id % 2;
+                    estadoEnBase.put(id, EstadoPedido.PENDIENTE);
+                    tablero.onPedidoCreado(new PedidoCreadoEvent(id, tiendaId, "ana", EstadoPedido.PENDIENTE));
+                    tablero.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(id, EstadoPedido.EN_PREPARACION));
+                    if (id % 3 == 0) {
+                        tablero.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(id, EstadoPedido.COMPLETADO));
+                    }
+                }
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        ejecutor.shutdown();
+
+        int creados = hilos * porHilo;
+        long quedan = IntStream.range(1000, 1000 + creados).filter(id -> id % 3 != 0).count();
+        List<PedidoVendedorDTO> todos = new ArrayList<>(tablero.getPedidos(1).get());
+        todos.addAll(tablero.getPedidos(2).get());
+        assertEquals(quedan + 3, todos.size());
+        assertTrue(todos.stream().filter(p -> p.getId() >= 1000).allMatch(p -> p.getEstado().equals("EN_PREPARACION")));
+        assertEquals(quedan + 3, tablero.getPedidosEnTablero());
+    }
+
+    @Test
+    void sinCargaInicialNoSeUsaElTablero() {
+        when(vendedorService.getPedidosActivosPorTienda()).thenThrow(new IllegalStateException("base caída"));
+        TableroCocina sinCargar = new TableroCocina();
+        ReflectionTestUtils.setField(sinCargar, "vendedorService", vendedorService);
+        ReflectionTestUtils.setField(sinCargar, "tiendaRepository", tiendaRepository);
+        sinCargar.afterSingletonsInstantiated();
+
+        assertTrue(sinCargar.getPedidos(1).isEmpty());
+    }
+
+    @Test
+    void laLecturaDeUnPedidoNuevoNoBloqueaLaTienda() throws Exception {
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        estadoEnBase.put(14, EstadoPedido.PENDIENTE);
+        when(vendedorService.getPedidoVendedor(eq(14))).thenAnswer(invocacion -> {
+            leyendo.countDown();
+            bloqueo.await(5, TimeUnit.SECONDS);
+            return Optional.of(pedido(14, EstadoPedido.PENDIENTE));
+        });
+        CompletableFuture<Void> alta = CompletableFuture.runAsync(
+                () -> tablero.onPedidoCreado(new PedidoCreadoEvent(14, 1, "ana", EstadoPedido.PENDIENTE)));
+        assertTrue(leyendo.await(2, TimeUnit.SECONDS));
+
+        // Con la lectura en curso, la misma tienda sigue recibiendo cambios
+        CompletableFuture.runAsync(() -> tablero.onPedidoEstadoCambiado(
+                new PedidoEstadoCambiadoEvent(10, EstadoPedido.EN_PREPARACION))).get(2, TimeUnit.SECONDS);
+        // Y un cambio del pedido que se está leyendo manda sobre lo leído
+        tablero.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(14, EstadoPedido.LISTO_PARA_RECOGER));
+        bloqueo.countDown();
+        alta.get(2, TimeUnit.SECONDS);
+
+        assertEquals(List.of(14, 11, 10), ids(1));
+        assertEquals("LISTO_PARA_RECOGER", tablero.getPedidos(1).get().get(0).getEstado());
+        assertEquals("EN_PREPARACION", tablero.getPedidos(1).get().get(2).getEstado());
+    }
+
+    @Test
+    void unPedidoFinalizadoMientrasSeLeiaNoEntra() throws Exception {
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        when(vendedorService.getPedidoVendedor(eq(15))).thenAnswer(invocacion -> {
+            leyendo.countDown();
+            bloqueo.await(5, TimeUnit.SECONDS);
+            return Optional.of(pedido(15, EstadoPedido.PENDIENTE));
+        });
+        CompletableFuture<Void> alta = CompletableFuture.runAsync(
+                () -> tablero.onPedidoCreado(new PedidoCreadoEvent(15, 1, "ana", EstadoPedido.PENDIENTE)));
+        assertTrue(leyendo.await(2, TimeUnit.SECONDS));
+        tablero.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(15, EstadoPedido.CANCELADO));
+        bloqueo.countDown();
+        alta.get(2, TimeUnit.SECONDS);
+
+        assertEquals(List.of(11, 10), ids(1));
+        assertEquals(3, tablero.getPedidosEnTablero());
+    }
+
+    @Test
+    void unaCargaFallidaSeReintentaAlPedirElTablero() {
+        TableroCocina sinCargar = new TableroCocina();
+        when(vendedorService.getPedidosActivosPorTienda())
+                .thenThrow(new IllegalStateException("base caída"))
+                .thenReturn(Map.of(1, List.of(pedido(10, EstadoPedido.PENDIENTE))));
+        ReflectionTestUtils.setField(sinCargar, "vendedorService", vendedorService);
+        ReflectionTestUtils.setField(sinCargar, "tiendaRepository", tiendaRepository);
+        sinCargar.afterSingletonsInstantiated();
+
+        // Antes del intervalo no se vuelve a intentar
+        assertTrue(sinCargar.getPedidos(1).isEmpty());
+        ReflectionTestUtils.setField(sinCargar, "ultimoIntento", System.currentTimeMillis() - TableroCocina.REINTENTO_CARGA_MS);
+
+        assertEquals(List.of(10), sinCargar.getPedidos(1).get().stream().map(PedidoVendedorDTO::getId).toList());
+    }
+
+    @Test
+    void losEventosDuranteUnaRecargaNoSePierden() throws Exception {
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        when(vendedorService.getPedidosActivosPorTienda()).thenAnswer(invocacion -> {
+            leyendo.countDown();
+            bloqueo.await(5, TimeUnit.SECONDS);
+            // La lectura no alcanza a ver el pedido 16 ni la cancelación del 10
+            return Map.of(1, List.of(pedido(10, EstadoPedido.PENDIENTE)));
+        });
+        TableroCocina recargando = new TableroCocina();
+        ReflectionTestUtils.setField(recargando, "vendedorService", vendedorService);
+        ReflectionTestUtils.setField(recargando, "tiendaRepository", tiendaRepository);
+        CompletableFuture<Void> carga = CompletableFuture.runAsync(recargando::afterSingletonsInstantiated);
+        assertTrue(leyendo.await(2, TimeUnit.SECONDS));
+
+        estadoEnBase.put(16, EstadoPedido.PENDIENTE);
+        recargando.onPedidoCreado(new PedidoCreadoEvent(16, 1, "ana", EstadoPedido.PENDIENTE));
+        estadoEnBase.put(10, EstadoPedido.CANCELADO);
+        recargando.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(10, EstadoPedido.CANCELADO));
+        bloqueo.countDown();
+        carga.get(2, TimeUnit.SECONDS);
+
+        assertEquals(List.of(16), recargando.getPedidos(1).get().stream().map(PedidoVendedorDTO::getId).toList());
+        assertEquals(1, recargando.getPedidosEnTablero());
+    }
+
+    private List<Integer> ids(Integer tiendaId) {
+        return tablero.getPedidos(tiendaId).get().stream().map(PedidoVendedorDTO::getId).toList();
+    }
+
+    private static PedidoVendedorDTO pedido(Integer id, EstadoPedido estado) {
+        PedidoVendedorDTO pedido = new PedidoVendedorDTO();
+        pedido.setId(id);
+        pedido.setEstado(estado.name());
+        pedido.setFechaCreacion(BASE.plusMinutes(id));
+        pedido.setNombreComprador("Ana Prueba");
+        pedido.setDetalles(List.of());
+        return pedido;
+    }
+
+    private static TiendaRepository.TiendaDeVendedor tiendaDe(String correo, Integer id) {
+        return new TiendaRepository.TiendaDeVendedor() {
+            @Override
+            public Integer getId() { return id; }
+            @Override
+            public String getCorreo() { return correo; }
+        };
+    }
+}
@@ -0,0 +1,177 @@
+package com.remington.unieats.marketplace.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.remington.unieats.marketplace.dto.ResultadoCambioEstadoDTO;
+import com.remington.unieats.marketplace.model.entity.Pedido;
+import com.remington.unieats.marketplace.model.entity.Tienda;
+import com.remington.unieats.marketplace.model.entity.Usuario;
+import com.remington.unieats.marketplace.model.enums.EstadoPedido;
+import com.remington.unieats.marketplace.model.repository.PedidoRepository;
+
+/**
+ * Cambios de estado con UPDATE condicional: una sola sentencia cuando la transición
+ * es válida y conflicto cuando el pedido ya no está en un estado de origen.
+ */
+@PruebaJpaPedidos
+@Import(PedidoServiceImpl.class)
+class TransicionesEstadoPedidoTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    private DatosPedidos datos;
+    private Usuario comprador;
+    private Tienda tienda;
+    private Integer pedidoId;
+
+    @BeforeEach
+    void crearPedido() {
+        datos = new DatosPedidos(em);
+        comprador = datos.usuario("comprador");
+        tienda = datos.tienda("Tienda Estados");
+        pedidoId = pedido(tienda, EstadoPedido.PENDIENTE);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void unaTransicionValidaEsUnSoloUpdate() {
+        ContadorSentencias.reiniciar();
+        pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.EN_PREPARACION);
+
+        assertEquals(1, ContadorSentencias.contar("update"));
+        assertEquals(0, ContadorSentencias.contar("select"), "No debería cargar el pedido: " + ContadorSentencias.getSentencias());
+        assertEquals(EstadoPedido.EN_PREPARACION, em.find(Pedido.class, pedidoId).getEstado());
+    }
+
+    @Test
+    void elSegundoClicRecibeConflicto() {
+        pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.EN_PREPARACION);
+
+        TransicionEstadoInvalidaException conflicto = assertThrows(TransicionEstadoInvalidaException.class,
+                () -> pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.EN_PREPARACION));
+        assertEquals(EstadoPedido.EN_PREPARACION, conflicto.getEstadoActual());
+    }
+
+    @Test
+    void unPedidoCompletadoNoVuelveAtras() {
+        pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.EN_PREPARACION);
+        pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.LISTO_PARA_RECOGER);
+        pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.COMPLETADO);
+
+        assertThrows(TransicionEstadoInvalidaException.class,
+                () -> pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.PENDIENTE));
+        assertThrows(TransicionEstadoInvalidaException.class,
+                () -> pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.CANCELADO));
+        em.clear();
+        assertEquals(EstadoPedido.COMPLETADO, em.find(Pedido.class, pedidoId).getEstado());
+    }
+
+    @Test
+    void unPedidoInexistenteNoEsUnConflicto() {
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> pedidoService.actualizarEstadoPedido(-1, EstadoPedido.EN_PREPARACION));
+        assertFalse(error instanceof TransicionEstadoInvalidaException);
+    }
+
+    @Test
+    void cambioMasivoConResultadoPorPedido() {
+        Integer otroPendiente = pedido(tienda, EstadoPedido.PENDIENTE);
+        Integer completado = pedido(tienda, EstadoPedido.COMPLETADO);
+        Integer deOtraTienda = pedido(datos.tienda("Otra Tienda"), EstadoPedido.PENDIENTE);
+        em.flush();
+        em.clear();
+
+        ContadorSentencias.reiniciar();
+        List<ResultadoCambioEstadoDTO> resultados = pedidoService.actualizarEstadoPedidos(tienda.getId(),
+                List.of(pedidoId, otroPendiente, completado, deOtraTienda, -1, pedidoId), EstadoPedido.EN_PREPARACION);
+
+        // Un SELECT ... FOR UPDATE y un solo UPDATE para todos los pedidos válidos
+        assertEquals(1, ContadorSentencias.contar("select"));
+        assertEquals(1, ContadorSentencias.contar("update"), "Sentencias: " + ContadorSentencias.getSentencias());
+        assertTrue(ContadorSentencias.getSentencias().get(0).toLowerCase().contains("for update"));
+
+        assertEquals(5, resultados.size(), "Los ids repetidos se informan una vez");
+        assertResultado(resultados.get(0), pedidoId, ResultadoCambioEstadoDTO.ACTUALIZADO, EstadoPedido.EN_PREPARACION);
+        assertResultado(resultados.get(1), otroPendiente, ResultadoCambioEstadoDTO.ACTUALIZADO, EstadoPedido.EN_PREPARACION);
+        assertResultado(resultados.get(2), completado, ResultadoCambioEstadoDTO.CONFLICTO, EstadoPedido.COMPLETADO);
+        assertResultado(resultados.get(3), deOtraTienda, ResultadoCambioEstadoDTO.NO_ENCONTRADO, null);
+        assertResultado(resultados.get(4), -1, ResultadoCambioEstadoDTO.NO_ENCONTRADO, null);
+
+        em.clear();
+        assertEquals(EstadoPedido.EN_PREPARACION, em.find(Pedido.class, otroPendiente).getEstado());
+        assertEquals(EstadoPedido.PENDIENTE, em.find(Pedido.class, deOtraTienda).getEstado());
+    }
+
+    @Test
+    void cambioMasivoSinPedidosValidosNoActualiza() {
+        ContadorSentencias.reiniciar();
+        List<ResultadoCambioEstadoDTO> resultados = pedidoService.actualizarEstadoPedidos(tienda.getId(),
+                List.of(pedidoId), EstadoPedido.COMPLETADO);
+
+        assertEquals(ResultadoCambioEstadoDTO.CONFLICTO, resultados.get(0).getResultado());
+        assertEquals(0, ContadorSentencias.contar("update"));
+    }
+
+    @Test
+    void losCambiosDeEstadoMuevenLaMarcaDeActualizacion() {
+        Integer otroPendiente = pedido(tienda, EstadoPedido.PENDIENTE);
+        Integer sinCambios = pedido(tienda, EstadoPedido.PENDIENTE);
+        em.flush();
+        em.clear();
+        LocalDateTime desde = LocalDateTime.now().minusSeconds(1);
+
+        pedidoService.actualizarEstadoPedido(pedidoId, EstadoPedido.EN_PREPARACION);
+        pedidoService.actualizarEstadoPedidos(tienda.getId(), List.of(otroPendiente), EstadoPedido.CANCELADO);
+
+        List<Integer> cambiados = pedidoRepository
+                .findFilasVendedorActualizadasDesde(em.find(Tienda.class, tienda.getId()), desde)
+                .stream().map(PedidoRepository.FilaPedidoVendedor::getId).toList();
+        assertEquals(2, cambiados.size());
+        assertTrue(cambiados.containsAll(List.of(pedidoId, otroPendiente)));
+        assertFalse(cambiados.contains(sinCambios));
+    }
+
+    @Test
+    void tablaDeTransiciones() {
+        assertTrue(EstadoPedido.PENDIENTE.puedePasarA(EstadoPedido.EN_PREPARACION));
+        assertTrue(EstadoPedido.PENDIENTE.puedePasarA(EstadoPedido.CANCELADO));
+        assertTrue(EstadoPedido.EN_PREPARACION.puedePasarA(EstadoPedido.CANCELADO));
+        assertFalse(EstadoPedido.LISTO_PARA_RECOGER.puedePasarA(EstadoPedido.CANCELADO));
+        assertFalse(EstadoPedido.PENDIENTE.puedePasarA(EstadoPedido.COMPLETADO));
+        for (EstadoPedido destino : EstadoPedido.values()) {
+            assertFalse(EstadoPedido.COMPLETADO.puedePasarA(destino));
+            assertFalse(EstadoPedido.CANCELADO.puedePasarA(destino));
+        }
+    }
+
+    private static void assertResultado(ResultadoCambioEstadoDTO resultado, Integer pedidoId, String esperado,
+            EstadoPedido estado) {
+        assertEquals(pedidoId, resultado.getPedidoId());
+        assertEquals(esperado, resultado.getResultado());
+        assertEquals(estado, resultado.getEstadoActual());
+    }
+
+    private Integer pedido(Tienda tiendaPedido, EstadoPedido estado) {
+        return datos.pedido(comprador, tiendaPedido, estado, 10000, LocalDateTime.now().minusHours(1)).getId();
+    }
+}